@@ -0,0 +1,62 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.benchmark;
+
+import at.yawk.config.Configuration;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Loads and saves the same {@link RouteTable} in the text formats (gson and snakeyaml) and the binary formats (cbor
+ * and msgpack). Encoded sizes are printed during setup.
+ *
+ * @author yawkat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+    @Param({ "json", "yaml", "cbor", "msgpack" })
+    private String format;
+    @Param({ "100", "10000" })
+    private int routes;
+
+    private Configuration configuration;
+    private RouteTable table;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        Properties properties = new Properties();
+        properties.setProperty("format", format);
+        configuration = Configuration.create(properties);
+        table = RouteTable.generate(routes);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        configuration.save(table, out);
+        encoded = out.toByteArray();
+        System.out.println(format + " encodes " + routes + " routes in " + encoded.length + " bytes");
+    }
+
+    @Benchmark
+    public RouteTable load() {
+        return configuration.load(RouteTable.class, new ByteArrayInputStream(encoded));
+    }
+
+    @Benchmark
+    public byte[] save() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.length);
+        configuration.save(table, out);
+        return out.toByteArray();
+    }
+}
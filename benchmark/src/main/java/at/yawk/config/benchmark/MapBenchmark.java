@@ -0,0 +1,63 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.benchmark;
+
+import at.yawk.config.Configuration;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Loads the same file through a stream and through a memory mapping, to place the {@code mapThreshold} default. File
+ * sizes are printed during setup.
+ *
+ * @author yawkat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmark {
+    @Param({ "json", "cbor" })
+    private String format;
+    @Param({ "4", "32", "256", "2048", "32768" })
+    private int routes;
+    @Param({ "stream", "map" })
+    private String mode;
+
+    private Configuration configuration;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("format", format);
+        properties.setProperty("mapThreshold", mode.equals("map") ? "0" : "-1");
+        configuration = Configuration.create(properties);
+
+        file = Files.createTempFile("config-benchmark", "." + format);
+        configuration.save(RouteTable.generate(routes), file);
+        System.out.println(format + " file with " + routes + " routes has " + Files.size(file) + " bytes");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        // mapped files may not be deletable until the mapping is collected
+        System.gc();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public RouteTable load() {
+        return configuration.load(RouteTable.class, file);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark document shaped like a generated routing table: a few header properties and a long list of small beans
+ * mixing strings, numbers and booleans.
+ *
+ * @author yawkat
+ */
+public class RouteTable {
+    private String name;
+    private int version;
+    private List<Route> routes;
+
+    public static RouteTable generate(int routeCount) {
+        List<Route> routes = new ArrayList<>(routeCount);
+        for (int i = 0; i < routeCount; i++) {
+            Route route = new Route();
+            route.setPath("/service/" + (i % 97) + "/resource/" + i);
+            route.setTarget("backend-" + (i % 13) + ".internal:" + (8000 + i % 100));
+            route.setWeight(i % 10 + 1);
+            route.setTimeout(0.25 * (i % 8 + 1));
+            route.setEnabled(i % 7 != 0);
+            route.setMethods(i % 3 == 0 ? Arrays.asList("GET", "HEAD") : Arrays.asList("GET", "POST", "PUT"));
+            routes.add(route);
+        }
+        RouteTable table = new RouteTable();
+        table.setName("routes");
+        table.setVersion(1);
+        table.setRoutes(routes);
+        return table;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    public static class Route {
+        private String path;
+        private String target;
+        private int weight;
+        private double timeout;
+        private boolean enabled;
+        private List<String> methods;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public void setTarget(String target) {
+            this.target = target;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+
+        public double getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(double timeout) {
+            this.timeout = timeout;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+    }
+}
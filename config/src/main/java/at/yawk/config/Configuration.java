@@ -0,0 +1,384 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config;
+
+import at.yawk.config.document.DocumentHandler;
+import at.yawk.config.document.DocumentHandlerBuilder;
+import at.yawk.config.document.DocumentPath;
+import at.yawk.config.document.ListWriter;
+import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.ConfigurationFormatConfigurerRegistry;
+import at.yawk.config.file.DocumentCache;
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.ObjectWriter;
+import at.yawk.config.file.TokenBuffer;
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @author yawkat
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class Configuration {
+    private final DocumentHandler documentHandler;
+    private final ConfigurationFormat format;
+    /**
+     * Files of at least this size are memory-mapped by {@link #load(Class, Path)} instead of being read through a
+     * stream. Negative to never map files.
+     * <p>
+     * Mapping has a fixed cost the stream does not: a system call, a page fault per page and an unmapping that waits
+     * for garbage collection. Below a few pages the stream reads the whole file in a handful of buffer fills, so the
+     * default of 64 KiB only maps files where skipping the copies through those buffers pays for the setup. The
+     * {@code MapBenchmark} of the benchmark module compares both paths across file sizes to tune this per platform.
+     */
+    private final long mapThreshold;
+    /**
+     * Cache of parsed files, or {@code null} if files are parsed on every load.
+     */
+    // nullable
+    private final DocumentCache documentCache;
+
+    public static Configuration create(Properties properties) {
+        ConfigurationFormat format = ConfigurationFormatConfigurerRegistry
+                .propertyDetectingConfigurer()
+                .buildFormat(properties);
+
+        DocumentHandlerBuilder builder = new DocumentHandlerBuilder();
+        DocumentHandler documentHandler = builder.build();
+
+        long mapThreshold = Long.parseLong(properties.getProperty("mapThreshold", "65536"));
+
+        // every configuration gets a cache of its own, see withDocumentCache to share one
+        long documentCacheTokens = Long.parseLong(properties.getProperty("documentCacheTokens", "0"));
+        DocumentCache documentCache = documentCacheTokens > 0 ? new DocumentCache(format, documentCacheTokens) : null;
+
+        return new Configuration(documentHandler, format, mapThreshold, documentCache);
+    }
+
+    public static Configuration create() {
+        Properties properties = new Properties();
+        try (InputStream configStream = Configuration.class.getResourceAsStream("/config-format.properties")) {
+            properties.load(configStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return create(properties);
+    }
+
+    /**
+     * Create a configuration that differs from this one only in its document cache. Passing the same cache to several
+     * configurations lets them share parsed files and one token budget; {@code null} disables caching.
+     *
+     * @throws IllegalArgumentException if the cache was created for a different format instance.
+     */
+    public Configuration withDocumentCache(DocumentCache documentCache) {
+        if (documentCache != null && documentCache.getFormat() != format) {
+            throw new IllegalArgumentException("Document cache was created for a different format");
+        }
+        return new Configuration(documentHandler, format, mapThreshold, documentCache);
+    }
+
+    public <T> T load(Class<T> type, Reader reader) {
+        return load(type, format.createReader(reader));
+    }
+
+    public <T> T load(Class<T> type, InputStream inputStream) {
+        return load(type, format.createReader(inputStream));
+    }
+
+    /**
+     * Load an object from the given file. Files of at least {@code mapThreshold} bytes are memory-mapped and decoded
+     * directly from the mapping. The mapping is released once it is garbage collected, which on some platforms keeps
+     * the file from being deleted until then.
+     * <p>
+     * If {@code documentCacheTokens} is set, parsed files are kept in a {@link DocumentCache} of that many tokens and
+     * loading an unchanged file again replays it from memory instead. Each configuration created from properties has
+     * its own cache; use {@link #withDocumentCache(DocumentCache)} to share one.
+     */
+    public <T> T load(Class<T> type, Path path) {
+        return load(path, reader -> load(type, reader));
+    }
+
+    /**
+     * Load an object from the given file and keep it up to date as the file changes, with a debounce delay of 100ms.
+     *
+     * @see #watch(Class, Path, long, TimeUnit)
+     */
+    public <T> ReloadingConfiguration<T> watch(Class<T> type, Path path) {
+        return watch(type, path, 100, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Load an object from the given file and reload it in the background whenever the file changes. The file is only
+     * reloaded once it has not changed for the given debounce delay. The initial load happens before this method
+     * returns and fails like {@link #load(Class, Path)}.
+     */
+    public <T> ReloadingConfiguration<T> watch(Class<T> type, Path path, long debounce, TimeUnit unit) {
+        return new ReloadingConfiguration<>(this, type, path, debounce, unit);
+    }
+
+    /**
+     * Load only the value at the given path of the document. Everything else is skipped without being bound.
+     *
+     * @return the value, or {@code null} if the path does not exist.
+     */
+    // nullable
+    public <T> T load(Class<T> type, DocumentPath path, Reader reader) {
+        return documentHandler.read(format.createReader(reader), path, type);
+    }
+
+    /**
+     * @see #load(Class, DocumentPath, Reader)
+     */
+    // nullable
+    public <T> T load(Class<T> type, DocumentPath path, InputStream inputStream) {
+        return documentHandler.read(format.createReader(inputStream), path, type);
+    }
+
+    /**
+     * @see #load(Class, DocumentPath, Reader)
+     * @see #load(Class, Path)
+     */
+    // nullable
+    public <T> T load(Class<T> type, DocumentPath path, Path file) {
+        return load(file, reader -> documentHandler.read(reader, path, type));
+    }
+
+    /**
+     * Stream the elements of the top-level list of the document, binding one element at a time. Elements are not
+     * retained once they have been passed on, so lists of any length can be iterated with constant memory.
+     */
+    public <T> Stream<T> stream(Class<T> elementType, Reader reader) {
+        return stream(elementType, DocumentPath.ROOT, reader);
+    }
+
+    /**
+     * @see #stream(Class, Reader)
+     */
+    public <T> Stream<T> stream(Class<T> elementType, InputStream inputStream) {
+        return stream(elementType, DocumentPath.ROOT, inputStream);
+    }
+
+    /**
+     * @see #stream(Class, DocumentPath, Path)
+     */
+    public <T> Stream<T> stream(Class<T> elementType, Path file) {
+        return stream(elementType, DocumentPath.ROOT, file);
+    }
+
+    /**
+     * Stream the elements of the list at the given path of the document. Everything else is skipped without being
+     * bound.
+     *
+     * @return the elements, or an empty stream if the path does not exist.
+     * @see #stream(Class, Reader)
+     */
+    public <T> Stream<T> stream(Class<T> elementType, DocumentPath path, Reader reader) {
+        return documentHandler.stream(format.createReader(reader), path, elementType);
+    }
+
+    /**
+     * @see #stream(Class, DocumentPath, Reader)
+     */
+    public <T> Stream<T> stream(Class<T> elementType, DocumentPath path, InputStream inputStream) {
+        return documentHandler.stream(format.createReader(inputStream), path, elementType);
+    }
+
+    /**
+     * Stream the elements of the list at the given path of the file. The file is opened like in
+     * {@link #load(Class, Path)} and stays open until the returned stream is closed.
+     *
+     * @see #stream(Class, DocumentPath, Reader)
+     */
+    public <T> Stream<T> stream(Class<T> elementType, DocumentPath path, Path file) {
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                return documentHandler.stream(createReader(channel), path, elementType).onClose(() -> {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read the given file into a token recording.
+     */
+    TokenBuffer record(Path path) {
+        if (documentCache != null) {
+            return documentCache.get(path);
+        }
+        return load(path, TokenBuffer::capture);
+    }
+
+    private <T> T load(Path path, Function<ObjectReader, T> action) {
+        if (documentCache != null) {
+            return action.apply(documentCache.get(path).reader());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return action.apply(createReader(channel));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ObjectReader createReader(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (mapThreshold >= 0 && size >= mapThreshold && size <= Integer.MAX_VALUE) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return format.createReader(buffer);
+        }
+        return format.createReader(Channels.newInputStream(channel));
+    }
+
+    private <T> T load(Class<T> type, ObjectReader reader) {
+        return documentHandler.read(reader, type);
+    }
+
+    public void save(Object o, Writer writer) {
+        save(o, format.createWriter(writer));
+    }
+
+    public void save(Object o, OutputStream outputStream) {
+        save(o, format.createWriter(outputStream));
+    }
+
+    public void save(Object o, Path path) {
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            save(o, outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void save(Object o, ObjectWriter writer) {
+        documentHandler.write(writer, o);
+        writer.flush();
+    }
+
+    /**
+     * Save a list of the elements produced by the given iterator. Elements are written as they are produced, so they
+     * never need to be held in memory at once. Pass {@code stream.iterator()} or {@code iterable.iterator()} to save a
+     * {@link java.util.stream.Stream} or {@link Iterable}.
+     */
+    public <T> void saveList(Class<T> elementType, Iterator<? extends T> elements, Writer writer) {
+        try (ListWriter<T> list = openList(elementType, writer)) {
+            list.addAll(elements);
+        }
+    }
+
+    /**
+     * @see #saveList(Class, Iterator, Writer)
+     */
+    public <T> void saveList(Class<T> elementType, Iterator<? extends T> elements, OutputStream outputStream) {
+        try (ListWriter<T> list = openList(elementType, outputStream)) {
+            list.addAll(elements);
+        }
+    }
+
+    /**
+     * @see #saveList(Class, Iterator, Writer)
+     */
+    public <T> void saveList(Class<T> elementType, Iterator<? extends T> elements, Path path) {
+        try (ListWriter<T> list = openList(elementType, path)) {
+            list.addAll(elements);
+        }
+    }
+
+    /**
+     * Start saving a list whose elements are appended over time. Output is passed on according to the flush policy
+     * of the format, and flushed when the returned writer is closed.
+     * <p>
+     * MessagePack prefixes lists with their length, so the msgpack format holds the whole list in memory until it is
+     * closed and flushing has no effect before that. Use cbor to stream lists in a binary format.
+     */
+    public <T> ListWriter<T> openList(Class<T> elementType, Writer writer) {
+        return openList(elementType, format.createWriter(writer), null);
+    }
+
+    /**
+     * @see #openList(Class, Writer)
+     */
+    public <T> ListWriter<T> openList(Class<T> elementType, OutputStream outputStream) {
+        return openList(elementType, format.createWriter(outputStream), null);
+    }
+
+    /**
+     * Start saving a list to the given file. The file stays open until the returned writer is closed.
+     *
+     * @see #openList(Class, Writer)
+     */
+    public <T> ListWriter<T> openList(Class<T> elementType, Path path) {
+        try {
+            OutputStream outputStream = Files.newOutputStream(path);
+            try {
+                return openList(elementType, format.createWriter(outputStream), outputStream);
+            } catch (RuntimeException e) {
+                outputStream.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> ListWriter<T> openList(Class<T> elementType, ObjectWriter writer, Closeable resource) {
+        ListWriter<T> list = documentHandler.openList(writer, elementType);
+        return new ListWriter<T>() {
+            @Override
+            public ListWriter<T> add(T element) {
+                list.add(element);
+                return this;
+            }
+
+            @Override
+            public ListWriter<T> flush() {
+                list.flush();
+                return this;
+            }
+
+            @Override
+            public void close() {
+                try {
+                    list.close();
+                    writer.flush();
+                } finally {
+                    if (resource != null) {
+                        try {
+                            resource.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config;
+
+import at.yawk.config.document.DocumentHandler;
+import at.yawk.config.document.DocumentPath;
+import at.yawk.config.file.TokenBuffer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A configuration file that is reloaded whenever it changes on disk.
+ * <p>
+ * The directory of the file is watched with a {@link WatchService} on a background thread. Bursts of events, like an
+ * editor truncating and rewriting the file, are debounced: the file is only reloaded once no further events arrived
+ * for the debounce delay. The bound object is then published as a whole, so {@link #get()} is a single volatile read
+ * and never waits for I/O or parsing. If a reload fails, the error is logged and the previous value stays in place.
+ * <p>
+ * Reloads only bind the parts of the file that changed, and reuse the objects of the previous value for everything
+ * else (see {@link DocumentHandler#read(TokenBuffer, Class, TokenBuffer, Object)}). To compare against it, the token
+ * recording of the current file is kept in memory. Published values are shared between threads and later values,
+ * so they must be treated as immutable.
+ * <p>
+ * Listeners can {@link #subscribe(DocumentPath, Consumer) subscribe} to a path of the document and are only notified
+ * when the value at that path changes. Property paths of beans are their document keys.
+ *
+ * @author yawkat
+ */
+@Slf4j
+public final class ReloadingConfiguration<T> implements Supplier<T>, AutoCloseable {
+    private final Configuration configuration;
+    private final Class<T> type;
+    private final Path path;
+    private final long debounceNanos;
+
+    private final AtomicReference<T> snapshot = new AtomicReference<>();
+    /**
+     * Recording of the document the current value was bound from. Guarded by this.
+     */
+    private TokenBuffer tokens;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile Executor listenerExecutor = Runnable::run;
+    private final WatchService watchService;
+    private final Thread watcher;
+
+    ReloadingConfiguration(Configuration configuration, Class<T> type, Path path, long debounce, TimeUnit unit) {
+        if (debounce < 0) {
+            throw new IllegalArgumentException("Negative debounce delay: " + debounce);
+        }
+        this.configuration = configuration;
+        this.type = type;
+        this.path = path.toAbsolutePath();
+        this.debounceNanos = unit.toNanos(debounce);
+
+        // load before watching, so a broken file fails the caller instead of the watcher
+        reload();
+
+        Path directory = this.path.getParent();
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            try {
+                // editors often replace the file instead of modifying it
+                directory.register(watchService,
+                                   StandardWatchEventKinds.ENTRY_CREATE,
+                                   StandardWatchEventKinds.ENTRY_MODIFY);
+            } catch (IOException | RuntimeException e) {
+                watchService.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        watcher = new Thread(this::watch, "Configuration watcher for " + this.path);
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the most recently loaded value.
+     */
+    @Override
+    public T get() {
+        return snapshot.get();
+    }
+
+    /**
+     * Set the executor listeners are notified on. All listeners affected by one reload are submitted together as a
+     * single task. Defaults to running them directly on the reloading thread. With a multi-threaded executor, the
+     * batches of consecutive reloads may run concurrently.
+     */
+    public ReloadingConfiguration<T> listenerExecutor(Executor listenerExecutor) {
+        this.listenerExecutor = Objects.requireNonNull(listenerExecutor);
+        return this;
+    }
+
+    /**
+     * Notify the given listener with the new value whenever a reload changes the value at the given path, including
+     * when the path appears or disappears. Reloads that leave the path alone don't notify the listener.
+     */
+    public Subscription subscribe(DocumentPath path, Consumer<? super T> listener) {
+        Subscription subscription = new Subscription(Objects.requireNonNull(path), Objects.requireNonNull(listener));
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Load the file now and publish the result, independent of the watcher.
+     *
+     * @throws ConfigurationException if the file can not be bound. The previous value stays in place.
+     * @throws UncheckedIOException   if the file can not be read. The previous value stays in place.
+     */
+    public synchronized void reload() {
+        TokenBuffer tokens = configuration.record(path);
+        DocumentHandler documentHandler = configuration.getDocumentHandler();
+        T value;
+        if (this.tokens == null) {
+            value = documentHandler.read(tokens.reader(), type);
+        } else {
+            value = documentHandler.read(tokens, type, this.tokens, snapshot.get());
+        }
+        snapshot.set(value);
+        TokenBuffer previousTokens = this.tokens;
+        this.tokens = tokens;
+        if (previousTokens != null) {
+            notifyListeners(previousTokens, tokens, value);
+        }
+    }
+
+    private void notifyListeners(TokenBuffer previousTokens, TokenBuffer tokens, T value) {
+        List<Subscription> changed = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            if (isChanged(subscription.path, previousTokens, tokens)) {
+                changed.add(subscription);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        try {
+            listenerExecutor.execute(() -> {
+                for (Subscription subscription : changed) {
+                    try {
+                        subscription.listener.accept(value);
+                    } catch (RuntimeException e) {
+                        log.warn("Configuration listener for " + subscription.path + " failed", e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Failed to notify configuration listeners", e);
+        }
+    }
+
+    private static boolean isChanged(DocumentPath path, TokenBuffer previousTokens, TokenBuffer tokens) {
+        int previousPosition = find(path, previousTokens);
+        int position = find(path, tokens);
+        if (previousPosition == -1 || position == -1) {
+            return previousPosition != position;
+        }
+        return !tokens.valueEquals(position, previousTokens, previousPosition);
+    }
+
+    /**
+     * @return the position of the value at the given path, or {@code -1} if there is none.
+     */
+    private static int find(DocumentPath path, TokenBuffer tokens) {
+        TokenBuffer.Replay reader = tokens.reader();
+        return path.seek(reader) ? reader.position() : -1;
+    }
+
+    /**
+     * Stop watching the file. The last loaded value stays available.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!isRelevant(watchService.take())) {
+                    continue;
+                }
+                long deadline = System.nanoTime() + debounceNanos;
+                while (true) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    WatchKey key = watchService.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (key == null) {
+                        break;
+                    }
+                    if (isRelevant(key)) {
+                        deadline = System.nanoTime() + debounceNanos;
+                    }
+                }
+                try {
+                    reload();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to reload " + path, e);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException ignored) {
+            // closed
+        }
+    }
+
+    /**
+     * Consume the events of the given key and re-arm it.
+     *
+     * @return whether any of the events concern our file.
+     */
+    private boolean isRelevant(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || path.getFileName().equals(event.context())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * A listener registered through {@link #subscribe(DocumentPath, Consumer)}.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final DocumentPath path;
+        private final Consumer<? super T> listener;
+
+        private Subscription(DocumentPath path, Consumer<? super T> listener) {
+            this.path = path;
+            this.listener = listener;
+        }
+
+        public DocumentPath getPath() {
+            return path;
+        }
+
+        /**
+         * Stop notifying the listener. A batch that is already being dispatched may still include it.
+         */
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.ConfigurationException;
+import com.google.common.primitives.Primitives;
+import java.lang.invoke.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.*;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Strategy used to invoke bean getters and setters. Strategies that cannot be used for a given method (for example
+ * because of access restrictions) fall back to the next simpler one, down to {@link #REFLECTION}.
+ * <p>
+ * Primitive accessors use the widest primitive type of their category: {@code boolean} is passed as an {@code int} of
+ * {@code 0} or {@code 1} and {@code float} as a {@code double}.
+ *
+ * @author yawkat
+ */
+@Slf4j
+public enum AccessorStrategy {
+    /**
+     * Call accessors through {@link Method#invoke(Object, Object...)}. Primitive values are boxed.
+     */
+    REFLECTION(false, false),
+    /**
+     * Call accessors through a {@link MethodHandle} of erased type.
+     */
+    METHOD_HANDLE(true, false),
+    /**
+     * Spin a dedicated {@link Function} / {@link BiConsumer} (or primitive specialization) implementation per accessor
+     * using the {@link LambdaMetafactory}. These can be inlined by the JIT like a direct call.
+     * <p>
+     * The spun classes are defined in the class loader of this library, so accessors of classes that aren't visible
+     * from it (for example beans loaded by a child class loader) use method handles instead.
+     */
+    LAMBDA_METAFACTORY(true, true);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final boolean methodHandles;
+    private final boolean lambdaMetafactory;
+
+    AccessorStrategy(boolean methodHandles, boolean lambdaMetafactory) {
+        this.methodHandles = methodHandles;
+        this.lambdaMetafactory = lambdaMetafactory;
+    }
+
+    /**
+     * Create a getter function for the given zero-arg instance method.
+     */
+    @SuppressWarnings("unchecked")
+    Function<Object, Object> getter(Method method) {
+        Object spun = spin(Function.class, "apply", MethodType.methodType(Object.class, Object.class), method);
+        if (spun != null) { return (Function<Object, Object>) spun; }
+        MethodHandle handle = handle(method, MethodType.methodType(Object.class, Object.class));
+        if (handle != null) {
+            return bean -> {
+                try {
+                    return handle.invokeExact(bean);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+        return bean -> {
+            try {
+                return method.invoke(bean);
+            } catch (IllegalAccessException e) {
+                throw new ConfigurationException(e);
+            } catch (InvocationTargetException e) {
+                throw rethrow(e.getCause());
+            }
+        };
+    }
+
+    /**
+     * Create a setter function for the given one-arg method.
+     */
+    @SuppressWarnings("unchecked")
+    BiConsumer<Object, Object> setter(Method method) {
+        Object spun = spin(
+                BiConsumer.class, "accept", MethodType.methodType(void.class, Object.class, Object.class), method);
+        if (spun != null) { return (BiConsumer<Object, Object>) spun; }
+        MethodHandle handle = handle(method, MethodType.methodType(void.class, Object.class, Object.class));
+        if (handle != null) {
+            return (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+        return (bean, value) -> {
+            try {
+                method.invoke(bean, value);
+            } catch (IllegalAccessException e) {
+                throw new ConfigurationException(e);
+            } catch (InvocationTargetException e) {
+                throw rethrow(e.getCause());
+            }
+        };
+    }
+
+    /**
+     * Create a getter for a method returning {@code int} or {@code boolean}.
+     */
+    @SuppressWarnings("unchecked")
+    ToIntFunction<Object> intGetter(Method method) {
+        Object spun = spin(ToIntFunction.class, "applyAsInt", MethodType.methodType(int.class, Object.class), method);
+        if (spun != null) { return (ToIntFunction<Object>) spun; }
+        MethodHandle handle = handle(method, MethodType.methodType(int.class, Object.class));
+        if (handle != null) {
+            return bean -> {
+                try {
+                    return (int) handle.invokeExact(bean);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+        Function<Object, Object> boxed = getter(method);
+        return bean -> {
+            Object value = boxed.apply(bean);
+            return value instanceof Boolean ? ((Boolean) value ? 1 : 0) : (Integer) value;
+        };
+    }
+
+    /**
+     * Create a getter for a method returning {@code long}.
+     */
+    @SuppressWarnings("unchecked")
+    ToLongFunction<Object> longGetter(Method method) {
+        Object spun = spin(
+                ToLongFunction.class, "applyAsLong", MethodType.methodType(long.class, Object.class), method);
+        if (spun != null) { return (ToLongFunction<Object>) spun; }
+        MethodHandle handle = handle(method, MethodType.methodType(long.class, Object.class));
+        if (handle != null) {
+            return bean -> {
+                try {
+                    return (long) handle.invokeExact(bean);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+        Function<Object, Object> boxed = getter(method);
+        return bean -> (Long) boxed.apply(bean);
+    }
+
+    /**
+     * Create a getter for a method returning {@code float} or {@code double}.
+     */
+    @SuppressWarnings("unchecked")
+    ToDoubleFunction<Object> doubleGetter(Method method) {
+        Object spun = spin(
+                ToDoubleFunction.class, "applyAsDouble", MethodType.methodType(double.class, Object.class), method);
+        if (spun != null) { return (ToDoubleFunction<Object>) spun; }
+        MethodHandle handle = handle(method, MethodType.methodType(double.class, Object.class));
+        if (handle != null) {
+            return bean -> {
+                try {
+                    return (double) handle.invokeExact(bean);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+        Function<Object, Object> boxed = getter(method);
+        return bean -> ((Number) boxed.apply(bean)).doubleValue();
+    }
+
+    /**
+     * Create a setter for a method taking an {@code int} or {@code boolean}.
+     */
+    @SuppressWarnings("unchecked")
+    ObjIntConsumer<Object> intSetter(Method method) {
+        Object spun = spin(
+                ObjIntConsumer.class, "accept", MethodType.methodType(void.class, Object.class, int.class), method);
+        if (spun != null) { return (ObjIntConsumer<Object>) spun; }
+        MethodHandle handle = handle(method, MethodType.methodType(void.class, Object.class, int.class));
+        if (handle != null) {
+            return (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+        BiConsumer<Object, Object> boxed = setter(method);
+        if (method.getParameterTypes()[0] == boolean.class) {
+            return (bean, value) -> boxed.accept(bean, value != 0);
+        } else {
+            return boxed::accept;
+        }
+    }
+
+    /**
+     * Create a setter for a method taking a {@code long}.
+     */
+    @SuppressWarnings("unchecked")
+    ObjLongConsumer<Object> longSetter(Method method) {
+        Object spun = spin(
+                ObjLongConsumer.class, "accept", MethodType.methodType(void.class, Object.class, long.class), method);
+        if (spun != null) { return (ObjLongConsumer<Object>) spun; }
+        MethodHandle handle = handle(method, MethodType.methodType(void.class, Object.class, long.class));
+        if (handle != null) {
+            return (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+        return setter(method)::accept;
+    }
+
+    /**
+     * Create a setter for a method taking a {@code float} or {@code double}.
+     */
+    @SuppressWarnings("unchecked")
+    ObjDoubleConsumer<Object> doubleSetter(Method method) {
+        Object spun = spin(
+                ObjDoubleConsumer.class, "accept", MethodType.methodType(void.class, Object.class, double.class),
+                method);
+        if (spun != null) { return (ObjDoubleConsumer<Object>) spun; }
+        MethodHandle handle = handle(method, MethodType.methodType(void.class, Object.class, double.class));
+        if (handle != null) {
+            return (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+        BiConsumer<Object, Object> boxed = setter(method);
+        if (method.getParameterTypes()[0] == float.class) {
+            return (bean, value) -> boxed.accept(bean, (float) value);
+        } else {
+            return boxed::accept;
+        }
+    }
+
+    /**
+     * Spin an implementation of the given functional interface that calls the given accessor method, if this strategy
+     * uses the {@link LambdaMetafactory}.
+     *
+     * @param samType erased type of the functional interface method, taking the bean as the first parameter.
+     * @return the functional interface instance, or {@code null} if this strategy doesn't spin lambdas or the method
+     * can't be bound.
+     */
+    // nullable
+    private Object spin(Class<?> functionalInterface, String name, MethodType samType, Method method) {
+        if (!lambdaMetafactory || Modifier.isStatic(method.getModifiers())) {
+            return null;
+        }
+        if (!isVisible(method.getDeclaringClass()) || !isVisible(method.getReturnType()) ||
+            (method.getParameterCount() != 0 && !isVisible(method.getParameterTypes()[0]))) {
+            log.debug("Falling back to method handles for " + method + ", its types aren't visible to the spun class");
+            return null;
+        }
+        try {
+            MethodType instantiatedType;
+            if (method.getParameterCount() == 0) {
+                Class<?> returnType = method.getReturnType();
+                instantiatedType = MethodType.methodType(
+                        samType.returnType().isPrimitive() ? returnType : Primitives.wrap(returnType),
+                        method.getDeclaringClass());
+            } else {
+                Class<?> parameterType = method.getParameterTypes()[0];
+                instantiatedType = MethodType.methodType(
+                        void.class,
+                        method.getDeclaringClass(),
+                        samType.parameterType(1).isPrimitive() ? parameterType : Primitives.wrap(parameterType));
+            }
+            CallSite site = LambdaMetafactory.metafactory(
+                    LOOKUP,
+                    name,
+                    MethodType.methodType(functionalInterface),
+                    samType,
+                    LOOKUP.unreflect(method),
+                    instantiatedType
+            );
+            return site.getTarget().invoke();
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable t) {
+            log.debug("Falling back to method handles for " + method, t);
+            return null;
+        }
+    }
+
+    /**
+     * Whether the given class resolves to itself from the class loader of this library. A lambda class spun through
+     * {@link #LOOKUP} links against its bean and value types from that loader: if they don't resolve there it fails
+     * with a {@link NoClassDefFoundError} on first call rather than at spin time.
+     */
+    private static boolean isVisible(Class<?> type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, AccessorStrategy.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Create a method handle of the given type for the given accessor method, if this strategy uses method handles.
+     * Primitive values are converted with {@link MethodHandles#explicitCastArguments}.
+     *
+     * @return the handle, or {@code null} if this strategy doesn't use method handles or the method can't be bound.
+     */
+    // nullable
+    private MethodHandle handle(Method method, MethodType type) {
+        if (!methodHandles) {
+            return null;
+        }
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return MethodHandles.explicitCastArguments(handle, type);
+        } catch (IllegalAccessException | RuntimeException e) {
+            log.debug("Falling back to reflection for " + method, e);
+            return null;
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) { throw (RuntimeException) t; }
+        if (t instanceof Error) { throw (Error) t; }
+        throw new ConfigurationException(t);
+    }
+}
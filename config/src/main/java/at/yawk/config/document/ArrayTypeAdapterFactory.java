@@ -0,0 +1,314 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.TokenType;
+import com.google.common.reflect.TypeToken;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Type adapters for array types. Primitive arrays are written through the primitive methods of their element adapter
+ * and read into a growable primitive buffer, so elements are never boxed. {@code char[]} is stored as a string.
+ *
+ * @author yawkat
+ */
+class ArrayTypeAdapterFactory implements TypeAdapterFactory {
+    @Getter
+    private static final TypeAdapterFactory instance = new ArrayTypeAdapterFactory();
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final TypeAdapter<char[]> CHAR_ARRAY_TYPE_ADAPTER = new TypeAdapter<char[]>() {
+        @Override
+        public void write(WriterContext context, char[] obj) {
+            context.item(new String(obj));
+        }
+
+        @Override
+        public char[] read(ReaderContext context) {
+            return context.stringValue().toCharArray();
+        }
+    };
+
+    private ArrayTypeAdapterFactory() {}
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(Type type) {
+        return createTypeAdapter(TypeAdapterRegistryImpl.getDefault(), type);
+    }
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(TypeAdapterRegistry registry, Type type) {
+        if (type == int[].class) {
+            return new IntArrayTypeAdapter(IntTypeAdapter.of(registry.getTypeAdapter(int.class)));
+        }
+        if (type == long[].class) {
+            return new LongArrayTypeAdapter(LongTypeAdapter.of(registry.getTypeAdapter(long.class)));
+        }
+        if (type == float[].class) {
+            return new FloatArrayTypeAdapter(FloatTypeAdapter.of(registry.getTypeAdapter(float.class)));
+        }
+        if (type == double[].class) {
+            return new DoubleArrayTypeAdapter(DoubleTypeAdapter.of(registry.getTypeAdapter(double.class)));
+        }
+        if (type == boolean[].class) {
+            return new BooleanArrayTypeAdapter(BooleanTypeAdapter.of(registry.getTypeAdapter(boolean.class)));
+        }
+        if (type == byte[].class) {
+            return new ByteArrayTypeAdapter(IntTypeAdapter.of(registry.getTypeAdapter(int.class)));
+        }
+        if (type == short[].class) {
+            return new ShortArrayTypeAdapter(IntTypeAdapter.of(registry.getTypeAdapter(int.class)));
+        }
+        if (type == char[].class) { return CHAR_ARRAY_TYPE_ADAPTER; }
+
+        Type componentType;
+        if (type instanceof GenericArrayType) {
+            componentType = ((GenericArrayType) type).getGenericComponentType();
+        } else if (type instanceof Class && ((Class<?>) type).isArray()) {
+            componentType = ((Class<?>) type).getComponentType();
+        } else {
+            return null;
+        }
+        Class<?> rawComponentType = TypeToken.of(componentType).getRawType();
+        if (rawComponentType.isPrimitive()) {
+            return null;
+        }
+        return new ObjectArrayTypeAdapter(LazyTypeAdapter.resolve(registry, componentType), rawComponentType);
+    }
+
+    @RequiredArgsConstructor
+    private static class ObjectArrayTypeAdapter implements TypeAdapter<Object[]> {
+        private final TypeAdapter<Object> componentAdapter;
+        private final Class<?> rawComponentType;
+
+        @Override
+        public void write(WriterContext context, Object[] obj) {
+            context.enterList();
+            for (Object entry : obj) {
+                componentAdapter.write(context, entry);
+            }
+            context.exitList();
+        }
+
+        @Override
+        public Object[] read(ReaderContext context) {
+            List<Object> objects = new ArrayList<>();
+            context.enterList();
+            while (context.peek() != TokenType.EXIT_LIST) {
+                objects.add(componentAdapter.read(context));
+            }
+            context.exitList();
+            return objects.toArray((Object[]) Array.newInstance(rawComponentType, objects.size()));
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class IntArrayTypeAdapter implements TypeAdapter<int[]> {
+        private final IntTypeAdapter elementAdapter;
+
+        @Override
+        public void write(WriterContext context, int[] obj) {
+            context.enterList();
+            for (int value : obj) {
+                elementAdapter.writeInt(context, value);
+            }
+            context.exitList();
+        }
+
+        @Override
+        public int[] read(ReaderContext context) {
+            int[] buffer = new int[INITIAL_CAPACITY];
+            int size = 0;
+            context.enterList();
+            while (context.peek() != TokenType.EXIT_LIST) {
+                if (size == buffer.length) { buffer = Arrays.copyOf(buffer, size * 2); }
+                buffer[size++] = elementAdapter.readInt(context);
+            }
+            context.exitList();
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class LongArrayTypeAdapter implements TypeAdapter<long[]> {
+        private final LongTypeAdapter elementAdapter;
+
+        @Override
+        public void write(WriterContext context, long[] obj) {
+            context.enterList();
+            for (long value : obj) {
+                elementAdapter.writeLong(context, value);
+            }
+            context.exitList();
+        }
+
+        @Override
+        public long[] read(ReaderContext context) {
+            long[] buffer = new long[INITIAL_CAPACITY];
+            int size = 0;
+            context.enterList();
+            while (context.peek() != TokenType.EXIT_LIST) {
+                if (size == buffer.length) { buffer = Arrays.copyOf(buffer, size * 2); }
+                buffer[size++] = elementAdapter.readLong(context);
+            }
+            context.exitList();
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class FloatArrayTypeAdapter implements TypeAdapter<float[]> {
+        private final FloatTypeAdapter elementAdapter;
+
+        @Override
+        public void write(WriterContext context, float[] obj) {
+            context.enterList();
+            for (float value : obj) {
+                elementAdapter.writeFloat(context, value);
+            }
+            context.exitList();
+        }
+
+        @Override
+        public float[] read(ReaderContext context) {
+            float[] buffer = new float[INITIAL_CAPACITY];
+            int size = 0;
+            context.enterList();
+            while (context.peek() != TokenType.EXIT_LIST) {
+                if (size == buffer.length) { buffer = Arrays.copyOf(buffer, size * 2); }
+                buffer[size++] = elementAdapter.readFloat(context);
+            }
+            context.exitList();
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class DoubleArrayTypeAdapter implements TypeAdapter<double[]> {
+        private final DoubleTypeAdapter elementAdapter;
+
+        @Override
+        public void write(WriterContext context, double[] obj) {
+            context.enterList();
+            for (double value : obj) {
+                elementAdapter.writeDouble(context, value);
+            }
+            context.exitList();
+        }
+
+        @Override
+        public double[] read(ReaderContext context) {
+            double[] buffer = new double[INITIAL_CAPACITY];
+            int size = 0;
+            context.enterList();
+            while (context.peek() != TokenType.EXIT_LIST) {
+                if (size == buffer.length) { buffer = Arrays.copyOf(buffer, size * 2); }
+                buffer[size++] = elementAdapter.readDouble(context);
+            }
+            context.exitList();
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class BooleanArrayTypeAdapter implements TypeAdapter<boolean[]> {
+        private final BooleanTypeAdapter elementAdapter;
+
+        @Override
+        public void write(WriterContext context, boolean[] obj) {
+            context.enterList();
+            for (boolean value : obj) {
+                elementAdapter.writeBoolean(context, value);
+            }
+            context.exitList();
+        }
+
+        @Override
+        public boolean[] read(ReaderContext context) {
+            boolean[] buffer = new boolean[INITIAL_CAPACITY];
+            int size = 0;
+            context.enterList();
+            while (context.peek() != TokenType.EXIT_LIST) {
+                if (size == buffer.length) { buffer = Arrays.copyOf(buffer, size * 2); }
+                buffer[size++] = elementAdapter.readBoolean(context);
+            }
+            context.exitList();
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class ByteArrayTypeAdapter implements TypeAdapter<byte[]> {
+        private final IntTypeAdapter elementAdapter;
+
+        @Override
+        public void write(WriterContext context, byte[] obj) {
+            context.enterList();
+            for (byte value : obj) {
+                elementAdapter.writeInt(context, value);
+            }
+            context.exitList();
+        }
+
+        @Override
+        public byte[] read(ReaderContext context) {
+            byte[] buffer = new byte[INITIAL_CAPACITY];
+            int size = 0;
+            context.enterList();
+            while (context.peek() != TokenType.EXIT_LIST) {
+                if (size == buffer.length) { buffer = Arrays.copyOf(buffer, size * 2); }
+                int value = elementAdapter.readInt(context);
+                if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+                    throw new ConfigurationException("Value out of range for byte: " + value);
+                }
+                buffer[size++] = (byte) value;
+            }
+            context.exitList();
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class ShortArrayTypeAdapter implements TypeAdapter<short[]> {
+        private final IntTypeAdapter elementAdapter;
+
+        @Override
+        public void write(WriterContext context, short[] obj) {
+            context.enterList();
+            for (short value : obj) {
+                elementAdapter.writeInt(context, value);
+            }
+            context.exitList();
+        }
+
+        @Override
+        public short[] read(ReaderContext context) {
+            short[] buffer = new short[INITIAL_CAPACITY];
+            int size = 0;
+            context.enterList();
+            while (context.peek() != TokenType.EXIT_LIST) {
+                if (size == buffer.length) { buffer = Arrays.copyOf(buffer, size * 2); }
+                int value = elementAdapter.readInt(context);
+                if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+                    throw new ConfigurationException("Value out of range for short: " + value);
+                }
+                buffer[size++] = (short) value;
+            }
+            context.exitList();
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.ObjectWriter;
+import com.google.common.collect.ImmutableMap;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * ASM code generator for {@link GeneratedBeanTypeAdapter} subclasses. Kept separate from
+ * {@link GeneratedBeanTypeAdapterFactory} so ASM is only linked when it is actually available.
+ *
+ * @author yawkat
+ */
+class BeanAdapterGenerator implements Opcodes {
+    private static final String SUPER_NAME = internalName(GeneratedBeanTypeAdapter.class);
+    private static final String WRITER_CONTEXT = internalName(WriterContext.class);
+    private static final String READER_CONTEXT = internalName(ReaderContext.class);
+    private static final String TYPE_ADAPTER = internalName(TypeAdapter.class);
+    private static final String ADAPTER_ARRAY_DESCRIPTOR = "[" + descriptor(TypeAdapter.class);
+
+    private BeanAdapterGenerator() {}
+
+    /**
+     * Generate and instantiate an adapter for the given bean class.
+     *
+     * @return the adapter, or {@code null} if one of the properties can't be handled by generated code.
+     */
+    static GeneratedBeanTypeAdapter generate(TypeAdapterRegistry registry, Class<?> clazz,
+                                             List<BeanProperty> properties)
+            throws ReflectiveOperationException {
+        for (BeanProperty property : properties) {
+            if (property.isReadable() && property.isSerialized() &&
+                !isSupported(property.getGetter().getReturnType())) {
+                return null;
+            }
+            if (property.isWritable() && (Modifier.isStatic(property.getSetter().getModifiers()) ||
+                                          !isSupported(property.getSetter().getParameterTypes()[0]) ||
+                                          !isAccessible(property.getSetter().getParameterTypes()[0]))) {
+                return null;
+            }
+        }
+
+        String beanName = internalName(clazz);
+        String className = "at/yawk/config/document/generated/" + beanName + "$$Adapter";
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_6, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, SUPER_NAME, null);
+
+        String constructorDescriptor =
+                "(" + descriptor(Map.class) + ADAPTER_ARRAY_DESCRIPTOR + ADAPTER_ARRAY_DESCRIPTOR + ")V";
+        MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", constructorDescriptor, null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 1);
+        init.visitVarInsn(ALOAD, 2);
+        init.visitVarInsn(ALOAD, 3);
+        init.visitMethodInsn(INVOKESPECIAL, SUPER_NAME, "<init>", constructorDescriptor, false);
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor newInstance = cw.visitMethod(
+                ACC_PROTECTED, "newInstance", "()" + descriptor(Object.class), null, null);
+        newInstance.visitCode();
+        newInstance.visitTypeInsn(NEW, beanName);
+        newInstance.visitInsn(DUP);
+        newInstance.visitMethodInsn(INVOKESPECIAL, beanName, "<init>", "()V", false);
+        newInstance.visitInsn(ARETURN);
+        newInstance.visitMaxs(0, 0);
+        newInstance.visitEnd();
+
+        TypeAdapter<?>[] writeAdapters = new TypeAdapter<?>[properties.size()];
+        TypeAdapter<?>[] readAdapters = new TypeAdapter<?>[properties.size()];
+        for (int i = 0; i < properties.size(); i++) {
+            BeanProperty property = properties.get(i);
+            if (property.isReadable() && property.isSerialized() &&
+                !isWrittenDirectly(property.getGetter().getReturnType())) {
+                writeAdapters[i] = LazyTypeAdapter.resolve(registry, property.getGetterType());
+            }
+            if (property.isWritable() && !isWrittenDirectly(property.getSetter().getParameterTypes()[0])) {
+                readAdapters[i] = LazyTypeAdapter.resolve(registry, property.getSetterType());
+            }
+        }
+
+        generateWriteProperties(cw, beanName, properties);
+        generateReadProperty(cw, beanName, properties);
+
+        cw.visitEnd();
+
+        Map<BeanProperty, Integer> indices = new HashMap<>();
+        for (int i = 0; i < properties.size(); i++) {
+            indices.put(properties.get(i), i);
+        }
+        ImmutableMap.Builder<String, Integer> keyIndex = ImmutableMap.builder();
+        BeanTypeAdapterFactory.indexByKey(properties).forEach((k, p) -> keyIndex.put(k, indices.get(p)));
+
+        Class<?> adapterClass = new AdapterClassLoader(clazz.getClassLoader())
+                .define(className.replace('/', '.'), cw.toByteArray());
+        return (GeneratedBeanTypeAdapter) adapterClass
+                .getConstructor(Map.class, TypeAdapter[].class, TypeAdapter[].class)
+                .newInstance(keyIndex.build(), writeAdapters, readAdapters);
+    }
+
+    private static void generateWriteProperties(ClassWriter cw, String beanName, List<BeanProperty> properties) {
+        MethodVisitor mv = cw.visitMethod(
+                ACC_PROTECTED, "writeProperties",
+                "(" + descriptor(WriterContext.class) + descriptor(Object.class) + ")V", null, null);
+        mv.visitCode();
+        // locals: 0 this, 1 context, 2 bean (Object), 3 bean (cast), 4 property value
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitTypeInsn(CHECKCAST, beanName);
+        mv.visitVarInsn(ASTORE, 3);
+        for (int i = 0; i < properties.size(); i++) {
+            BeanProperty property = properties.get(i);
+            if (!property.isReadable() || !property.isSerialized()) { continue; }
+
+            Method getter = property.getGetter();
+            Class<?> valueType = getter.getReturnType();
+            if (valueType.isPrimitive()) {
+                writeKey(mv, property);
+                mv.visitVarInsn(ALOAD, 1);
+                invokeGetter(mv, beanName, getter);
+                mv.visitMethodInsn(
+                        INVOKEINTERFACE, WRITER_CONTEXT, "item",
+                        "(" + descriptor(valueType) + ")" + descriptor(ObjectWriter.class), true);
+                mv.visitInsn(POP);
+            } else {
+                Label skip = new Label();
+                invokeGetter(mv, beanName, getter);
+                mv.visitVarInsn(ASTORE, 4);
+                mv.visitVarInsn(ALOAD, 4);
+                mv.visitJumpInsn(IFNULL, skip);
+                writeKey(mv, property);
+                mv.visitVarInsn(ALOAD, 1);
+                if (valueType == String.class) {
+                    mv.visitVarInsn(ALOAD, 4);
+                    mv.visitMethodInsn(
+                            INVOKEINTERFACE, WRITER_CONTEXT, "item",
+                            "(" + descriptor(String.class) + ")" + descriptor(ObjectWriter.class), true);
+                    mv.visitInsn(POP);
+                } else {
+                    // stack: context -> adapter, context, value
+                    mv.visitVarInsn(ALOAD, 0);
+                    mv.visitFieldInsn(GETFIELD, SUPER_NAME, "writeAdapters", ADAPTER_ARRAY_DESCRIPTOR);
+                    pushInt(mv, i);
+                    mv.visitInsn(AALOAD);
+                    mv.visitInsn(SWAP);
+                    mv.visitVarInsn(ALOAD, 4);
+                    mv.visitMethodInsn(
+                            INVOKEINTERFACE, TYPE_ADAPTER, "write",
+                            "(" + descriptor(WriterContext.class) + descriptor(Object.class) + ")V", true);
+                }
+                mv.visitLabel(skip);
+            }
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void writeKey(MethodVisitor mv, BeanProperty property) {
+        if (property.getDescription() != null) {
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitLdcInsn(property.getDescription());
+            mv.visitMethodInsn(
+                    INVOKEINTERFACE, WRITER_CONTEXT, "comment",
+                    "(" + descriptor(String.class) + ")" + descriptor(ObjectWriter.class), true);
+            mv.visitInsn(POP);
+        }
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitLdcInsn(property.getName());
+        mv.visitMethodInsn(
+                INVOKEINTERFACE, WRITER_CONTEXT, "key",
+                "(" + descriptor(String.class) + ")" + descriptor(ObjectWriter.class), true);
+        mv.visitInsn(POP);
+    }
+
+    private static void invokeGetter(MethodVisitor mv, String beanName, Method getter) {
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitMethodInsn(INVOKEVIRTUAL, beanName, getter.getName(), methodDescriptor(getter), false);
+    }
+
+    private static void generateReadProperty(ClassWriter cw, String beanName, List<BeanProperty> properties) {
+        MethodVisitor mv = cw.visitMethod(
+                ACC_PROTECTED, "readProperty",
+                "(" + descriptor(ReaderContext.class) + descriptor(Object.class) + "I)V", null, null);
+        mv.visitCode();
+        // locals: 0 this, 1 context, 2 bean (Object), 3 index
+        Label end = new Label();
+        if (!properties.isEmpty()) {
+            Label[] labels = new Label[properties.size()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = properties.get(i).isWritable() ? new Label() : end;
+            }
+            mv.visitVarInsn(ILOAD, 3);
+            mv.visitTableSwitchInsn(0, labels.length - 1, end, labels);
+            for (int i = 0; i < labels.length; i++) {
+                BeanProperty property = properties.get(i);
+                if (!property.isWritable()) { continue; }
+
+                Method setter = property.getSetter();
+                Class<?> valueType = setter.getParameterTypes()[0];
+                mv.visitLabel(labels[i]);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitTypeInsn(CHECKCAST, beanName);
+                mv.visitVarInsn(ALOAD, 1);
+                if (valueType.isPrimitive()) {
+                    mv.visitMethodInsn(
+                            INVOKEINTERFACE, READER_CONTEXT, primitiveReader(valueType),
+                            "()" + descriptor(valueType), true);
+                } else if (valueType == String.class) {
+                    mv.visitMethodInsn(
+                            INVOKEINTERFACE, READER_CONTEXT, "stringValue", "()" + descriptor(String.class), true);
+                } else {
+                    // stack: context -> adapter, context
+                    mv.visitVarInsn(ALOAD, 0);
+                    mv.visitFieldInsn(GETFIELD, SUPER_NAME, "readAdapters", ADAPTER_ARRAY_DESCRIPTOR);
+                    pushInt(mv, i);
+                    mv.visitInsn(AALOAD);
+                    mv.visitInsn(SWAP);
+                    mv.visitMethodInsn(
+                            INVOKEINTERFACE, TYPE_ADAPTER, "read",
+                            "(" + descriptor(ReaderContext.class) + ")" + descriptor(Object.class), true);
+                    if (valueType != Object.class) {
+                        mv.visitTypeInsn(CHECKCAST, internalName(valueType));
+                    }
+                }
+                mv.visitMethodInsn(INVOKEVIRTUAL, beanName, setter.getName(), methodDescriptor(setter), false);
+                Class<?> returnType = setter.getReturnType();
+                if (returnType == long.class || returnType == double.class) {
+                    mv.visitInsn(POP2);
+                } else if (returnType != void.class) {
+                    mv.visitInsn(POP);
+                }
+                mv.visitInsn(RETURN);
+            }
+        }
+        mv.visitLabel(end);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Whether the given property type can be handled by generated code. Only primitives that have a matching
+     * {@link ObjectWriter#item} overload are supported, as the others have no built-in adapter either.
+     */
+    private static boolean isSupported(Class<?> type) {
+        return !type.isPrimitive() || primitiveReader(type) != null;
+    }
+
+    /**
+     * Whether values of the given type are read and written by the generated code itself instead of an adapter.
+     */
+    private static boolean isWrittenDirectly(Class<?> type) {
+        return type.isPrimitive() || type == String.class;
+    }
+
+    /**
+     * Whether generated code may reference the given class, which it needs to for casting setter arguments.
+     */
+    private static boolean isAccessible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+    }
+
+    // nullable
+    private static String primitiveReader(Class<?> type) {
+        if (type == int.class) { return "intValue"; }
+        if (type == long.class) { return "longValue"; }
+        if (type == float.class) { return "floatValue"; }
+        if (type == double.class) { return "doubleValue"; }
+        if (type == boolean.class) { return "booleanValue"; }
+        return null;
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+
+    private static String internalName(Class<?> clazz) {
+        return org.objectweb.asm.Type.getInternalName(clazz);
+    }
+
+    private static String descriptor(Class<?> clazz) {
+        return org.objectweb.asm.Type.getDescriptor(clazz);
+    }
+
+    private static String methodDescriptor(Method method) {
+        return org.objectweb.asm.Type.getMethodDescriptor(method);
+    }
+
+    /**
+     * Class loader for generated adapters. Resolves our own classes through the loader of this library and everything
+     * else through the loader of the bean class.
+     */
+    private static final class AdapterClassLoader extends ClassLoader {
+        private static final String OWN_PACKAGE_PREFIX = "at.yawk.config.";
+
+        AdapterClassLoader(ClassLoader beanLoader) {
+            super(beanLoader);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null && name.startsWith(OWN_PACKAGE_PREFIX)) {
+                    loaded = BeanAdapterGenerator.class.getClassLoader().loadClass(name);
+                }
+                if (loaded == null) {
+                    return super.loadClass(name, resolve);
+                }
+                if (resolve) {
+                    resolveClass(loaded);
+                }
+                return loaded;
+            }
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
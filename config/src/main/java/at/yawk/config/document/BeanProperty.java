@@ -0,0 +1,52 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A single bean property as resolved by {@link BeanTypeAdapterFactory}. Either the getter or the setter may be
+ * missing.
+ *
+ * @author yawkat
+ */
+@Getter
+@RequiredArgsConstructor
+class BeanProperty {
+    private final String name;
+
+    // nullable
+    private final Method getter;
+    // nullable
+    private final PropertyAccessor getAccessor;
+    // nullable
+    private final Type getterType;
+    /**
+     * Whether this property should be written, as determined by {@link Serialize}.
+     */
+    private final boolean serialized;
+    // nullable
+    private final String description;
+
+    // nullable
+    private final Method setter;
+    // nullable
+    private final PropertyAccessor setAccessor;
+    // nullable
+    private final Type setterType;
+
+    boolean isReadable() {
+        return getter != null;
+    }
+
+    boolean isWritable() {
+        return setter != null;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.TokenType;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @author yawkat
+ */
+@RequiredArgsConstructor
+class BeanTypeAdapter implements RebindingTypeAdapter<Object> {
+    private final Class<?> clazz;
+    /**
+     * Properties to write, in declaration order.
+     */
+    private final List<BeanProperty> serializedProperties;
+    /**
+     * Writable properties by document key.
+     */
+    private final Map<String, BeanProperty> propertiesByKey;
+
+    @Override
+    public void write(WriterContext context, Object obj) {
+        context.enterObject();
+
+        for (BeanProperty property : serializedProperties) {
+            property.getGetAccessor().write(context, property, obj);
+        }
+
+        context.exitObject();
+    }
+
+    @Override
+    public Object read(ReaderContext context) {
+        Object instance = newInstance();
+        context.enterObject();
+        while (true) {
+            TokenType peek = context.peek();
+            if (peek == TokenType.EXIT_OBJECT) {
+                context.exitObject();
+                break;
+            }
+            String name = context.key();
+            BeanProperty target = propertiesByKey.get(name);
+            if (target == null) {
+                context.skipDeep();
+                // todo: error?
+                continue;
+            }
+            target.getSetAccessor().read(context, target, instance);
+        }
+        return instance;
+    }
+
+    @Override
+    public Object reread(Rebinder rebinder, Object previous, int previousPosition) {
+        ReaderContext context = rebinder.getContext();
+        Map<String, Integer> previousEntries = rebinder.previousEntries(previousPosition);
+        Object instance = newInstance();
+        context.enterObject();
+        while (true) {
+            TokenType peek = context.peek();
+            if (peek == TokenType.EXIT_OBJECT) {
+                context.exitObject();
+                break;
+            }
+            String name = context.key();
+            BeanProperty target = propertiesByKey.get(name);
+            if (target == null) {
+                context.skipDeep();
+                continue;
+            }
+            Integer previousEntry = previousEntries.get(name);
+            if (previousEntry == null) {
+                target.getSetAccessor().read(context, target, instance);
+            } else {
+                target.getSetAccessor().reread(rebinder, target, instance, previous, previousEntry);
+            }
+        }
+        return instance;
+    }
+
+    private Object newInstance() {
+        try {
+            return clazz.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.reflect.Annotations;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeToken;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * @author yawkat
+ */
+class BeanTypeAdapterFactory implements TypeAdapterFactory {
+    @Getter
+    @Setter
+    private volatile AccessorStrategy accessorStrategy = AccessorStrategy.LAMBDA_METAFACTORY;
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(Type type) {
+        return createTypeAdapter(TypeAdapterRegistryImpl.getDefault(), type);
+    }
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(TypeAdapterRegistry registry, Type type) {
+        Type rawType = type;
+        if (rawType instanceof ParameterizedType) {
+            rawType = ((ParameterizedType) rawType).getRawType();
+        }
+        if (rawType instanceof Class) {
+            if (rawType != Object.class) {
+                try {
+                    ((Class<?>) rawType).getConstructor();
+                } catch (NoSuchMethodException e) {
+                    return null;
+                }
+                return createBeanTypeAdapter(registry, (Class<?>) rawType, type);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Build the property plan for the given bean class. This does all the reflection work up front so the returned
+     * adapter doesn't need to do any lookups when reading or writing.
+     *
+     * @param type the full (possibly parameterized) bean type, used to resolve generic property types.
+     */
+    private BeanTypeAdapter createBeanTypeAdapter(TypeAdapterRegistry registry, Class<?> clazz, Type type) {
+        List<BeanProperty> properties = resolveProperties(clazz, type, accessorStrategy, registry);
+
+        ImmutableList.Builder<BeanProperty> serialized = ImmutableList.builder();
+        for (BeanProperty property : properties) {
+            if (property.isReadable() && property.isSerialized()) {
+                serialized.add(property);
+            }
+        }
+        return new BeanTypeAdapter(clazz, serialized.build(), indexByKey(properties));
+    }
+
+    /**
+     * Resolve the bean properties of the given class.
+     *
+     * @param type             the full (possibly parameterized) bean type, used to resolve generic property types.
+     * @param accessorStrategy the strategy used to create accessors, or {@code null} if no accessors are needed.
+     * @param registry         the registry used to look up the property adapters of the accessors. May be
+     *                         {@code null} if no accessors are needed.
+     */
+    static List<BeanProperty> resolveProperties(Class<?> clazz, Type type, AccessorStrategy accessorStrategy,
+                                                TypeAdapterRegistry registry) {
+        TypeToken<?> token = TypeToken.of(type);
+
+        boolean serializeClass = true;
+        Serialize serializeClassAnnotation = clazz.getAnnotation(Serialize.class);
+        if (serializeClassAnnotation != null) {
+            serializeClass = serializeClassAnnotation.value();
+        }
+
+        Map<String, Method> getters = new LinkedHashMap<>();
+        Map<String, Method> setters = new LinkedHashMap<>();
+        for (Method method : clazz.getMethods()) {
+            if (method.getParameterCount() == 0) {
+                if (Modifier.isStatic(method.getModifiers())) { continue; }
+                if (method.getName().equals("getClass")) { continue; }
+
+                String itemName = getItemName(method.getName());
+                if (itemName != null) {
+                    putPreferNonBridge(getters, itemName, method);
+                }
+            } else if (method.getParameterCount() == 1) {
+                String setterName = method.getName();
+                if (setterName.length() > 3 && setterName.startsWith("set")) {
+                    putPreferNonBridge(setters, setterName, method);
+                }
+            }
+        }
+
+        List<BeanProperty> properties = new ArrayList<>();
+        for (Map.Entry<String, Method> entry : getters.entrySet()) {
+            String itemName = entry.getKey();
+            Method getter = entry.getValue();
+
+            boolean serialize = serializeClass;
+            Serialize methodSerialize = Annotations.locateAnnotation(Serialize.class, getter);
+            if (methodSerialize != null) {
+                serialize = methodSerialize.value();
+            }
+
+            Method setter = setters.remove(getSetterName(itemName));
+            Type getterType = token.resolveType(getter.getGenericReturnType()).getType();
+            Type setterType = setter == null ? null : token.resolveType(setter.getGenericParameterTypes()[0]).getType();
+            properties.add(new BeanProperty(
+                    itemName,
+                    getter,
+                    serialize && accessorStrategy != null
+                            ? PropertyAccessor.forGetter(accessorStrategy, getter, registry, getterType) : null,
+                    getterType,
+                    serialize,
+                    findDescription(getter, itemName),
+                    setter,
+                    setter == null || accessorStrategy == null
+                            ? null : PropertyAccessor.forSetter(accessorStrategy, setter, registry, setterType),
+                    setterType
+            ));
+        }
+        for (Method setter : setters.values()) {
+            String itemName = decapitalize(setter.getName().substring(3));
+            Type setterType = token.resolveType(setter.getGenericParameterTypes()[0]).getType();
+            properties.add(new BeanProperty(
+                    itemName,
+                    null,
+                    null,
+                    null,
+                    false,
+                    null,
+                    setter,
+                    accessorStrategy == null
+                            ? null : PropertyAccessor.forSetter(accessorStrategy, setter, registry, setterType),
+                    setterType
+            ));
+        }
+
+        return properties;
+    }
+
+    /**
+     * Index the writable properties by every document key that maps to their setter so lookup is a single hash probe.
+     */
+    static Map<String, BeanProperty> indexByKey(List<BeanProperty> properties) {
+        Map<String, BeanProperty> byKey = new HashMap<>();
+        for (BeanProperty property : properties) {
+            if (property.isWritable()) {
+                String suffix = property.getSetter().getName().substring(3);
+                for (String key : new String[]{ suffix, property.getName() }) {
+                    if (getSetterName(key).equals(property.getSetter().getName())) {
+                        byKey.putIfAbsent(key, property);
+                    }
+                }
+            }
+        }
+        return ImmutableMap.copyOf(byKey);
+    }
+
+    private static void putPreferNonBridge(Map<String, Method> map, String key, Method method) {
+        Method present = map.get(key);
+        if (present == null || (present.isBridge() && !method.isBridge())) {
+            map.put(key, method);
+        }
+    }
+
+    // nullable
+    private static String findDescription(Method getter, String itemName) {
+        DescribedAs description = getter.getAnnotation(DescribedAs.class);
+        if (description == null) {
+            try {
+                // check field too
+                description = getter.getDeclaringClass()
+                        .getDeclaredField(itemName)
+                        .getAnnotation(DescribedAs.class);
+            } catch (NoSuchFieldException ignored) {}
+        }
+        return description == null ? null : description.value();
+    }
+
+    private static String getItemName(String getterMethodName) {
+        int prefixLength;
+        if (getterMethodName.startsWith("is")) {
+            prefixLength = 2;
+        } else if (getterMethodName.startsWith("get")) {
+            prefixLength = 3;
+        } else {
+            return null;
+        }
+        if (prefixLength == getterMethodName.length()) { return null; }
+        return decapitalize(getterMethodName.substring(prefixLength));
+    }
+
+    private static String decapitalize(String name) {
+        StringBuilder sb = new StringBuilder(name);
+        sb.setCharAt(0, Character.toLowerCase(sb.charAt(0)));
+        return sb.toString();
+    }
+
+    private static String getSetterName(String itemName) {
+        return "set" + Character.toUpperCase(itemName.charAt(0)) + itemName.substring(1);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+/**
+ * {@link TypeAdapter} for {@code boolean} values that can also be used without boxing.
+ * {@link WriterContext#writeBoolean} and {@link ReaderContext#readBoolean} use the primitive methods when the
+ * registered adapter implements this interface.
+ *
+ * @author yawkat
+ */
+public interface BooleanTypeAdapter extends TypeAdapter<Boolean> {
+    void writeBoolean(WriterContext context, boolean value);
+
+    boolean readBoolean(ReaderContext context);
+
+    @Override
+    default void write(WriterContext context, Boolean obj) {
+        writeBoolean(context, obj);
+    }
+
+    @Override
+    default Boolean read(ReaderContext context) {
+        return readBoolean(context);
+    }
+
+    /**
+     * Use the given adapter for {@code boolean} values. If it is not a {@link BooleanTypeAdapter}, values are boxed.
+     */
+    @SuppressWarnings("unchecked")
+    static BooleanTypeAdapter of(TypeAdapter<?> adapter) {
+        if (adapter instanceof BooleanTypeAdapter) {
+            return (BooleanTypeAdapter) adapter;
+        }
+        TypeAdapter<Boolean> boxed = (TypeAdapter<Boolean>) adapter;
+        return new BooleanTypeAdapter() {
+            @Override
+            public void writeBoolean(WriterContext context, boolean value) {
+                boxed.write(context, value);
+            }
+
+            @Override
+            public boolean readBoolean(ReaderContext context) {
+                return boxed.read(context);
+            }
+
+            @Override
+            public void writeKey(WriterContext context, Boolean obj) {
+                boxed.writeKey(context, obj);
+            }
+
+            @Override
+            public Boolean readKey(ReaderContext context) {
+                return boxed.readKey(context);
+            }
+        };
+    }
+}
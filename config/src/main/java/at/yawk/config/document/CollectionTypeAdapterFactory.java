@@ -0,0 +1,126 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.TokenType;
+import com.google.common.collect.ImmutableMap;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.Getter;
+
+/**
+ * @author yawkat
+ */
+public class CollectionTypeAdapterFactory implements TypeAdapterFactory {
+    @Getter
+    private static final TypeAdapterFactory instance = new CollectionTypeAdapterFactory();
+
+    private static final Map<Class<?>, Supplier<Collection<Object>>> implementations =
+            ImmutableMap.of(
+                    List.class, ArrayList::new,
+                    Set.class, LinkedHashSet::new,
+                    Collection.class, ArrayList::new,
+                    Queue.class, ArrayDeque::new,
+                    Iterable.class, ArrayList::new
+            );
+
+    private CollectionTypeAdapterFactory() {}
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(Type type) {
+        return createTypeAdapter(TypeAdapterRegistryImpl.getDefault(), type);
+    }
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(TypeAdapterRegistry registry, Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType pt = (ParameterizedType) type;
+            if (pt.getRawType() instanceof Class) {
+                Type contentType = pt.getActualTypeArguments()[0];
+                Class<?> baseType = (Class<?>) pt.getRawType();
+                Supplier<Collection<Object>> factory = implementations.get(baseType);
+                if (factory != null) {
+                    TypeAdapter<Object> contentAdapter = LazyTypeAdapter.resolve(registry, contentType);
+                    return new RebindingTypeAdapter<Iterable>() {
+                        @Override
+                        public void write(WriterContext context, Iterable obj) {
+                            context.enterList();
+                            for (Object entry : obj) {
+                                contentAdapter.write(context, entry);
+                            }
+                            context.exitList();
+                        }
+
+                        @Override
+                        public Iterable read(ReaderContext context) {
+                            return CollectionTypeAdapterFactory.read(context, contentAdapter, factory.get());
+                        }
+
+                        @Override
+                        public Iterable reread(Rebinder rebinder, Iterable previous, int previousPosition) {
+                            int[] previousElements = rebinder.previousElements(previousPosition);
+                            // pair elements by index, unless the previous collection dropped duplicates
+                            Iterator<?> previousValues = previous instanceof Collection &&
+                                                         ((Collection) previous).size() == previousElements.length ?
+                                    previous.iterator() : Collections.emptyIterator();
+                            ReaderContext context = rebinder.getContext();
+                            Collection<Object> objects = factory.get();
+                            context.enterList();
+                            for (int i = 0; context.peek() != TokenType.EXIT_LIST; i++) {
+                                if (previousValues.hasNext()) {
+                                    objects.add(rebinder.read(
+                                            contentAdapter, previousValues.next(), previousElements[i]));
+                                } else {
+                                    objects.add(contentAdapter.read(context));
+                                }
+                            }
+                            context.exitList();
+                            return objects;
+                        }
+                    };
+                }
+                if (baseType == Iterator.class || baseType == Stream.class) {
+                    // producers are written as they go and consumed by writing. They can't be read: a bound value
+                    // would be one-shot, but bound values are shared between reloads
+                    TypeAdapter<Object> contentAdapter = LazyTypeAdapter.resolve(registry, contentType);
+                    boolean stream = baseType == Stream.class;
+                    return new TypeAdapter<Object>() {
+                        @Override
+                        public void write(WriterContext context, Object obj) {
+                            Iterator<?> iterator = stream ? ((Stream<?>) obj).iterator() : (Iterator<?>) obj;
+                            context.enterList();
+                            while (iterator.hasNext()) {
+                                contentAdapter.write(context, iterator.next());
+                            }
+                            context.exitList();
+                        }
+
+                        @Override
+                        public Object read(ReaderContext context) {
+                            throw new UnsupportedOperationException(
+                                    "Can't read " + type.getTypeName() + ", declare an Iterable or List instead");
+                        }
+                    };
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Collection<Object> read(ReaderContext context, TypeAdapter<Object> contentAdapter,
+                                           Collection<Object> objects) {
+        context.enterList();
+        while (context.peek() != TokenType.EXIT_LIST) {
+            objects.add(contentAdapter.read(context));
+        }
+        context.exitList();
+        return objects;
+    }
+}
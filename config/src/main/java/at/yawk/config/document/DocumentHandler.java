@@ -0,0 +1,153 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.ObjectWriter;
+import at.yawk.config.file.TokenBuffer;
+import at.yawk.config.file.TokenType;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author yawkat
+ */
+public interface DocumentHandler {
+    void write(ObjectWriter target, Object o);
+
+    /**
+     * Start writing a list of the given element type to the target. Elements are written as they are added to the
+     * returned writer.
+     * <p>
+     * The default implementation writes each element with {@link #write(ObjectWriter, Object)}, so elements are
+     * written as their runtime type.
+     */
+    default <T> ListWriter<T> openList(ObjectWriter target, Class<T> elementType) {
+        target.enterList();
+        return new ListWriter<T>() {
+            private boolean closed = false;
+
+            @Override
+            public ListWriter<T> add(T element) {
+                if (closed) {
+                    throw new IllegalStateException("List writer is closed");
+                }
+                write(target, element);
+                return this;
+            }
+
+            @Override
+            public ListWriter<T> flush() {
+                target.flush();
+                return this;
+            }
+
+            @Override
+            public void close() {
+                if (!closed) {
+                    closed = true;
+                    target.exitList();
+                }
+            }
+        };
+    }
+
+    /**
+     * Write a list of the elements produced by the given iterator without collecting them first.
+     */
+    default <T> void writeList(ObjectWriter target, Class<T> elementType, Iterator<? extends T> elements) {
+        try (ListWriter<T> writer = openList(target, elementType)) {
+            writer.addAll(elements);
+        }
+    }
+
+    <T> T read(ObjectReader source, Class<T> type);
+
+    /**
+     * Read a value from a recorded document that replaces a previous one. Subtrees that are unchanged from the
+     * previous document are not bound again: the objects bound from them in the previous value are reused, so only
+     * the changed parts allocate. Beans, collections and maps are compared child by child, other values as a whole.
+     * <p>
+     * The default implementation binds the whole document again with {@link #read(ObjectReader, Class)}.
+     *
+     * @param previousSource the previous document.
+     * @param previous       the value read from the previous document. It must not have been modified since.
+     */
+    default <T> T read(TokenBuffer source, Class<T> type, TokenBuffer previousSource, T previous) {
+        return read(source.reader(), type);
+    }
+
+    /**
+     * Read only the value at the given path. Values outside the path are skipped without being bound, and the reader
+     * is not advanced past the value.
+     *
+     * @return the value, or {@code null} if the path does not exist.
+     */
+    // nullable
+    default <T> T read(ObjectReader source, DocumentPath path, Class<T> type) {
+        return path.seek(source) ? read(source, type) : null;
+    }
+
+    /**
+     * Iterate over the list the reader is positioned at, binding one element per call to {@link Iterator#next()}.
+     * Elements that have been returned are not retained, so memory use does not grow with the size of the list. The
+     * list is entered immediately and exited once the iterator reports no further elements; the reader must not be
+     * used otherwise until then.
+     * <p>
+     * The default implementation binds each element with {@link #read(ObjectReader, Class)}.
+     */
+    default <T> Iterator<T> iterate(ObjectReader source, Class<T> elementType) {
+        source.enterList();
+        return new Iterator<T>() {
+            private boolean done = false;
+
+            @Override
+            public boolean hasNext() {
+                if (done) {
+                    return false;
+                }
+                if (source.peek() == TokenType.EXIT_LIST) {
+                    source.exitList();
+                    done = true;
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return read(source, elementType);
+            }
+        };
+    }
+
+    /**
+     * Iterate over the list at the given path. Values outside the path are skipped without being bound.
+     *
+     * @return the elements, or an empty iterator if the path does not exist.
+     * @see #iterate(ObjectReader, Class)
+     */
+    default <T> Iterator<T> iterate(ObjectReader source, DocumentPath path, Class<T> elementType) {
+        return path.seek(source) ? iterate(source, elementType) : Collections.emptyIterator();
+    }
+
+    /**
+     * Sequential stream over the list at the given path, backed by {@link #iterate(ObjectReader, DocumentPath, Class)}.
+     */
+    default <T> Stream<T> stream(ObjectReader source, DocumentPath path, Class<T> elementType) {
+        Iterator<T> iterator = iterate(source, path, elementType);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+}
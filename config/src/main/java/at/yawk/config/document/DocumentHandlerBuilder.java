@@ -0,0 +1,226 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.ObjectWriter;
+import at.yawk.config.file.TokenBuffer;
+import at.yawk.config.file.TokenType;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+
+/**
+ * @author yawkat
+ */
+public class DocumentHandlerBuilder {
+    private final TypeAdapterRegistryImpl registry = new TypeAdapterRegistryImpl();
+
+    public TypeAdapterRegistry getTypeAdapterRegistry() {
+        return registry;
+    }
+
+    /**
+     * Select how bean getters and setters are invoked. Defaults to {@link AccessorStrategy#LAMBDA_METAFACTORY}.
+     */
+    public DocumentHandlerBuilder accessorStrategy(AccessorStrategy accessorStrategy) {
+        registry.setAccessorStrategy(accessorStrategy);
+        return this;
+    }
+
+    /**
+     * Generate a dedicated adapter class per bean type at runtime instead of going through
+     * {@link AccessorStrategy accessors}. Requires ASM on the classpath; bean types that can't be generated fall back
+     * to the reflective adapter. Disabled by default.
+     */
+    public DocumentHandlerBuilder generateBeanAdapters(boolean generateBeanAdapters) {
+        registry.setGenerateBeanAdapters(generateBeanAdapters);
+        return this;
+    }
+
+    public DocumentHandler build() {
+        return new DocumentHandler() {
+            @Override
+            public void write(ObjectWriter target, Object o) {
+                WriterContextImpl context = new WriterContextImpl(target);
+                context.writeObject(o.getClass(), o);
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> ListWriter<T> openList(ObjectWriter target, Class<T> elementType) {
+                WriterContextImpl context = new WriterContextImpl(target);
+                context.enterList();
+                return new ElementWriter<>(context, (TypeAdapter<T>) registry.getTypeAdapter(elementType));
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> T read(ObjectReader source, Class<T> type) {
+                ReaderContext context = new RegistryReaderContext(registry, source);
+                return (T) context.readObject(type);
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> T read(TokenBuffer source, Class<T> type, TokenBuffer previousSource, T previous) {
+                TokenBuffer.Replay reader = source.reader();
+                Rebinder rebinder =
+                        new Rebinder(new RegistryReaderContext(registry, reader), reader, source, previousSource);
+                return rebinder.read((TypeAdapter<T>) registry.getTypeAdapter(type), previous, 0);
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> Iterator<T> iterate(ObjectReader source, Class<T> elementType) {
+                ReaderContext context = new RegistryReaderContext(registry, source);
+                context.enterList();
+                return new ElementIterator<>(context, (TypeAdapter<T>) registry.getTypeAdapter(elementType));
+            }
+        };
+    }
+
+    /**
+     * Binds the elements of a list one at a time. The list must already have been entered.
+     */
+    @RequiredArgsConstructor
+    private static class ElementIterator<T> implements Iterator<T> {
+        private final ReaderContext context;
+        private final TypeAdapter<T> adapter;
+        private boolean done = false;
+
+        @Override
+        public boolean hasNext() {
+            if (done) {
+                return false;
+            }
+            if (context.peek() == TokenType.EXIT_LIST) {
+                context.exitList();
+                done = true;
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return adapter.read(context);
+        }
+    }
+
+    /**
+     * Writes list elements as they are added. The list must already have been entered.
+     */
+    @RequiredArgsConstructor
+    private static class ElementWriter<T> implements ListWriter<T> {
+        private final WriterContext context;
+        private final TypeAdapter<T> adapter;
+        private boolean closed = false;
+
+        @Override
+        public ListWriter<T> add(T element) {
+            if (closed) {
+                throw new IllegalStateException("List writer is closed");
+            }
+            adapter.write(context, element);
+            return this;
+        }
+
+        @Override
+        public ListWriter<T> flush() {
+            context.flush();
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                context.exitList();
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private class WriterContextImpl implements WriterContext {
+        @Delegate private final ObjectWriter writer;
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void writeObject(Type type, Object object) {
+            TypeAdapter adapter = registry.getTypeAdapter(type);
+            adapter.write(this, object);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void writeObjectKey(Type type, Object object) {
+            TypeAdapter adapter = registry.getTypeAdapter(type);
+            adapter.writeKey(this, object);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void writeInt(Type type, int value) {
+            TypeAdapter adapter = registry.getTypeAdapter(type);
+            if (adapter instanceof IntTypeAdapter) {
+                ((IntTypeAdapter) adapter).writeInt(this, value);
+            } else {
+                adapter.write(this, value);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void writeLong(Type type, long value) {
+            TypeAdapter adapter = registry.getTypeAdapter(type);
+            if (adapter instanceof LongTypeAdapter) {
+                ((LongTypeAdapter) adapter).writeLong(this, value);
+            } else {
+                adapter.write(this, value);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void writeFloat(Type type, float value) {
+            TypeAdapter adapter = registry.getTypeAdapter(type);
+            if (adapter instanceof FloatTypeAdapter) {
+                ((FloatTypeAdapter) adapter).writeFloat(this, value);
+            } else {
+                adapter.write(this, value);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void writeDouble(Type type, double value) {
+            TypeAdapter adapter = registry.getTypeAdapter(type);
+            if (adapter instanceof DoubleTypeAdapter) {
+                ((DoubleTypeAdapter) adapter).writeDouble(this, value);
+            } else {
+                adapter.write(this, value);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void writeBoolean(Type type, boolean value) {
+            TypeAdapter adapter = registry.getTypeAdapter(type);
+            if (adapter instanceof BooleanTypeAdapter) {
+                ((BooleanTypeAdapter) adapter).writeBoolean(this, value);
+            } else {
+                adapter.write(this, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.TokenType;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Path to a value inside a document, made of object keys and list indices, like {@code services.billing} or
+ * {@code servers[2].name}. Dots, brackets and backslashes in keys are escaped with a backslash.
+ *
+ * @author yawkat
+ */
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DocumentPath {
+    /**
+     * The path to the document root.
+     */
+    public static final DocumentPath ROOT = new DocumentPath(ImmutableList.of());
+
+    /**
+     * {@link String} keys and {@link Integer} indices.
+     */
+    private final List<Object> segments;
+
+    public static DocumentPath parse(String path) {
+        ImmutableList.Builder<Object> segments = ImmutableList.builder();
+        StringBuilder key = new StringBuilder();
+        boolean keyPending = false;
+        int length = path.length();
+        int i = 0;
+        while (i < length) {
+            char c = path.charAt(i++);
+            switch (c) {
+            case '\\':
+                if (i == length) {
+                    throw new IllegalArgumentException("Dangling escape in path " + path);
+                }
+                key.append(path.charAt(i++));
+                keyPending = true;
+                break;
+            case '.':
+                if (!keyPending && (i == 1 || path.charAt(i - 2) != ']')) {
+                    throw new IllegalArgumentException("Empty key in path " + path);
+                }
+                if (keyPending) {
+                    segments.add(key.toString());
+                    key.setLength(0);
+                    keyPending = false;
+                }
+                if (i == length) {
+                    throw new IllegalArgumentException("Empty key in path " + path);
+                }
+                break;
+            case '[':
+                if (keyPending) {
+                    segments.add(key.toString());
+                    key.setLength(0);
+                    keyPending = false;
+                }
+                int end = path.indexOf(']', i);
+                if (end == -1) {
+                    throw new IllegalArgumentException("Unclosed index in path " + path);
+                }
+                int index;
+                try {
+                    index = Integer.parseInt(path.substring(i, end));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid index in path " + path, e);
+                }
+                if (index < 0) {
+                    throw new IllegalArgumentException("Negative index in path " + path);
+                }
+                segments.add(index);
+                i = end + 1;
+                if (i < length && path.charAt(i) != '.' && path.charAt(i) != '[') {
+                    throw new IllegalArgumentException("Expected '.' or '[' after index in path " + path);
+                }
+                break;
+            default:
+                key.append(c);
+                keyPending = true;
+                break;
+            }
+        }
+        if (keyPending) {
+            segments.add(key.toString());
+        }
+        return new DocumentPath(segments.build());
+    }
+
+    /**
+     * @return a path to the given key of the value at this path.
+     */
+    public DocumentPath key(String key) {
+        return new DocumentPath(ImmutableList.builder().addAll(segments).add(key).build());
+    }
+
+    /**
+     * @return a path to the given list index of the value at this path.
+     */
+    public DocumentPath index(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Negative index " + index);
+        }
+        return new DocumentPath(ImmutableList.builder().addAll(segments).add(index).build());
+    }
+
+    /**
+     * Advance the reader to the value at this path. Everything before the value is skipped with
+     * {@link ObjectReader#skipDeep()} without being bound. If the path does not exist, the reader is left somewhere
+     * inside the document.
+     * <p>
+     * How cheap skipping is depends on the format. The SnakeYAML based {@code yaml} format still parses every skipped
+     * value into an event, as its parser always builds them. {@code yaml-native} does not classify skipped scalars
+     * and is the better choice for reading paths out of large YAML documents.
+     *
+     * @return whether the path exists.
+     */
+    public boolean seek(ObjectReader reader) {
+        for (Object segment : segments) {
+            if (segment instanceof String) {
+                if (reader.peek() != TokenType.ENTER_OBJECT) {
+                    return false;
+                }
+                reader.enterObject();
+                while (true) {
+                    if (reader.peek() == TokenType.EXIT_OBJECT) {
+                        return false;
+                    }
+                    if (reader.key().equals(segment)) {
+                        break;
+                    }
+                    reader.skipDeep();
+                }
+            } else {
+                if (reader.peek() != TokenType.ENTER_LIST) {
+                    return false;
+                }
+                reader.enterList();
+                for (int i = (Integer) segment; i > 0; i--) {
+                    if (reader.peek() == TokenType.EXIT_LIST) {
+                        return false;
+                    }
+                    reader.skipDeep();
+                }
+                if (reader.peek() == TokenType.EXIT_LIST) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Object segment : segments) {
+            if (segment instanceof Integer) {
+                builder.append('[').append(segment).append(']');
+            } else {
+                if (builder.length() > 0) {
+                    builder.append('.');
+                }
+                String key = (String) segment;
+                for (int i = 0; i < key.length(); i++) {
+                    char c = key.charAt(i);
+                    if (c == '.' || c == '[' || c == ']' || c == '\\') {
+                        builder.append('\\');
+                    }
+                    builder.append(c);
+                }
+            }
+        }
+        return builder.toString();
+    }
+}
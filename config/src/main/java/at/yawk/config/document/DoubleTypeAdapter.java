@@ -0,0 +1,61 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+/**
+ * {@link TypeAdapter} for {@code double} values that can also be used without boxing. {@link WriterContext#writeDouble}
+ * and {@link ReaderContext#readDouble} use the primitive methods when the registered adapter implements this interface.
+ *
+ * @author yawkat
+ */
+public interface DoubleTypeAdapter extends TypeAdapter<Double> {
+    void writeDouble(WriterContext context, double value);
+
+    double readDouble(ReaderContext context);
+
+    @Override
+    default void write(WriterContext context, Double obj) {
+        writeDouble(context, obj);
+    }
+
+    @Override
+    default Double read(ReaderContext context) {
+        return readDouble(context);
+    }
+
+    /**
+     * Use the given adapter for {@code double} values. If it is not a {@link DoubleTypeAdapter}, values are boxed.
+     */
+    @SuppressWarnings("unchecked")
+    static DoubleTypeAdapter of(TypeAdapter<?> adapter) {
+        if (adapter instanceof DoubleTypeAdapter) {
+            return (DoubleTypeAdapter) adapter;
+        }
+        TypeAdapter<Double> boxed = (TypeAdapter<Double>) adapter;
+        return new DoubleTypeAdapter() {
+            @Override
+            public void writeDouble(WriterContext context, double value) {
+                boxed.write(context, value);
+            }
+
+            @Override
+            public double readDouble(ReaderContext context) {
+                return boxed.read(context);
+            }
+
+            @Override
+            public void writeKey(WriterContext context, Double obj) {
+                boxed.writeKey(context, obj);
+            }
+
+            @Override
+            public Double readKey(ReaderContext context) {
+                return boxed.readKey(context);
+            }
+        };
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.TokenType;
+import com.google.common.collect.ImmutableMap;
+import it.unimi.dsi.fastutil.doubles.*;
+import it.unimi.dsi.fastutil.ints.*;
+import it.unimi.dsi.fastutil.longs.*;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.function.Supplier;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Type adapters for the primitive collections of fastutil ({@code IntList}, {@code LongSet}, ...). Elements are passed
+ * through the primitive methods of their element adapter without boxing. Only available if fastutil is on the
+ * classpath.
+ *
+ * @author yawkat
+ */
+class FastutilTypeAdapterFactory implements TypeAdapterFactory {
+    @Getter
+    private static final TypeAdapterFactory instance;
+
+    static {
+        boolean available;
+        try {
+            Class.forName(IntCollection.class.getName());
+            available = true;
+        } catch (ClassNotFoundException | NoClassDefFoundError e) {
+            available = false;
+        }
+        instance = available ? new FastutilTypeAdapterFactory() : type -> null;
+    }
+
+    // instance fields so they are only initialized if fastutil is available
+    private final Map<Class<?>, Supplier<? extends IntCollection>> intCollections =
+            ImmutableMap.<Class<?>, Supplier<? extends IntCollection>>builder()
+                    .put(IntCollection.class, IntArrayList::new)
+                    .put(IntList.class, IntArrayList::new)
+                    .put(IntArrayList.class, IntArrayList::new)
+                    .put(IntSet.class, IntOpenHashSet::new)
+                    .put(IntOpenHashSet.class, IntOpenHashSet::new)
+                    .build();
+    private final Map<Class<?>, Supplier<? extends LongCollection>> longCollections =
+            ImmutableMap.<Class<?>, Supplier<? extends LongCollection>>builder()
+                    .put(LongCollection.class, LongArrayList::new)
+                    .put(LongList.class, LongArrayList::new)
+                    .put(LongArrayList.class, LongArrayList::new)
+                    .put(LongSet.class, LongOpenHashSet::new)
+                    .put(LongOpenHashSet.class, LongOpenHashSet::new)
+                    .build();
+    private final Map<Class<?>, Supplier<? extends DoubleCollection>> doubleCollections =
+            ImmutableMap.<Class<?>, Supplier<? extends DoubleCollection>>builder()
+                    .put(DoubleCollection.class, DoubleArrayList::new)
+                    .put(DoubleList.class, DoubleArrayList::new)
+                    .put(DoubleArrayList.class, DoubleArrayList::new)
+                    .put(DoubleSet.class, DoubleOpenHashSet::new)
+                    .put(DoubleOpenHashSet.class, DoubleOpenHashSet::new)
+                    .build();
+
+    private FastutilTypeAdapterFactory() {}
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(Type type) {
+        return createTypeAdapter(TypeAdapterRegistryImpl.getDefault(), type);
+    }
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(TypeAdapterRegistry registry, Type type) {
+        Supplier<? extends IntCollection> intFactory = intCollections.get(type);
+        if (intFactory != null) {
+            return new IntCollectionTypeAdapter(intFactory, IntTypeAdapter.of(registry.getTypeAdapter(int.class)));
+        }
+        Supplier<? extends LongCollection> longFactory = longCollections.get(type);
+        if (longFactory != null) {
+            return new LongCollectionTypeAdapter(
+                    longFactory, LongTypeAdapter.of(registry.getTypeAdapter(long.class)));
+        }
+        Supplier<? extends DoubleCollection> doubleFactory = doubleCollections.get(type);
+        if (doubleFactory != null) {
+            return new DoubleCollectionTypeAdapter(
+                    doubleFactory, DoubleTypeAdapter.of(registry.getTypeAdapter(double.class)));
+        }
+        return null;
+    }
+
+    @RequiredArgsConstructor
+    private static class IntCollectionTypeAdapter implements TypeAdapter<IntCollection> {
+        private final Supplier<? extends IntCollection> factory;
+        private final IntTypeAdapter elementAdapter;
+
+        @Override
+        public void write(WriterContext context, IntCollection obj) {
+            context.enterList();
+            IntIterator iterator = obj.iterator();
+            while (iterator.hasNext()) {
+                elementAdapter.writeInt(context, iterator.nextInt());
+            }
+            context.exitList();
+        }
+
+        @Override
+        public IntCollection read(ReaderContext context) {
+            IntCollection collection = factory.get();
+            context.enterList();
+            while (context.peek() != TokenType.EXIT_LIST) {
+                collection.add(elementAdapter.readInt(context));
+            }
+            context.exitList();
+            return collection;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class LongCollectionTypeAdapter implements TypeAdapter<LongCollection> {
+        private final Supplier<? extends LongCollection> factory;
+        private final LongTypeAdapter elementAdapter;
+
+        @Override
+        public void write(WriterContext context, LongCollection obj) {
+            context.enterList();
+            LongIterator iterator = obj.iterator();
+            while (iterator.hasNext()) {
+                elementAdapter.writeLong(context, iterator.nextLong());
+            }
+            context.exitList();
+        }
+
+        @Override
+        public LongCollection read(ReaderContext context) {
+            LongCollection collection = factory.get();
+            context.enterList();
+            while (context.peek() != TokenType.EXIT_LIST) {
+                collection.add(elementAdapter.readLong(context));
+            }
+            context.exitList();
+            return collection;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class DoubleCollectionTypeAdapter implements TypeAdapter<DoubleCollection> {
+        private final Supplier<? extends DoubleCollection> factory;
+        private final DoubleTypeAdapter elementAdapter;
+
+        @Override
+        public void write(WriterContext context, DoubleCollection obj) {
+            context.enterList();
+            DoubleIterator iterator = obj.iterator();
+            while (iterator.hasNext()) {
+                elementAdapter.writeDouble(context, iterator.nextDouble());
+            }
+            context.exitList();
+        }
+
+        @Override
+        public DoubleCollection read(ReaderContext context) {
+            DoubleCollection collection = factory.get();
+            context.enterList();
+            while (context.peek() != TokenType.EXIT_LIST) {
+                collection.add(elementAdapter.readDouble(context));
+            }
+            context.exitList();
+            return collection;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+/**
+ * {@link TypeAdapter} for {@code float} values that can also be used without boxing. {@link WriterContext#writeFloat}
+ * and {@link ReaderContext#readFloat} use the primitive methods when the registered adapter implements this interface.
+ *
+ * @author yawkat
+ */
+public interface FloatTypeAdapter extends TypeAdapter<Float> {
+    void writeFloat(WriterContext context, float value);
+
+    float readFloat(ReaderContext context);
+
+    @Override
+    default void write(WriterContext context, Float obj) {
+        writeFloat(context, obj);
+    }
+
+    @Override
+    default Float read(ReaderContext context) {
+        return readFloat(context);
+    }
+
+    /**
+     * Use the given adapter for {@code float} values. If it is not a {@link FloatTypeAdapter}, values are boxed.
+     */
+    @SuppressWarnings("unchecked")
+    static FloatTypeAdapter of(TypeAdapter<?> adapter) {
+        if (adapter instanceof FloatTypeAdapter) {
+            return (FloatTypeAdapter) adapter;
+        }
+        TypeAdapter<Float> boxed = (TypeAdapter<Float>) adapter;
+        return new FloatTypeAdapter() {
+            @Override
+            public void writeFloat(WriterContext context, float value) {
+                boxed.write(context, value);
+            }
+
+            @Override
+            public float readFloat(ReaderContext context) {
+                return boxed.read(context);
+            }
+
+            @Override
+            public void writeKey(WriterContext context, Float obj) {
+                boxed.writeKey(context, obj);
+            }
+
+            @Override
+            public Float readKey(ReaderContext context) {
+                return boxed.readKey(context);
+            }
+        };
+    }
+}
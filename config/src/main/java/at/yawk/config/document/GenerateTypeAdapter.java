@@ -0,0 +1,24 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opt in to compile-time generation of a {@link TypeAdapter} for this bean class. Requires the {@code config-processor}
+ * annotation processor on the compiler path. Generated adapters are found through an index resource and take
+ * precedence over the reflective bean adapter.
+ *
+ * @author yawkat
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GenerateTypeAdapter {
+}
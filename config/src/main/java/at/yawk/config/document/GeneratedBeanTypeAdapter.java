@@ -0,0 +1,77 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.TokenType;
+import java.util.Map;
+
+/**
+ * Superclass of the bean adapters generated at runtime by {@link GeneratedBeanTypeAdapterFactory}. Generated
+ * subclasses live in their own class loader, which is why this class and its hooks are public. This is not meant to be
+ * extended by hand.
+ * <p>
+ * Unlike {@link BeanTypeAdapter}, exceptions thrown by getters and setters are propagated to the caller.
+ *
+ * @author yawkat
+ */
+public abstract class GeneratedBeanTypeAdapter implements TypeAdapter<Object> {
+    /**
+     * Maps document keys to the property index passed to {@link #readProperty(ReaderContext, Object, int)}.
+     */
+    private final Map<String, Integer> keyIndex;
+    /**
+     * Adapters of the getter types of properties that aren't written directly by the generated code, by property
+     * index.
+     */
+    protected final TypeAdapter[] writeAdapters;
+    /**
+     * Adapters of the setter types of properties that aren't read directly by the generated code, by property index.
+     */
+    protected final TypeAdapter[] readAdapters;
+
+    protected GeneratedBeanTypeAdapter(Map<String, Integer> keyIndex, TypeAdapter[] writeAdapters,
+                                       TypeAdapter[] readAdapters) {
+        this.keyIndex = keyIndex;
+        this.writeAdapters = writeAdapters;
+        this.readAdapters = readAdapters;
+    }
+
+    protected abstract Object newInstance();
+
+    /**
+     * Write all serialized properties of the given bean, without the surrounding object.
+     */
+    protected abstract void writeProperties(WriterContext context, Object bean);
+
+    /**
+     * Read the value of the property with the given index from the context and set it on the given bean.
+     */
+    protected abstract void readProperty(ReaderContext context, Object bean, int index);
+
+    @Override
+    public void write(WriterContext context, Object obj) {
+        context.enterObject();
+        writeProperties(context, obj);
+        context.exitObject();
+    }
+
+    @Override
+    public Object read(ReaderContext context) {
+        Object instance = newInstance();
+        context.enterObject();
+        while (context.peek() != TokenType.EXIT_OBJECT) {
+            Integer index = keyIndex.get(context.key());
+            if (index == null) {
+                context.skipDeep();
+                continue;
+            }
+            readProperty(context, instance, index);
+        }
+        context.exitObject();
+        return instance;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Factory that generates a dedicated {@link GeneratedBeanTypeAdapter} class per bean type at runtime. Disabled by
+ * default, and only available if ASM is on the classpath. Returns {@code null} for bean types it cannot handle so the
+ * reflective {@link BeanTypeAdapterFactory} can take over.
+ *
+ * @author yawkat
+ */
+@Slf4j
+class GeneratedBeanTypeAdapterFactory implements TypeAdapterFactory {
+    private static final boolean available;
+
+    static {
+        boolean a;
+        try {
+            Class.forName("org.objectweb.asm.ClassWriter");
+            a = true;
+        } catch (ClassNotFoundException | NoClassDefFoundError e) {
+            a = false;
+        }
+        available = a;
+    }
+
+    @Getter
+    @Setter
+    private volatile boolean enabled = false;
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(Type type) {
+        return createTypeAdapter(TypeAdapterRegistryImpl.getDefault(), type);
+    }
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(TypeAdapterRegistry registry, Type type) {
+        if (!enabled || !available) {
+            return null;
+        }
+        Type rawType = type;
+        if (rawType instanceof ParameterizedType) {
+            rawType = ((ParameterizedType) rawType).getRawType();
+        }
+        if (!(rawType instanceof Class) || rawType == Object.class) {
+            return null;
+        }
+        Class<?> clazz = (Class<?>) rawType;
+        int modifiers = clazz.getModifiers();
+        if (!Modifier.isPublic(modifiers) || Modifier.isAbstract(modifiers) || clazz.isArray() ||
+            clazz.isPrimitive()) {
+            return null;
+        }
+        try {
+            clazz.getConstructor();
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+
+        List<BeanProperty> properties = BeanTypeAdapterFactory.resolveProperties(clazz, type, null, null);
+        try {
+            return BeanAdapterGenerator.generate(registry, clazz, properties);
+        } catch (RuntimeException | LinkageError | ReflectiveOperationException e) {
+            log.debug("Failed to generate adapter for " + clazz.getName(), e);
+            return null;
+        }
+    }
+}
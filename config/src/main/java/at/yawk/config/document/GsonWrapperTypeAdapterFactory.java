@@ -12,6 +12,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
 import java.util.Map;
 import lombok.Getter;
 
@@ -19,6 +20,9 @@ import lombok.Getter;
  * @author yawkat
  */
 class GsonWrapperTypeAdapterFactory implements TypeAdapterFactory {
+    private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+
     @Getter
     private static final TypeAdapterFactory instance;
 
@@ -41,11 +45,7 @@ class GsonWrapperTypeAdapterFactory implements TypeAdapterFactory {
                     @Override
                     public void write(WriterContext context, JsonPrimitive obj) {
                         if (obj.isNumber()) {
-                            if (obj.getAsDouble() == obj.getAsLong()) {
-                                context.item(obj.getAsLong());
-                            } else {
-                                context.item(obj.getAsDouble());
-                            }
+                            writeNumber(context, obj);
                         } else if (obj.isBoolean()) {
                             context.item(obj.getAsBoolean());
                         } else if (obj.isString()) {
@@ -98,6 +98,29 @@ class GsonWrapperTypeAdapterFactory implements TypeAdapterFactory {
         return null;
     }
 
+    /**
+     * Write a number as a {@code long} or {@code double} if either holds it exactly, and as a {@link BigDecimal}
+     * otherwise.
+     */
+    private static void writeNumber(WriterContext context, JsonPrimitive primitive) {
+        Number number = primitive.getAsNumber();
+        if ((number instanceof Double || number instanceof Float) && !Double.isFinite(number.doubleValue())) {
+            // NaN and infinities have no BigDecimal form
+            context.item(number.doubleValue());
+            return;
+        }
+        BigDecimal value = primitive.getAsBigDecimal();
+        double d = value.doubleValue();
+        if (value.stripTrailingZeros().scale() <= 0 && value.compareTo(MIN_LONG) >= 0 &&
+            value.compareTo(MAX_LONG) <= 0) {
+            context.item(value.longValue());
+        } else if (Double.isFinite(d) && BigDecimal.valueOf(d).compareTo(value) == 0) {
+            context.item(d);
+        } else {
+            context.item(value);
+        }
+    }
+
     private JsonObject readObject(ReaderContext context) {
         JsonObject object = new JsonObject();
         context.enterObject();
@@ -138,6 +161,14 @@ class GsonWrapperTypeAdapterFactory implements TypeAdapterFactory {
             return new JsonPrimitive(context.stringValue());
         case BOOLEAN:
             return new JsonPrimitive(context.booleanValue());
+        case INT:
+            return new JsonPrimitive(context.intValue());
+        case LONG:
+            return new JsonPrimitive(context.longValue());
+        case FLOAT:
+            return new JsonPrimitive(context.floatValue());
+        case BIG_NUMBER:
+            return new JsonPrimitive(context.bigNumberValue());
         default:
             return new JsonPrimitive(context.doubleValue());
         }
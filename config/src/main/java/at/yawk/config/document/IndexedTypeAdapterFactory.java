@@ -0,0 +1,85 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Factory for adapters generated at compile time for {@link GenerateTypeAdapter} classes. The annotation processor
+ * writes an index of bean class to adapter class names, so no classpath scanning is necessary.
+ *
+ * @author yawkat
+ */
+@Slf4j
+class IndexedTypeAdapterFactory implements TypeAdapterFactory {
+    /**
+     * Index resource written by the annotation processor. Each entry maps a bean class binary name to the binary name
+     * of its generated adapter.
+     */
+    static final String INDEX_RESOURCE = "META-INF/at.yawk.config/type-adapters.properties";
+
+    @Getter
+    private static final TypeAdapterFactory instance = new IndexedTypeAdapterFactory();
+
+    private final Map<ClassLoader, Properties> indices = new WeakHashMap<>();
+
+    private IndexedTypeAdapterFactory() {}
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(Type type) {
+        if (type instanceof ParameterizedType) {
+            type = ((ParameterizedType) type).getRawType();
+        }
+        if (!(type instanceof Class)) {
+            return null;
+        }
+        Class<?> clazz = (Class<?>) type;
+        ClassLoader loader = clazz.getClassLoader();
+        if (loader == null) {
+            return null;
+        }
+        String adapterName = getIndex(loader).getProperty(clazz.getName());
+        if (adapterName == null) {
+            return null;
+        }
+        try {
+            return (TypeAdapter<?>) Class.forName(adapterName, true, loader).newInstance();
+        } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+            log.warn("Failed to instantiate generated type adapter " + adapterName, e);
+            return null;
+        }
+    }
+
+    private synchronized Properties getIndex(ClassLoader loader) {
+        Properties index = indices.get(loader);
+        if (index == null) {
+            index = new Properties();
+            try {
+                Enumeration<URL> resources = loader.getResources(INDEX_RESOURCE);
+                while (resources.hasMoreElements()) {
+                    try (InputStream in = resources.nextElement().openStream()) {
+                        index.load(in);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Failed to load type adapter index", e);
+            }
+            indices.put(loader, index);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+/**
+ * {@link TypeAdapter} for {@code int} values that can also be used without boxing. {@link WriterContext#writeInt}
+ * and {@link ReaderContext#readInt} use the primitive methods when the registered adapter implements this interface.
+ *
+ * @author yawkat
+ */
+public interface IntTypeAdapter extends TypeAdapter<Integer> {
+    void writeInt(WriterContext context, int value);
+
+    int readInt(ReaderContext context);
+
+    @Override
+    default void write(WriterContext context, Integer obj) {
+        writeInt(context, obj);
+    }
+
+    @Override
+    default Integer read(ReaderContext context) {
+        return readInt(context);
+    }
+
+    /**
+     * Use the given adapter for {@code int} values. If it is not an {@link IntTypeAdapter}, values are boxed.
+     */
+    @SuppressWarnings("unchecked")
+    static IntTypeAdapter of(TypeAdapter<?> adapter) {
+        if (adapter instanceof IntTypeAdapter) {
+            return (IntTypeAdapter) adapter;
+        }
+        TypeAdapter<Integer> boxed = (TypeAdapter<Integer>) adapter;
+        return new IntTypeAdapter() {
+            @Override
+            public void writeInt(WriterContext context, int value) {
+                boxed.write(context, value);
+            }
+
+            @Override
+            public int readInt(ReaderContext context) {
+                return boxed.read(context);
+            }
+
+            @Override
+            public void writeKey(WriterContext context, Integer obj) {
+                boxed.writeKey(context, obj);
+            }
+
+            @Override
+            public Integer readKey(ReaderContext context) {
+                return boxed.readKey(context);
+            }
+        };
+    }
+}
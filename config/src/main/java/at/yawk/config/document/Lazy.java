@@ -0,0 +1,79 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.TokenBuffer;
+import java.util.function.Supplier;
+
+/**
+ * Property type that defers binding of its value until it is first accessed. When a {@code Lazy<T>} is read, the
+ * tokens of the value are recorded in a {@link TokenBuffer} and only bound to a {@code T} by the first call to
+ * {@link #get()}, so sections of a large document that are never used cost a recording, not a bound object graph.
+ * <p>
+ * Binding errors surface from {@link #get()} rather than from the initial read. Writing an unbound value binds it.
+ *
+ * @author yawkat
+ */
+public final class Lazy<T> implements Supplier<T> {
+    /**
+     * Recorded value, {@code null} once bound. Written after {@link #value} so a {@code null} read here publishes it.
+     */
+    private volatile TokenBuffer tokens;
+    // nullable
+    private TypeAdapterRegistry registry;
+    // nullable
+    private TypeAdapter<T> adapter;
+    private T value;
+
+    Lazy(TokenBuffer tokens, TypeAdapterRegistry registry, TypeAdapter<T> adapter) {
+        this.registry = registry;
+        this.adapter = adapter;
+        this.tokens = tokens;
+    }
+
+    private Lazy(T value) {
+        this.value = value;
+    }
+
+    /**
+     * @return an already bound value, for example to write it.
+     */
+    public static <T> Lazy<T> of(T value) {
+        return new Lazy<>(value);
+    }
+
+    /**
+     * @return the value, binding it first if this is the first access.
+     */
+    @Override
+    public T get() {
+        if (tokens != null) {
+            synchronized (this) {
+                TokenBuffer tokens = this.tokens;
+                if (tokens != null) {
+                    value = adapter.read(new RegistryReaderContext(registry, tokens.reader()));
+                    registry = null;
+                    adapter = null;
+                    this.tokens = null;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return whether the value has been bound yet.
+     */
+    public boolean isBound() {
+        return tokens == null;
+    }
+
+    @Override
+    public String toString() {
+        return isBound() ? "Lazy[" + value + "]" : "Lazy[unbound]";
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import java.lang.reflect.Type;
+
+/**
+ * Adapter that delegates to the adapter of a given type in a registry.
+ * <p>
+ * The registry hands these out as placeholders for types whose adapter is still being created further up the stack,
+ * which breaks the cycle for recursive types. The delegate is filled in once creation completes. If it never is
+ * (because creation failed), the adapter is looked up in the registry on first use instead.
+ *
+ * @author yawkat
+ */
+final class LazyTypeAdapter<T> implements TypeAdapter<T> {
+    private final TypeAdapterRegistry registry;
+    private final Type type;
+
+    /**
+     * Resolved adapter. Racy, but adapters are immutable and lookups always return an equivalent adapter.
+     */
+    private TypeAdapter<T> delegate;
+
+    LazyTypeAdapter(TypeAdapterRegistry registry, Type type) {
+        this.registry = registry;
+        this.type = type;
+    }
+
+    /**
+     * Look up the adapter of a child type while creating an adapter. If the registry has no adapter for the type, a
+     * lazy adapter is returned so the error only surfaces once a value of that type is actually read or written.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> TypeAdapter<T> resolve(TypeAdapterRegistry registry, Type type) {
+        TypeAdapter<T> adapter = (TypeAdapter<T>) registry.findTypeAdapter(type);
+        return adapter == null ? new LazyTypeAdapter<>(registry, type) : adapter;
+    }
+
+    void setDelegate(TypeAdapter<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the adapter this one delegates to, looking it up if necessary.
+     */
+    @SuppressWarnings("unchecked")
+    TypeAdapter<T> resolved() {
+        TypeAdapter<T> delegate = this.delegate;
+        if (delegate == null) {
+            delegate = (TypeAdapter<T>) registry.getTypeAdapter(type);
+            if (delegate == this) {
+                throw new IllegalStateException("Adapter for " + type.getTypeName() + " is still being created");
+            }
+            this.delegate = delegate;
+        }
+        return delegate;
+    }
+
+    @Override
+    public void write(WriterContext context, T obj) {
+        resolved().write(context, obj);
+    }
+
+    @Override
+    public T read(ReaderContext context) {
+        return resolved().read(context);
+    }
+
+    @Override
+    public void writeKey(WriterContext context, T obj) {
+        resolved().writeKey(context, obj);
+    }
+
+    @Override
+    public T readKey(ReaderContext context) {
+        return resolved().readKey(context);
+    }
+}
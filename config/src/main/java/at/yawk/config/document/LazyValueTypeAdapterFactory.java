@@ -0,0 +1,49 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.TokenBuffer;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import lombok.Getter;
+
+/**
+ * Factory for {@link Lazy} properties. Reading records the tokens of the value and leaves binding to the first
+ * {@link Lazy#get()}.
+ *
+ * @author yawkat
+ */
+class LazyValueTypeAdapterFactory implements TypeAdapterFactory {
+    @Getter
+    private static final TypeAdapterFactory instance = new LazyValueTypeAdapterFactory();
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(Type type) {
+        return createTypeAdapter(TypeAdapterRegistryImpl.getDefault(), type);
+    }
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(TypeAdapterRegistry registry, Type type) {
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == Lazy.class) {
+            Type valueType = ((ParameterizedType) type).getActualTypeArguments()[0];
+            TypeAdapter<Object> valueAdapter = LazyTypeAdapter.resolve(registry, valueType);
+            return new TypeAdapter<Lazy<Object>>() {
+                @Override
+                public void write(WriterContext context, Lazy<Object> obj) {
+                    valueAdapter.write(context, obj.get());
+                }
+
+                @Override
+                public Lazy<Object> read(ReaderContext context) {
+                    TokenBuffer tokens = TokenBuffer.capture(context);
+                    return new Lazy<>(tokens, registry, valueAdapter);
+                }
+            };
+        }
+        return null;
+    }
+}
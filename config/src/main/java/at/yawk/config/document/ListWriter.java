@@ -0,0 +1,48 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writer for a list whose elements are appended over time. Each element is written as soon as it is added, so the
+ * list never has to be held in memory. {@link #close()} ends the list.
+ *
+ * @author yawkat
+ */
+public interface ListWriter<T> extends AutoCloseable {
+    ListWriter<T> add(T element);
+
+    default ListWriter<T> addAll(Iterator<? extends T> elements) {
+        while (elements.hasNext()) {
+            add(elements.next());
+        }
+        return this;
+    }
+
+    default ListWriter<T> addAll(Iterable<? extends T> elements) {
+        return addAll(elements.iterator());
+    }
+
+    default ListWriter<T> addAll(Stream<? extends T> elements) {
+        return addAll(elements.iterator());
+    }
+
+    /**
+     * Pass the elements written so far on to the target.
+     *
+     * @see at.yawk.config.file.ObjectWriter#flush()
+     */
+    ListWriter<T> flush();
+
+    /**
+     * End the list. Further elements can not be added.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,61 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+/**
+ * {@link TypeAdapter} for {@code long} values that can also be used without boxing. {@link WriterContext#writeLong}
+ * and {@link ReaderContext#readLong} use the primitive methods when the registered adapter implements this interface.
+ *
+ * @author yawkat
+ */
+public interface LongTypeAdapter extends TypeAdapter<Long> {
+    void writeLong(WriterContext context, long value);
+
+    long readLong(ReaderContext context);
+
+    @Override
+    default void write(WriterContext context, Long obj) {
+        writeLong(context, obj);
+    }
+
+    @Override
+    default Long read(ReaderContext context) {
+        return readLong(context);
+    }
+
+    /**
+     * Use the given adapter for {@code long} values. If it is not a {@link LongTypeAdapter}, values are boxed.
+     */
+    @SuppressWarnings("unchecked")
+    static LongTypeAdapter of(TypeAdapter<?> adapter) {
+        if (adapter instanceof LongTypeAdapter) {
+            return (LongTypeAdapter) adapter;
+        }
+        TypeAdapter<Long> boxed = (TypeAdapter<Long>) adapter;
+        return new LongTypeAdapter() {
+            @Override
+            public void writeLong(WriterContext context, long value) {
+                boxed.write(context, value);
+            }
+
+            @Override
+            public long readLong(ReaderContext context) {
+                return boxed.read(context);
+            }
+
+            @Override
+            public void writeKey(WriterContext context, Long obj) {
+                boxed.writeKey(context, obj);
+            }
+
+            @Override
+            public Long readKey(ReaderContext context) {
+                return boxed.readKey(context);
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.TokenType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * @author yawkat
+ */
+class MapTypeAdapterFactory implements TypeAdapterFactory {
+    @Getter
+    private static final TypeAdapterFactory instance = new MapTypeAdapterFactory();
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(Type type) {
+        return createTypeAdapter(TypeAdapterRegistryImpl.getDefault(), type);
+    }
+
+    @Override
+    public TypeAdapter<?> createTypeAdapter(TypeAdapterRegistry registry, Type type) {
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == Map.class) {
+            Type[] ta = ((ParameterizedType) type).getActualTypeArguments();
+            Type keyType = ta[0];
+            Type valueType = ta[1];
+            TypeAdapter<Object> keyAdapter = LazyTypeAdapter.resolve(registry, keyType);
+            TypeAdapter<Object> valueAdapter = LazyTypeAdapter.resolve(registry, valueType);
+            return new RebindingTypeAdapter<Map<?, ?>>() {
+                @Override
+                public void write(WriterContext context, Map<?, ?> obj) {
+                    context.enterObject();
+                    obj.forEach((k, v) -> {
+                        keyAdapter.writeKey(context, k);
+                        valueAdapter.write(context, v);
+                    });
+                    context.exitObject();
+                }
+
+                @Override
+                public Map<?, ?> read(ReaderContext context) {
+                    Map<Object, Object> map = new LinkedHashMap<>();
+                    context.enterObject();
+                    while (context.peek() != TokenType.EXIT_OBJECT) {
+                        Object key = keyAdapter.readKey(context);
+                        Object value = valueAdapter.read(context);
+                        map.put(key, value);
+                    }
+                    context.exitObject();
+                    return map;
+                }
+
+                @Override
+                public Map<?, ?> reread(Rebinder rebinder, Map<?, ?> previous, int previousPosition) {
+                    Map<String, Integer> previousEntries = rebinder.previousEntries(previousPosition);
+                    // keys may only be paired by their text if every key of the previous document made it into the map
+                    boolean paired = previous.size() == previousEntries.size();
+                    ReaderContext context = rebinder.getContext();
+                    Map<Object, Object> map = new LinkedHashMap<>();
+                    context.enterObject();
+                    while (context.peek() != TokenType.EXIT_OBJECT) {
+                        Integer previousEntry = paired ? previousEntries.get(rebinder.nextKey()) : null;
+                        Object key = keyAdapter.readKey(context);
+                        Object value = previousEntry == null ?
+                                valueAdapter.read(context) :
+                                rebinder.read(valueAdapter, previous.get(key), previousEntry);
+                        map.put(key, value);
+                    }
+                    context.exitObject();
+                    return map;
+                }
+            };
+        }
+        return null;
+    }
+}
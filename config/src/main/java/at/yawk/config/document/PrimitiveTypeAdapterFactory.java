@@ -37,14 +37,14 @@ class PrimitiveTypeAdapterFactory implements TypeAdapterFactory {
             return context.key();
         }
     };
-    private static final TypeAdapter<Integer> INT_TYPE_ADAPTER = new TypeAdapter<Integer>() {
+    private static final IntTypeAdapter INT_TYPE_ADAPTER = new IntTypeAdapter() {
         @Override
-        public void write(WriterContext context, Integer obj) {
-            context.item(obj);
+        public void writeInt(WriterContext context, int value) {
+            context.item(value);
         }
 
         @Override
-        public Integer read(ReaderContext context) {
+        public int readInt(ReaderContext context) {
             return context.intValue();
         }
 
@@ -58,14 +58,14 @@ class PrimitiveTypeAdapterFactory implements TypeAdapterFactory {
             return Integer.valueOf(context.key());
         }
     };
-    private static final TypeAdapter<Long> LONG_TYPE_ADAPTER = new TypeAdapter<Long>() {
+    private static final LongTypeAdapter LONG_TYPE_ADAPTER = new LongTypeAdapter() {
         @Override
-        public void write(WriterContext context, Long obj) {
-            context.item(obj);
+        public void writeLong(WriterContext context, long value) {
+            context.item(value);
         }
 
         @Override
-        public Long read(ReaderContext context) {
+        public long readLong(ReaderContext context) {
             return context.longValue();
         }
 
@@ -79,14 +79,14 @@ class PrimitiveTypeAdapterFactory implements TypeAdapterFactory {
             return Long.valueOf(context.key());
         }
     };
-    private static final TypeAdapter<Float> FLOAT_TYPE_ADAPTER = new TypeAdapter<Float>() {
+    private static final FloatTypeAdapter FLOAT_TYPE_ADAPTER = new FloatTypeAdapter() {
         @Override
-        public void write(WriterContext context, Float obj) {
-            context.item(obj);
+        public void writeFloat(WriterContext context, float value) {
+            context.item(value);
         }
 
         @Override
-        public Float read(ReaderContext context) {
+        public float readFloat(ReaderContext context) {
             return context.floatValue();
         }
 
@@ -100,14 +100,14 @@ class PrimitiveTypeAdapterFactory implements TypeAdapterFactory {
             return Float.valueOf(context.key());
         }
     };
-    private static final TypeAdapter<Double> DOUBLE_TYPE_ADAPTER = new TypeAdapter<Double>() {
+    private static final DoubleTypeAdapter DOUBLE_TYPE_ADAPTER = new DoubleTypeAdapter() {
         @Override
-        public void write(WriterContext context, Double obj) {
-            context.item(obj);
+        public void writeDouble(WriterContext context, double value) {
+            context.item(value);
         }
 
         @Override
-        public Double read(ReaderContext context) {
+        public double readDouble(ReaderContext context) {
             return context.doubleValue();
         }
 
@@ -121,14 +121,14 @@ class PrimitiveTypeAdapterFactory implements TypeAdapterFactory {
             return Double.valueOf(context.key());
         }
     };
-    private static final TypeAdapter<Boolean> BOOLEAN_TYPE_ADAPTER = new TypeAdapter<Boolean>() {
+    private static final BooleanTypeAdapter BOOLEAN_TYPE_ADAPTER = new BooleanTypeAdapter() {
         @Override
-        public void write(WriterContext context, Boolean obj) {
-            context.item(obj);
+        public void writeBoolean(WriterContext context, boolean value) {
+            context.item(value);
         }
 
         @Override
-        public Boolean read(ReaderContext context) {
+        public boolean readBoolean(ReaderContext context) {
             return context.booleanValue();
         }
 
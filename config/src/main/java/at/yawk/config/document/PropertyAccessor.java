@@ -0,0 +1,330 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.function.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves the value of one side (getter or setter) of a {@link BeanProperty} between a bean and a context, using the
+ * type adapter of the property that was resolved when the accessor was created. Properties of primitive type get
+ * specialized accessors that use the primitive adapter methods, so their values are never boxed.
+ *
+ * @author yawkat
+ */
+@Slf4j
+abstract class PropertyAccessor {
+    /**
+     * @param type the resolved return type of the getter.
+     */
+    static PropertyAccessor forGetter(AccessorStrategy strategy, Method getter, TypeAdapterRegistry registry,
+                                      Type type) {
+        Class<?> rawType = getter.getReturnType();
+        if (rawType == int.class) {
+            return new IntAccessor(strategy.intGetter(getter), null, IntTypeAdapter.of(registry.getTypeAdapter(type)));
+        }
+        if (rawType == long.class) {
+            return new LongAccessor(
+                    strategy.longGetter(getter), null, LongTypeAdapter.of(registry.getTypeAdapter(type)));
+        }
+        if (rawType == float.class) {
+            return new FloatAccessor(
+                    strategy.doubleGetter(getter), null, FloatTypeAdapter.of(registry.getTypeAdapter(type)));
+        }
+        if (rawType == double.class) {
+            return new DoubleAccessor(
+                    strategy.doubleGetter(getter), null, DoubleTypeAdapter.of(registry.getTypeAdapter(type)));
+        }
+        if (rawType == boolean.class) {
+            return new BooleanAccessor(
+                    strategy.intGetter(getter), null, BooleanTypeAdapter.of(registry.getTypeAdapter(type)));
+        }
+        return new ObjectAccessor(strategy.getter(getter), null, LazyTypeAdapter.resolve(registry, type));
+    }
+
+    /**
+     * @param type the resolved parameter type of the setter.
+     */
+    static PropertyAccessor forSetter(AccessorStrategy strategy, Method setter, TypeAdapterRegistry registry,
+                                      Type type) {
+        Class<?> rawType = setter.getParameterTypes()[0];
+        if (rawType == int.class) {
+            return new IntAccessor(null, strategy.intSetter(setter), IntTypeAdapter.of(registry.getTypeAdapter(type)));
+        }
+        if (rawType == long.class) {
+            return new LongAccessor(
+                    null, strategy.longSetter(setter), LongTypeAdapter.of(registry.getTypeAdapter(type)));
+        }
+        if (rawType == float.class) {
+            return new FloatAccessor(
+                    null, strategy.doubleSetter(setter), FloatTypeAdapter.of(registry.getTypeAdapter(type)));
+        }
+        if (rawType == double.class) {
+            return new DoubleAccessor(
+                    null, strategy.doubleSetter(setter), DoubleTypeAdapter.of(registry.getTypeAdapter(type)));
+        }
+        if (rawType == boolean.class) {
+            return new BooleanAccessor(
+                    null, strategy.intSetter(setter), BooleanTypeAdapter.of(registry.getTypeAdapter(type)));
+        }
+        return new ObjectAccessor(null, strategy.setter(setter), LazyTypeAdapter.resolve(registry, type));
+    }
+
+    /**
+     * Get the property value from the given bean and write its key and value. Nothing is written if the value is
+     * {@code null} or the getter fails.
+     */
+    abstract void write(WriterContext context, BeanProperty property, Object bean);
+
+    /**
+     * Read a property value and set it on the given bean.
+     */
+    abstract void read(ReaderContext context, BeanProperty property, Object bean);
+
+    /**
+     * Read a property value and set it on the given bean, reusing the value of the previous bean if its document did
+     * not change. Primitive values are simply read again, which is cheaper than comparing them.
+     *
+     * @param previousPosition the position of the previous value in the previous document.
+     */
+    void reread(Rebinder rebinder, BeanProperty property, Object bean, Object previousBean, int previousPosition) {
+        read(rebinder.getContext(), property, bean);
+    }
+
+    /**
+     * Get the value of an object property from the given bean.
+     *
+     * @return the value, or {@code null} if this is not an object getter or the getter fails.
+     */
+    // nullable
+    Object getObject(Object bean) {
+        return null;
+    }
+
+    private static void writeKey(WriterContext context, BeanProperty property) {
+        if (property.getDescription() != null) {
+            context.comment(property.getDescription());
+        }
+        context.key(property.getName());
+    }
+
+    private static void getterFailed(RuntimeException e) {
+        log.warn("Error while getting bean property", e);
+    }
+
+    private static void setterFailed(RuntimeException e) {
+        log.warn("Error while setting bean property", e);
+    }
+
+    @RequiredArgsConstructor
+    private static final class ObjectAccessor extends PropertyAccessor {
+        private final Function<Object, Object> getter;
+        private final BiConsumer<Object, Object> setter;
+        private final TypeAdapter<Object> adapter;
+
+        @Override
+        void write(WriterContext context, BeanProperty property, Object bean) {
+            Object value;
+            try {
+                value = getter.apply(bean);
+            } catch (RuntimeException e) {
+                getterFailed(e);
+                return;
+            }
+            if (value != null) {
+                writeKey(context, property);
+                adapter.write(context, value);
+            }
+        }
+
+        @Override
+        void read(ReaderContext context, BeanProperty property, Object bean) {
+            Object value = adapter.read(context);
+            try {
+                setter.accept(bean, value);
+            } catch (RuntimeException e) {
+                setterFailed(e);
+            }
+        }
+
+        @Override
+        void reread(Rebinder rebinder, BeanProperty property, Object bean, Object previousBean,
+                    int previousPosition) {
+            PropertyAccessor getAccessor = property.getGetAccessor();
+            Object previous = getAccessor == null ? null : getAccessor.getObject(previousBean);
+            Object value = rebinder.read(adapter, previous, previousPosition);
+            try {
+                setter.accept(bean, value);
+            } catch (RuntimeException e) {
+                setterFailed(e);
+            }
+        }
+
+        @Override
+        Object getObject(Object bean) {
+            try {
+                return getter.apply(bean);
+            } catch (RuntimeException e) {
+                getterFailed(e);
+                return null;
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class IntAccessor extends PropertyAccessor {
+        private final ToIntFunction<Object> getter;
+        private final ObjIntConsumer<Object> setter;
+        private final IntTypeAdapter adapter;
+
+        @Override
+        void write(WriterContext context, BeanProperty property, Object bean) {
+            int value;
+            try {
+                value = getter.applyAsInt(bean);
+            } catch (RuntimeException e) {
+                getterFailed(e);
+                return;
+            }
+            writeKey(context, property);
+            adapter.writeInt(context, value);
+        }
+
+        @Override
+        void read(ReaderContext context, BeanProperty property, Object bean) {
+            int value = adapter.readInt(context);
+            try {
+                setter.accept(bean, value);
+            } catch (RuntimeException e) {
+                setterFailed(e);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class LongAccessor extends PropertyAccessor {
+        private final ToLongFunction<Object> getter;
+        private final ObjLongConsumer<Object> setter;
+        private final LongTypeAdapter adapter;
+
+        @Override
+        void write(WriterContext context, BeanProperty property, Object bean) {
+            long value;
+            try {
+                value = getter.applyAsLong(bean);
+            } catch (RuntimeException e) {
+                getterFailed(e);
+                return;
+            }
+            writeKey(context, property);
+            adapter.writeLong(context, value);
+        }
+
+        @Override
+        void read(ReaderContext context, BeanProperty property, Object bean) {
+            long value = adapter.readLong(context);
+            try {
+                setter.accept(bean, value);
+            } catch (RuntimeException e) {
+                setterFailed(e);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class FloatAccessor extends PropertyAccessor {
+        private final ToDoubleFunction<Object> getter;
+        private final ObjDoubleConsumer<Object> setter;
+        private final FloatTypeAdapter adapter;
+
+        @Override
+        void write(WriterContext context, BeanProperty property, Object bean) {
+            float value;
+            try {
+                value = (float) getter.applyAsDouble(bean);
+            } catch (RuntimeException e) {
+                getterFailed(e);
+                return;
+            }
+            writeKey(context, property);
+            adapter.writeFloat(context, value);
+        }
+
+        @Override
+        void read(ReaderContext context, BeanProperty property, Object bean) {
+            float value = adapter.readFloat(context);
+            try {
+                setter.accept(bean, value);
+            } catch (RuntimeException e) {
+                setterFailed(e);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class DoubleAccessor extends PropertyAccessor {
+        private final ToDoubleFunction<Object> getter;
+        private final ObjDoubleConsumer<Object> setter;
+        private final DoubleTypeAdapter adapter;
+
+        @Override
+        void write(WriterContext context, BeanProperty property, Object bean) {
+            double value;
+            try {
+                value = getter.applyAsDouble(bean);
+            } catch (RuntimeException e) {
+                getterFailed(e);
+                return;
+            }
+            writeKey(context, property);
+            adapter.writeDouble(context, value);
+        }
+
+        @Override
+        void read(ReaderContext context, BeanProperty property, Object bean) {
+            double value = adapter.readDouble(context);
+            try {
+                setter.accept(bean, value);
+            } catch (RuntimeException e) {
+                setterFailed(e);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class BooleanAccessor extends PropertyAccessor {
+        private final ToIntFunction<Object> getter;
+        private final ObjIntConsumer<Object> setter;
+        private final BooleanTypeAdapter adapter;
+
+        @Override
+        void write(WriterContext context, BeanProperty property, Object bean) {
+            boolean value;
+            try {
+                value = getter.applyAsInt(bean) != 0;
+            } catch (RuntimeException e) {
+                getterFailed(e);
+                return;
+            }
+            writeKey(context, property);
+            adapter.writeBoolean(context, value);
+        }
+
+        @Override
+        void read(ReaderContext context, BeanProperty property, Object bean) {
+            boolean value = adapter.readBoolean(context);
+            try {
+                setter.accept(bean, value ? 1 : 0);
+            } catch (RuntimeException e) {
+                setterFailed(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.ObjectReader;
+import java.lang.reflect.Type;
+
+/**
+ * @author yawkat
+ */
+public interface ReaderContext extends ObjectReader {
+    Object readObject(Type type);
+
+    Object readObjectKey(Type type);
+
+    /**
+     * Read a primitive value of the given declared type. If the adapter for that type is an {@link IntTypeAdapter}
+     * the value is returned without boxing. Defaults to unboxing the result of {@link #readObject(Type)}.
+     */
+    default int readInt(Type type) {
+        return (Integer) readObject(type);
+    }
+
+    default long readLong(Type type) {
+        return (Long) readObject(type);
+    }
+
+    default float readFloat(Type type) {
+        return (Float) readObject(type);
+    }
+
+    default double readDouble(Type type) {
+        return (Double) readObject(type);
+    }
+
+    default boolean readBoolean(Type type) {
+        return (Boolean) readObject(type);
+    }
+}
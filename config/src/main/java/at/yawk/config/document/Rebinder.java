@@ -0,0 +1,98 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.TokenBuffer;
+import at.yawk.config.file.TokenType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reads a document again after it changed, reusing the objects bound from the parts of the previous document that
+ * are still the same. Values are compared by their {@link TokenBuffer#hash(int) structural hash} first and token by
+ * token only if the hashes match, so unchanged subtrees are skipped without being bound.
+ *
+ * @author yawkat
+ */
+@RequiredArgsConstructor
+final class Rebinder {
+    /**
+     * Context over {@link #reader}.
+     */
+    @Getter private final ReaderContext context;
+    private final TokenBuffer.Replay reader;
+    private final TokenBuffer current;
+    private final TokenBuffer previous;
+
+    /**
+     * Read the next value, reusing the given previous value if its document did not change.
+     *
+     * @param previousValue    the value bound from the previous document, or {@code null} if there is none.
+     * @param previousPosition the position of the previous value in the previous document, or {@code -1}.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T read(TypeAdapter<T> adapter, T previousValue, int previousPosition) {
+        if (previousValue != null && previousPosition >= 0) {
+            int position = reader.position();
+            if (current.valueEquals(position, previous, previousPosition)) {
+                reader.skipDeep();
+                return previousValue;
+            }
+            if (adapter instanceof LazyTypeAdapter) {
+                adapter = ((LazyTypeAdapter<T>) adapter).resolved();
+            }
+            if (adapter instanceof RebindingTypeAdapter &&
+                current.type(position) == previous.type(previousPosition)) {
+                return ((RebindingTypeAdapter<T>) adapter).reread(this, previousValue, previousPosition);
+            }
+        }
+        return adapter.read(context);
+    }
+
+    /**
+     * @return the next key of the current document, without consuming it.
+     */
+    String nextKey() {
+        return current.key(reader.position());
+    }
+
+    /**
+     * @return the positions of the values of the object at the given position of the previous document, by key. If
+     * a key is repeated, the last value wins.
+     */
+    Map<String, Integer> previousEntries(int objectPosition) {
+        Map<String, Integer> entries = new HashMap<>();
+        int position = objectPosition + 1;
+        while (previous.type(position) != TokenType.EXIT_OBJECT) {
+            String key = previous.key(position);
+            position = previous.end(position);
+            entries.put(key, position);
+            position = previous.end(position);
+        }
+        return entries;
+    }
+
+    /**
+     * @return the positions of the elements of the list at the given position of the previous document.
+     */
+    int[] previousElements(int listPosition) {
+        int[] elements = new int[8];
+        int count = 0;
+        int position = listPosition + 1;
+        while (previous.type(position) != TokenType.EXIT_LIST) {
+            if (count == elements.length) {
+                elements = Arrays.copyOf(elements, count * 2);
+            }
+            elements[count++] = position;
+            position = previous.end(position);
+        }
+        return Arrays.copyOf(elements, count);
+    }
+}
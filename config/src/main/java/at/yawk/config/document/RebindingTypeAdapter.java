@@ -0,0 +1,25 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+/**
+ * Adapter for container types that can read a changed value while reusing the children of the previous value that
+ * did not change.
+ *
+ * @author yawkat
+ */
+interface RebindingTypeAdapter<T> extends TypeAdapter<T> {
+    /**
+     * Read the next value of the rebinder context. Children are read through
+     * {@link Rebinder#read(TypeAdapter, Object, int)} with their previous value and position where known.
+     *
+     * @param previous         the value bound from the previous document, not {@code null}.
+     * @param previousPosition the position of that value in the previous document. It is of the same token type as
+     *                         the next value, but not equal to it.
+     */
+    T reread(Rebinder rebinder, T previous, int previousPosition);
+}
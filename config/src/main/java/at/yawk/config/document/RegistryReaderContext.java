@@ -0,0 +1,85 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.ObjectReader;
+import java.lang.reflect.Type;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+
+/**
+ * Reader context that looks up adapters in a registry.
+ *
+ * @author yawkat
+ */
+@RequiredArgsConstructor
+class RegistryReaderContext implements ReaderContext {
+    private final TypeAdapterRegistry registry;
+    @Delegate private final ObjectReader reader;
+
+    @Override
+    public Object readObject(Type type) {
+        TypeAdapter adapter = registry.getTypeAdapter(type);
+        return adapter.read(this);
+    }
+
+    @Override
+    public Object readObjectKey(Type type) {
+        TypeAdapter adapter = registry.getTypeAdapter(type);
+        return adapter.readKey(this);
+    }
+
+    @Override
+    public int readInt(Type type) {
+        TypeAdapter adapter = registry.getTypeAdapter(type);
+        if (adapter instanceof IntTypeAdapter) {
+            return ((IntTypeAdapter) adapter).readInt(this);
+        } else {
+            return (Integer) adapter.read(this);
+        }
+    }
+
+    @Override
+    public long readLong(Type type) {
+        TypeAdapter adapter = registry.getTypeAdapter(type);
+        if (adapter instanceof LongTypeAdapter) {
+            return ((LongTypeAdapter) adapter).readLong(this);
+        } else {
+            return (Long) adapter.read(this);
+        }
+    }
+
+    @Override
+    public float readFloat(Type type) {
+        TypeAdapter adapter = registry.getTypeAdapter(type);
+        if (adapter instanceof FloatTypeAdapter) {
+            return ((FloatTypeAdapter) adapter).readFloat(this);
+        } else {
+            return (Float) adapter.read(this);
+        }
+    }
+
+    @Override
+    public double readDouble(Type type) {
+        TypeAdapter adapter = registry.getTypeAdapter(type);
+        if (adapter instanceof DoubleTypeAdapter) {
+            return ((DoubleTypeAdapter) adapter).readDouble(this);
+        } else {
+            return (Double) adapter.read(this);
+        }
+    }
+
+    @Override
+    public boolean readBoolean(Type type) {
+        TypeAdapter adapter = registry.getTypeAdapter(type);
+        if (adapter instanceof BooleanTypeAdapter) {
+            return ((BooleanTypeAdapter) adapter).readBoolean(this);
+        } else {
+            return (Boolean) adapter.read(this);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import java.lang.reflect.Type;
+
+/**
+ * @author yawkat
+ */
+public interface TypeAdapterFactory {
+    /**
+     * Create an adapter for the given type outside of a registry. Factories for container types look up the adapters
+     * of their children in a registry with the default configuration.
+     */
+    // nullable
+    TypeAdapter<?> createTypeAdapter(Type type);
+
+    /**
+     * Create an adapter for the given type. This is what registries call. Factories for container types override it
+     * to look up the adapters of their children from the given registry once, instead of on every value. Defaults to
+     * {@link #createTypeAdapter(Type)}.
+     */
+    // nullable
+    default TypeAdapter<?> createTypeAdapter(TypeAdapterRegistry registry, Type type) {
+        return createTypeAdapter(type);
+    }
+}
@@ -20,5 +20,17 @@ public interface TypeAdapterRegistry {
 
     TypeAdapterRegistry registerAdapterFactory(TypeAdapterFactory factory);
 
+    /**
+     * @throws UnsupportedOperationException if no factory supports the given type.
+     */
     TypeAdapter<?> getTypeAdapter(Type type);
+
+    /**
+     * @return the adapter for the given type, or {@code null} if no factory supports it. The default implementation
+     * can't tell unsupported types apart and delegates to {@link #getTypeAdapter(Type)}.
+     */
+    // nullable
+    default TypeAdapter<?> findTypeAdapter(Type type) {
+        return getTypeAdapter(type);
+    }
 }
@@ -0,0 +1,261 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import com.google.common.collect.MapMaker;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author yawkat
+ */
+class TypeAdapterRegistryImpl implements TypeAdapterRegistry {
+    private final GeneratedBeanTypeAdapterFactory generatedBeanTypeAdapterFactory =
+            new GeneratedBeanTypeAdapterFactory();
+    private final BeanTypeAdapterFactory beanTypeAdapterFactory = new BeanTypeAdapterFactory();
+
+    private final List<TypeAdapterFactory> factories = new ArrayList<>(Arrays.asList(
+            // gson first because it may get detected by other factories
+            GsonWrapperTypeAdapterFactory.getInstance(),
+            FastutilTypeAdapterFactory.getInstance(),
+            LazyValueTypeAdapterFactory.getInstance(),
+
+            CollectionTypeAdapterFactory.getInstance(),
+            ArrayTypeAdapterFactory.getInstance(),
+            MapTypeAdapterFactory.getInstance(),
+            PrimitiveTypeAdapterFactory.getInstance(),
+            EnumTypeAdapterFactory.getInstance(),
+            IndexedTypeAdapterFactory.getInstance(),
+            generatedBeanTypeAdapterFactory,
+            beanTypeAdapterFactory,
+            AnnotatedTypeAdapterFactory.getInstance()
+    ));
+
+    /*
+     * Lookup caches. Lookups never lock: plain classes go through a ClassValue, other types are first looked up by
+     * identity (callers usually pass the same type instance every time) and then by their canonical form (see
+     * Types#canonicalize), which caches its hash code. The caches are replaced rather than cleared when the factory
+     * configuration changes, since ClassValue can't be cleared.
+     *
+     * The ClassValue only holds weak references: its values are stored in the classes themselves, and adapters
+     * usually reference this registry, so strong values would keep the registry alive as long as, for example,
+     * String.class. The strong references live in classAdapters instead.
+     */
+
+    private volatile ClassValue<WeakReference<TypeAdapter<?>>> classCache = newClassCache();
+    private volatile ConcurrentMap<Class<?>, TypeAdapter<?>> classAdapters = new ConcurrentHashMap<>();
+    private volatile ConcurrentMap<Type, TypeAdapter<?>> identityCache = newIdentityCache();
+    private volatile ConcurrentMap<Type, TypeAdapter<?>> canonicalCache = new ConcurrentHashMap<>();
+
+    /*
+     * Adapter creation. Factories resolve child adapters eagerly, so creating the adapter of a recursive type asks for
+     * that same adapter again further down the stack. Types being created on the current thread are tracked in
+     * creating, and lookups for them return a placeholder that delegates to the real adapter once it is done.
+     *
+     * Creation never blocks on other threads: if two threads create the same adapter concurrently, both finish and the
+     * first one to be published wins. Waiting for each other could deadlock when the threads start from different
+     * types of the same cycle.
+     */
+
+    private final ThreadLocal<Map<Type, LazyTypeAdapter<?>>> creating = ThreadLocal.withInitial(HashMap::new);
+    /**
+     * Number of adapters being created on any thread, so lookups can skip the thread local check in the common case.
+     */
+    private final AtomicInteger pendingCreations = new AtomicInteger();
+
+    /**
+     * Registry with the default configuration, used by factories that are called outside of a registry.
+     */
+    static TypeAdapterRegistry getDefault() {
+        return DefaultHolder.DEFAULT;
+    }
+
+    /**
+     * Set the accessor strategy used by the built-in bean adapters. Already created adapters are discarded.
+     */
+    void setAccessorStrategy(AccessorStrategy accessorStrategy) {
+        beanTypeAdapterFactory.setAccessorStrategy(Objects.requireNonNull(accessorStrategy));
+        invalidate();
+    }
+
+    /**
+     * Enable or disable runtime generation of bean adapters. Already created adapters are discarded.
+     */
+    void setGenerateBeanAdapters(boolean generateBeanAdapters) {
+        generatedBeanTypeAdapterFactory.setEnabled(generateBeanAdapters);
+        invalidate();
+    }
+
+    @Override
+    public TypeAdapterRegistry clear() {
+        factories.clear();
+        invalidate();
+        return this;
+    }
+
+    @Override
+    public <T> TypeAdapterRegistry registerAdapter(Class<T> type, TypeAdapter<T> adapter) {
+        return registerAdapterFactory(sub -> {
+            if (sub instanceof ParameterizedType) {
+                sub = ((ParameterizedType) sub).getRawType();
+            }
+            if (sub instanceof Class && type.isAssignableFrom((Class<?>) sub)) {
+                return adapter;
+            }
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public TypeAdapterRegistry registerAdapter(TypeAdapter<?> adapter) {
+        for (Type gitf : adapter.getClass().getGenericInterfaces()) {
+            if (gitf instanceof ParameterizedType &&
+                ((ParameterizedType) gitf).getRawType() == TypeAdapter.class) {
+                return registerAdapter((Class) ((ParameterizedType) gitf).getActualTypeArguments()[0], adapter);
+            }
+        }
+        throw new IllegalArgumentException("Must declare generic type");
+    }
+
+    @Override
+    public TypeAdapterRegistry registerAdapterFactory(TypeAdapterFactory factory) {
+        factories.add(Objects.requireNonNull(factory));
+        invalidate();
+        return this;
+    }
+
+    @Override
+    public TypeAdapter<?> getTypeAdapter(Type type) {
+        TypeAdapter<?> adapter = findTypeAdapter(type);
+        if (adapter == null) {
+            throw new UnsupportedOperationException("Unsupported type " + type.getTypeName());
+        }
+        return adapter;
+    }
+
+    @Override
+    public TypeAdapter<?> findTypeAdapter(Type type) {
+        if (pendingCreations.get() != 0) {
+            Map<Type, LazyTypeAdapter<?>> creating = this.creating.get();
+            if (!creating.isEmpty()) {
+                LazyTypeAdapter<?> placeholder = creating.get(Types.canonicalize(Objects.requireNonNull(type)));
+                if (placeholder != null) {
+                    return placeholder;
+                }
+            }
+        }
+        if (type instanceof Class) {
+            return getClassTypeAdapter((Class<?>) type);
+        }
+        ConcurrentMap<Type, TypeAdapter<?>> identityCache = this.identityCache;
+        TypeAdapter<?> adapter = identityCache.get(Objects.requireNonNull(type));
+        if (adapter == null) {
+            Type canonical = Types.canonicalize(type);
+            if (canonical instanceof Class) {
+                adapter = getClassTypeAdapter((Class<?>) canonical);
+            } else {
+                adapter = getOrCreate(canonicalCache, canonical);
+            }
+            if (adapter != null) {
+                identityCache.put(type, adapter);
+            }
+        }
+        return adapter;
+    }
+
+    // nullable
+    private TypeAdapter<?> getClassTypeAdapter(Class<?> type) {
+        TypeAdapter<?> adapter = classCache.get(type).get();
+        if (adapter == null) {
+            // happens for unsupported types, and if the cache was replaced concurrently
+            adapter = getOrCreate(classAdapters, type);
+        }
+        return adapter;
+    }
+
+    /**
+     * Get the adapter for the given type from the given cache, creating and adding it if it isn't present. Adapters
+     * are created outside of the map so factories may look up other adapters. Unsupported types are not cached.
+     */
+    // nullable
+    private <K extends Type> TypeAdapter<?> getOrCreate(ConcurrentMap<K, TypeAdapter<?>> cache, K type) {
+        TypeAdapter<?> adapter = cache.get(type);
+        if (adapter == null) {
+            adapter = createTypeAdapter(type);
+            if (adapter == null) {
+                return null;
+            }
+            TypeAdapter<?> existing = cache.putIfAbsent(type, adapter);
+            if (existing != null) {
+                adapter = existing;
+            }
+        }
+        return adapter;
+    }
+
+    /**
+     * @param type the canonical type.
+     * @return the adapter, or {@code null} if no factory supports the type.
+     */
+    // nullable
+    @SuppressWarnings("unchecked")
+    private TypeAdapter<?> createTypeAdapter(Type type) {
+        Map<Type, LazyTypeAdapter<?>> creating = this.creating.get();
+        LazyTypeAdapter<Object> placeholder = new LazyTypeAdapter<>(this, type);
+        creating.put(type, placeholder);
+        pendingCreations.incrementAndGet();
+        try {
+            for (TypeAdapterFactory factory : factories) {
+                TypeAdapter<?> adapter = factory.createTypeAdapter(this, type);
+                if (adapter != null) {
+                    placeholder.setDelegate((TypeAdapter<Object>) adapter);
+                    return adapter;
+                }
+            }
+            return null;
+        } finally {
+            pendingCreations.decrementAndGet();
+            creating.remove(type);
+        }
+    }
+
+    /**
+     * Discard all cached adapters.
+     */
+    private void invalidate() {
+        classCache = newClassCache();
+        classAdapters = new ConcurrentHashMap<>();
+        identityCache = newIdentityCache();
+        canonicalCache = new ConcurrentHashMap<>();
+    }
+
+    private ClassValue<WeakReference<TypeAdapter<?>>> newClassCache() {
+        return new ClassValue<WeakReference<TypeAdapter<?>>>() {
+            @Override
+            protected WeakReference<TypeAdapter<?>> computeValue(Class<?> type) {
+                return new WeakReference<>(getOrCreate(classAdapters, type));
+            }
+        };
+    }
+
+    /**
+     * Weak identity-keyed map, so generated type instances don't accumulate.
+     */
+    private static ConcurrentMap<Type, TypeAdapter<?>> newIdentityCache() {
+        return new MapMaker().weakKeys().makeMap();
+    }
+
+    private static final class DefaultHolder {
+        static final TypeAdapterRegistry DEFAULT = new TypeAdapterRegistryImpl();
+    }
+}
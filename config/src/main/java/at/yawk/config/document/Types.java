@@ -0,0 +1,157 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Factory methods for generic {@link Type} instances. The returned types are equal to (and have the same hash code as)
+ * the types returned by the reflection API, so they can be used as {@link TypeAdapterRegistry} keys.
+ *
+ * @author yawkat
+ */
+public final class Types {
+    private Types() {}
+
+    public static ParameterizedType parameterizedType(Class<?> rawType, Type... arguments) {
+        if (rawType.getTypeParameters().length != arguments.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + rawType.getTypeParameters().length + " type arguments for " + rawType.getName());
+        }
+        return new ParameterizedTypeImpl(rawType.getDeclaringClass(), rawType, arguments.clone());
+    }
+
+    public static GenericArrayType arrayType(Type componentType) {
+        return new GenericArrayTypeImpl(Objects.requireNonNull(componentType));
+    }
+
+    /**
+     * Return a type equal to the given one that is cheap to hash and compare. Parameterized and generic array types
+     * are rebuilt from the implementations in this class, which cache their hash code. Generic arrays of plain classes
+     * become the array class.
+     */
+    static Type canonicalize(Type type) {
+        if (type instanceof Class || type instanceof ParameterizedTypeImpl || type instanceof GenericArrayTypeImpl) {
+            return type;
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = canonicalize(arguments[i]);
+            }
+            Type ownerType = parameterizedType.getOwnerType();
+            return new ParameterizedTypeImpl(
+                    ownerType == null ? null : canonicalize(ownerType),
+                    (Class<?>) parameterizedType.getRawType(),
+                    arguments);
+        }
+        if (type instanceof GenericArrayType) {
+            Type componentType = canonicalize(((GenericArrayType) type).getGenericComponentType());
+            if (componentType instanceof Class) {
+                return Array.newInstance((Class<?>) componentType, 0).getClass();
+            }
+            return new GenericArrayTypeImpl(componentType);
+        }
+        // wildcards and type variables
+        return type;
+    }
+
+    private static final class ParameterizedTypeImpl implements ParameterizedType {
+        private final Type ownerType;
+        private final Class<?> rawType;
+        private final Type[] arguments;
+        private final int hashCode;
+
+        ParameterizedTypeImpl(Type ownerType, Class<?> rawType, Type[] arguments) {
+            this.ownerType = ownerType;
+            this.rawType = rawType;
+            this.arguments = arguments;
+            // same as the JDK implementation
+            this.hashCode = Arrays.hashCode(arguments) ^ Objects.hashCode(ownerType) ^ rawType.hashCode();
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return arguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return ownerType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (o instanceof ParameterizedTypeImpl) {
+                ParameterizedTypeImpl other = (ParameterizedTypeImpl) o;
+                return hashCode == other.hashCode &&
+                       rawType == other.rawType &&
+                       Objects.equals(ownerType, other.ownerType) &&
+                       Arrays.equals(arguments, other.arguments);
+            }
+            if (!(o instanceof ParameterizedType)) { return false; }
+            ParameterizedType other = (ParameterizedType) o;
+            return Objects.equals(ownerType, other.getOwnerType()) &&
+                   rawType.equals(other.getRawType()) &&
+                   Arrays.equals(arguments, other.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return rawType.getTypeName() + Arrays.stream(arguments)
+                    .map(Type::getTypeName)
+                    .collect(Collectors.joining(", ", "<", ">"));
+        }
+    }
+
+    private static final class GenericArrayTypeImpl implements GenericArrayType {
+        private final Type componentType;
+
+        GenericArrayTypeImpl(Type componentType) {
+            this.componentType = componentType;
+        }
+
+        @Override
+        public Type getGenericComponentType() {
+            return componentType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof GenericArrayType &&
+                   componentType.equals(((GenericArrayType) o).getGenericComponentType());
+        }
+
+        @Override
+        public int hashCode() {
+            return componentType.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return componentType.getTypeName() + "[]";
+        }
+    }
+}
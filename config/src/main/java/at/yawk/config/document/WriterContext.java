@@ -0,0 +1,56 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.ObjectWriter;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+
+/**
+ * @author yawkat
+ */
+public interface WriterContext extends ObjectWriter {
+    void writeObject(Type type, Object object);
+
+    void writeObjectKey(Type type, Object object);
+
+    /**
+     * Write a primitive value of the given declared type. If the adapter for that type is an {@link IntTypeAdapter}
+     * the value is passed on without boxing. Defaults to boxing the value for {@link #writeObject(Type, Object)}.
+     */
+    default void writeInt(Type type, int value) {
+        writeObject(type, value);
+    }
+
+    default void writeLong(Type type, long value) {
+        writeObject(type, value);
+    }
+
+    default void writeFloat(Type type, float value) {
+        writeObject(type, value);
+    }
+
+    default void writeDouble(Type type, double value) {
+        writeObject(type, value);
+    }
+
+    default void writeBoolean(Type type, boolean value) {
+        writeObject(type, value);
+    }
+
+    /**
+     * Write a list of the given elements. Each element is written as soon as the iterator produces it, so the elements
+     * don't need to be collected first.
+     */
+    default void writeList(Type elementType, Iterator<?> elements) {
+        enterList();
+        while (elements.hasNext()) {
+            writeObject(elementType, elements.next());
+        }
+        exitList();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader that decodes UTF-8 from a byte buffer directly into the char array passed by the caller, without any
+ * intermediate byte or char buffers. Used for memory-mapped files.
+ *
+ * @author yawkat
+ */
+class ByteBufferReader extends Reader {
+    private final ByteBuffer buffer;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /**
+     * Second half of a surrogate pair that did not fit into the last output array, or {@code -1}.
+     */
+    private int pendingLowSurrogate = -1;
+    private boolean flushed = false;
+
+    ByteBufferReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) { return 0; }
+        if (pendingLowSurrogate != -1) {
+            cbuf[off] = (char) pendingLowSurrogate;
+            pendingLowSurrogate = -1;
+            return 1;
+        }
+        if (flushed) { return -1; }
+        int read = decode(CharBuffer.wrap(cbuf, off, len)) - off;
+        if (read == 0 && !flushed) {
+            // a surrogate pair doesn't fit into the output, decode it separately
+            CharBuffer pair = CharBuffer.allocate(2);
+            decode(pair);
+            pair.flip();
+            if (!pair.hasRemaining()) { return -1; }
+            cbuf[off] = pair.get();
+            if (pair.hasRemaining()) { pendingLowSurrogate = pair.get(); }
+            return 1;
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    /**
+     * @return the new position of the output buffer.
+     */
+    private int decode(CharBuffer out) throws IOException {
+        CoderResult result = decoder.decode(buffer, out, true);
+        if (result.isUnderflow()) {
+            // input is exhausted, flush any remaining state
+            result = decoder.flush(out);
+            if (result.isUnderflow()) { flushed = true; }
+        }
+        if (result.isError()) { result.throwException(); }
+        return out.position();
+    }
+
+    @Override
+    public boolean ready() {
+        return !flushed || pendingLowSurrogate != -1;
+    }
+
+    @Override
+    public void close() {}
+}
@@ -0,0 +1,202 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered big-endian input for binary {@link ObjectReader} implementations. Input comes from a stream or a byte
+ * buffer; heap buffers are read in place without copying. Reading past the end of the input throws an
+ * {@link EOFException}.
+ *
+ * @author yawkat
+ */
+public final class ByteInput {
+    private static final int BUFFER_SIZE = 8192;
+
+    // nullable
+    private final InputStream in;
+    /**
+     * Remaining input if it is a direct buffer.
+     */
+    // nullable
+    private final ByteBuffer source;
+
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    /**
+     * Input offset of {@code buffer[0]}.
+     */
+    private long base;
+
+    public ByteInput(InputStream in) {
+        this.in = in;
+        this.source = null;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Read the remaining bytes of the given buffer. The buffer must not be modified while this input is in use.
+     */
+    public ByteInput(ByteBuffer input) {
+        this.in = null;
+        if (input.hasArray()) {
+            this.source = null;
+            this.buffer = input.array();
+            this.position = input.arrayOffset() + input.position();
+            this.limit = input.arrayOffset() + input.limit();
+            this.base = -position;
+        } else {
+            this.source = input.slice();
+            this.buffer = new byte[BUFFER_SIZE];
+        }
+    }
+
+    /**
+     * @return the number of bytes consumed so far.
+     */
+    public long offset() {
+        return base + position;
+    }
+
+    /**
+     * @return the next byte as an unsigned value.
+     */
+    public int readByte() throws IOException {
+        require(1);
+        return buffer[position++] & 0xff;
+    }
+
+    /**
+     * Read a big-endian unsigned integer of up to eight bytes.
+     */
+    public long readFixed(int length) throws IOException {
+        require(length);
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (buffer[position++] & 0xff);
+        }
+        return value;
+    }
+
+    /**
+     * Check whether the next bytes equal the given bytes, and consume them if they do.
+     */
+    public boolean match(byte[] expected) throws IOException {
+        require(expected.length);
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer[position + i] != expected[i]) {
+                return false;
+            }
+        }
+        position += expected.length;
+        return true;
+    }
+
+    public String readString(int length) throws IOException {
+        if (length <= buffer.length) {
+            require(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+        return new String(readBytes(length), StandardCharsets.UTF_8);
+    }
+
+    public byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int available = Math.min(limit - position, length);
+        System.arraycopy(buffer, position, bytes, 0, available);
+        position += available;
+        if (available < length) {
+            readFully(bytes, available, length - available);
+        }
+        return bytes;
+    }
+
+    public void skip(long length) throws IOException {
+        while (limit - position < length) {
+            length -= limit - position;
+            position = limit;
+            if (!fill()) {
+                throw endOfInput();
+            }
+        }
+        position += length;
+    }
+
+    /**
+     * Make sure at least {@code n} bytes are available in the buffer. {@code n} must not exceed the buffer size.
+     */
+    private void require(int n) throws IOException {
+        while (limit - position < n) {
+            if (!fill()) {
+                throw endOfInput();
+            }
+        }
+    }
+
+    /**
+     * Read more input into the buffer, moving the unread bytes to its start.
+     *
+     * @return {@code false} if the input has ended.
+     */
+    private boolean fill() throws IOException {
+        if (in == null && source == null) {
+            return false;
+        }
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            base += position;
+            limit -= position;
+            position = 0;
+        }
+        if (in != null) {
+            int n = in.read(buffer, limit, buffer.length - limit);
+            if (n <= 0) { return false; }
+            limit += n;
+        } else {
+            int n = Math.min(source.remaining(), buffer.length - limit);
+            if (n == 0) { return false; }
+            source.get(buffer, limit, n);
+            limit += n;
+        }
+        return true;
+    }
+
+    /**
+     * Read directly from the input, bypassing the empty buffer.
+     */
+    private void readFully(byte[] dst, int off, int len) throws IOException {
+        while (len > 0) {
+            int n;
+            if (in != null) {
+                n = in.read(dst, off, len);
+            } else if (source != null) {
+                n = Math.min(source.remaining(), len);
+                source.get(dst, off, n);
+            } else {
+                n = 0;
+            }
+            if (n <= 0) {
+                throw endOfInput();
+            }
+            base += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    private EOFException endOfInput() {
+        return new EOFException("Unexpected end of input at offset " + offset());
+    }
+}
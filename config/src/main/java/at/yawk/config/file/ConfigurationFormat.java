@@ -0,0 +1,54 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author yawkat
+ */
+public interface ConfigurationFormat {
+    String getExtension();
+
+    String getMimeType();
+
+    /**
+     * Policy deciding when writers of this format flush their target.
+     */
+    default FlushPolicy getFlushPolicy() {
+        return FlushPolicy.DOCUMENT;
+    }
+
+    /**
+     * Size of the internal buffer of writers of this format, in characters.
+     */
+    default int getBufferSize() {
+        return FlushingWriter.DEFAULT_BUFFER_SIZE;
+    }
+
+    default ObjectWriter createWriter(OutputStream outputStream) {
+        return createWriter(FlushingWriter.wrap(outputStream, getFlushPolicy(), getBufferSize()));
+    }
+
+    ObjectWriter createWriter(Writer writer);
+
+    default ObjectReader createReader(InputStream inputStream) {
+        return createReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    ObjectReader createReader(Reader reader);
+
+    /**
+     * Create a reader for the remaining bytes of the given buffer, usually a memory-mapped file. The buffer must not be
+     * modified while the returned reader is in use.
+     */
+    default ObjectReader createReader(ByteBuffer buffer) {
+        return createReader(new ByteBufferReader(buffer));
+    }
+}
@@ -6,8 +6,12 @@
 
 package at.yawk.config.file;
 
+import at.yawk.config.file.binary.BinaryConfigurationFormatConfigurer;
+import at.yawk.config.file.cbor.CborConfigurationFormatConfigurer;
 import at.yawk.config.file.gson.GsonConfigurationFormatConfigurer;
+import at.yawk.config.file.msgpack.MsgpackConfigurationFormatConfigurer;
 import at.yawk.config.file.snakeyaml.SnakeYamlConfigurationFormatConfigurer;
+import at.yawk.config.file.yaml.YamlConfigurationFormatConfigurer;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
@@ -40,6 +44,10 @@ public class ConfigurationFormatConfigurerRegistry {
             configurers.put("yaml", gcfc);
             configurers.put("snakeyaml", gcfc);
         } catch (NoClassDefFoundError | ExceptionInInitializerError ignored) {}
+        configurers.put("yaml-native", YamlConfigurationFormatConfigurer.getInstance());
+        configurers.put("binary", BinaryConfigurationFormatConfigurer.getInstance());
+        configurers.put("cbor", CborConfigurationFormatConfigurer.getInstance());
+        configurers.put("msgpack", MsgpackConfigurationFormatConfigurer.getInstance());
     }
 
     private ConfigurationFormatConfigurerRegistry() {}
@@ -0,0 +1,91 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cache of parsed documents, so files that are loaded repeatedly (possibly into different types) are only parsed
+ * once. Documents are kept as {@link TokenBuffer recordings} and replayed from memory.
+ * <p>
+ * An entry is used as long as the size and modification time of its file are unchanged. If either changed, the file
+ * is read again and its content hash compared, so a file that was only touched or rewritten with the same content
+ * is not parsed again. The cache holds at most the given number of recorded tokens and evicts the least recently
+ * used documents first.
+ * <p>
+ * A cache is bound to the format it parses with. Configurations of that format can share it through
+ * {@link at.yawk.config.Configuration#withDocumentCache(DocumentCache)}.
+ *
+ * @author yawkat
+ */
+public final class DocumentCache {
+    @Getter private final ConfigurationFormat format;
+    private final Cache<Path, Entry> entries;
+
+    public DocumentCache(ConfigurationFormat format, long maximumTokens) {
+        this.format = format;
+        this.entries = CacheBuilder.newBuilder()
+                .maximumWeight(maximumTokens)
+                .weigher((Path path, Entry entry) -> entry.tokens.size())
+                .build();
+    }
+
+    /**
+     * @return the recording of the given file, parsing it if it is not cached or has changed.
+     */
+    public TokenBuffer get(Path path) {
+        Path key = path.toAbsolutePath();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+            Entry entry = entries.getIfPresent(key);
+            if (entry != null && entry.size == attributes.size() &&
+                entry.modified.equals(attributes.lastModifiedTime())) {
+                return entry.tokens;
+            }
+            byte[] content = Files.readAllBytes(key);
+            HashCode hash = Hashing.murmur3_128().hashBytes(content);
+            TokenBuffer tokens;
+            if (entry != null && entry.hash.equals(hash)) {
+                tokens = entry.tokens;
+            } else {
+                tokens = TokenBuffer.capture(format.createReader(ByteBuffer.wrap(content)));
+            }
+            // the attributes may be older than the content, which at worst causes another hash check later on
+            entries.put(key, new Entry(attributes.size(), attributes.lastModifiedTime(), hash, tokens));
+            return tokens;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Drop all cached documents.
+     */
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry {
+        private final long size;
+        private final FileTime modified;
+        private final HashCode hash;
+        private final TokenBuffer tokens;
+    }
+}
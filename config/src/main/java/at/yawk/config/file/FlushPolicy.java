@@ -0,0 +1,92 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file;
+
+import java.util.Locale;
+import java.util.Properties;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Decides when an {@link ObjectWriter} flushes the writer or stream it writes to. Output is always buffered
+ * internally and handed to the target in large chunks; the policy only controls when the target itself is flushed.
+ *
+ * @author yawkat
+ */
+@Getter(AccessLevel.PACKAGE)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class FlushPolicy {
+    /**
+     * Never flush the target, not even on {@link ObjectWriter#flush()}. Buffered output is still passed on to the
+     * target, but flushing and closing it is left to the owner.
+     */
+    public static final FlushPolicy NEVER = new FlushPolicy("never", false, false, -1);
+    /**
+     * Only flush the target on {@link ObjectWriter#flush()}.
+     */
+    public static final FlushPolicy EXPLICIT = new FlushPolicy("explicit", true, false, -1);
+    /**
+     * Flush the target after every top-level document and on {@link ObjectWriter#flush()}.
+     */
+    public static final FlushPolicy DOCUMENT = new FlushPolicy("document", true, true, -1);
+
+    private final String name;
+    private final boolean flushExplicit;
+    private final boolean flushDocument;
+    /**
+     * Number of characters (bytes for binary formats) after which the target is flushed, or {@code -1}.
+     */
+    private final long interval;
+
+    /**
+     * Flush the target whenever at least the given number of characters have been written since the last flush, and
+     * on {@link ObjectWriter#flush()}. Binary formats count bytes instead.
+     */
+    public static FlushPolicy everyChars(long chars) {
+        if (chars <= 0) {
+            throw new IllegalArgumentException("Flush interval must be positive: " + chars);
+        }
+        return new FlushPolicy(String.valueOf(chars), true, false, chars);
+    }
+
+    /**
+     * Parse a flush policy from its name ({@code never}, {@code explicit} or {@code document}) or a character count
+     * for {@link #everyChars(long)}.
+     */
+    public static FlushPolicy parse(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+        case "never":
+            return NEVER;
+        case "explicit":
+            return EXPLICIT;
+        case "document":
+            return DOCUMENT;
+        default:
+            try {
+                return everyChars(Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Unknown flush policy " + value);
+            }
+        }
+    }
+
+    /**
+     * Read the policy from the {@code flush} property of a format configuration, {@link #DOCUMENT} if it is not set.
+     *
+     * @see #parse(String)
+     */
+    public static FlushPolicy fromProperties(Properties properties) {
+        String value = properties.getProperty("flush");
+        return value == null ? DOCUMENT : parse(value);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Buffering output stream used by binary {@link ObjectWriter} implementations, the byte counterpart of
+ * {@link FlushingWriter}. Flush intervals of the {@link FlushPolicy} are counted in bytes.
+ *
+ * @author yawkat
+ */
+public final class FlushingOutputStream extends OutputStream {
+    private final OutputStream target;
+    private final FlushPolicy policy;
+    private final byte[] buffer;
+    private int size = 0;
+    /**
+     * Bytes written since the target was last flushed.
+     */
+    private long unflushed = 0;
+
+    private FlushingOutputStream(OutputStream target, FlushPolicy policy, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.target = target;
+        this.policy = policy;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Create a flushing stream for the given target stream, or return it if it already is one.
+     */
+    public static FlushingOutputStream wrap(OutputStream target, FlushPolicy policy, int bufferSize) {
+        if (target instanceof FlushingOutputStream) {
+            return (FlushingOutputStream) target;
+        }
+        return new FlushingOutputStream(target, policy, bufferSize);
+    }
+
+    /**
+     * Called by the object writer when a top-level document has been completed.
+     */
+    public void endDocument() throws IOException {
+        if (policy.isFlushDocument()) {
+            flushTarget();
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (size == buffer.length) { drain(); }
+        buffer[size++] = (byte) b;
+        written(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len >= buffer.length) {
+            // too large to be worth copying
+            drain();
+            target.write(b, off, len);
+        } else {
+            if (len > buffer.length - size) { drain(); }
+            System.arraycopy(b, off, buffer, size, len);
+            size += len;
+        }
+        written(len);
+    }
+
+    private void written(int len) throws IOException {
+        unflushed += len;
+        if (policy.getInterval() != -1 && unflushed >= policy.getInterval()) {
+            flushTarget();
+        }
+    }
+
+    /**
+     * Pass all buffered output to the target and flush it, unless the policy is {@link FlushPolicy#NEVER}.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (policy.isFlushExplicit()) {
+            flushTarget();
+        } else {
+            drain();
+        }
+    }
+
+    private void flushTarget() throws IOException {
+        drain();
+        target.flush();
+        unflushed = 0;
+    }
+
+    private void drain() throws IOException {
+        if (size > 0) {
+            target.write(buffer, 0, size);
+            size = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        drain();
+        target.close();
+    }
+}
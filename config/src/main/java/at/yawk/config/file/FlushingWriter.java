@@ -0,0 +1,253 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * Buffering writer used by {@link ObjectWriter} implementations. Characters are collected in a buffer and passed to
+ * the target once it is full; the target is only flushed as the {@link FlushPolicy} dictates.
+ *
+ * @author yawkat
+ */
+public abstract class FlushingWriter extends Writer {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final FlushPolicy policy;
+    private final char[] buffer;
+    private int size = 0;
+    /**
+     * Characters written since the target was last flushed.
+     */
+    private long unflushed = 0;
+
+    private FlushingWriter(FlushPolicy policy, int bufferSize) {
+        // must fit a surrogate pair
+        if (bufferSize < 2) {
+            throw new IllegalArgumentException("Buffer size must be at least 2: " + bufferSize);
+        }
+        this.policy = policy;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * Read the buffer size from the {@code bufferSize} property of a format configuration, {@link #DEFAULT_BUFFER_SIZE}
+     * if it is not set. Binary formats use the same size for their {@link FlushingOutputStream}.
+     */
+    public static int bufferSize(Properties properties) {
+        String value = properties.getProperty("bufferSize");
+        return value == null ? DEFAULT_BUFFER_SIZE : Integer.parseInt(value);
+    }
+
+    /**
+     * Create a flushing writer for the given target writer, or return it if it already is one.
+     */
+    public static FlushingWriter wrap(Writer target, FlushPolicy policy, int bufferSize) {
+        if (target instanceof FlushingWriter) {
+            return (FlushingWriter) target;
+        }
+        return new WriterTarget(target, policy, bufferSize);
+    }
+
+    /**
+     * Create a flushing writer that encodes to UTF-8 and writes to the given stream. Encoded bytes are written to the
+     * stream in chunks of the buffer size.
+     */
+    public static FlushingWriter wrap(OutputStream target, FlushPolicy policy, int bufferSize) {
+        return new StreamTarget(target, policy, bufferSize);
+    }
+
+    /**
+     * Called by the object writer when a top-level document has been completed.
+     */
+    public void endDocument() throws IOException {
+        if (policy.isFlushDocument()) {
+            flushTarget();
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (size == buffer.length) { drain(); }
+        buffer[size++] = (char) c;
+        written(1);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        int end = off + len;
+        while (off < end) {
+            if (size == buffer.length) { drain(); }
+            int n = Math.min(end - off, buffer.length - size);
+            System.arraycopy(cbuf, off, buffer, size, n);
+            size += n;
+            off += n;
+        }
+        written(len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        int end = off + len;
+        while (off < end) {
+            if (size == buffer.length) { drain(); }
+            int n = Math.min(end - off, buffer.length - size);
+            str.getChars(off, off + n, buffer, size);
+            size += n;
+            off += n;
+        }
+        written(len);
+    }
+
+    private void written(int len) throws IOException {
+        unflushed += len;
+        if (policy.getInterval() != -1 && unflushed >= policy.getInterval()) {
+            flushTarget();
+        }
+    }
+
+    /**
+     * Pass all buffered output to the target and flush it, unless the policy is {@link FlushPolicy#NEVER}.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (policy.isFlushExplicit()) {
+            flushTarget();
+        } else {
+            drain();
+        }
+    }
+
+    private void flushTarget() throws IOException {
+        drain();
+        flushTarget0();
+        unflushed = 0;
+    }
+
+    private void drain() throws IOException {
+        if (size > 0) {
+            size = drain(buffer, size);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        drain();
+        close0(buffer, size);
+        size = 0;
+    }
+
+    /**
+     * Pass the first {@code size} characters of the buffer to the target.
+     *
+     * @return the number of characters that could not be passed on yet and were moved to the start of the buffer.
+     */
+    abstract int drain(char[] buffer, int size) throws IOException;
+
+    abstract void flushTarget0() throws IOException;
+
+    /**
+     * Close the target, passing on the remaining characters that could not be drained yet.
+     */
+    abstract void close0(char[] buffer, int size) throws IOException;
+
+    private static final class WriterTarget extends FlushingWriter {
+        private final Writer target;
+
+        WriterTarget(Writer target, FlushPolicy policy, int bufferSize) {
+            super(policy, bufferSize);
+            this.target = target;
+        }
+
+        @Override
+        int drain(char[] buffer, int size) throws IOException {
+            target.write(buffer, 0, size);
+            return 0;
+        }
+
+        @Override
+        void flushTarget0() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        void close0(char[] buffer, int size) throws IOException {
+            target.close();
+        }
+    }
+
+    private static final class StreamTarget extends FlushingWriter {
+        private final OutputStream target;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes;
+
+        StreamTarget(OutputStream target, FlushPolicy policy, int bufferSize) {
+            super(policy, bufferSize);
+            this.target = target;
+            // room for a full buffer of ascii; longer sequences are written in several chunks
+            this.bytes = ByteBuffer.allocate(Math.max(bufferSize, 16));
+        }
+
+        @Override
+        int drain(char[] buffer, int size) throws IOException {
+            CharBuffer in = CharBuffer.wrap(buffer, 0, size);
+            encode(in, false);
+            // an unpaired high surrogate at the end of the buffer stays until its low surrogate is written
+            int remaining = in.remaining();
+            if (remaining > 0) {
+                System.arraycopy(buffer, in.position(), buffer, 0, remaining);
+            }
+            writeBytes();
+            return remaining;
+        }
+
+        private void encode(CharBuffer in, boolean endOfInput) throws IOException {
+            while (true) {
+                CoderResult result = encoder.encode(in, bytes, endOfInput);
+                if (result.isOverflow()) {
+                    writeBytes();
+                } else {
+                    if (result.isError()) { result.throwException(); }
+                    break;
+                }
+            }
+        }
+
+        private void writeBytes() throws IOException {
+            if (bytes.position() > 0) {
+                target.write(bytes.array(), 0, bytes.position());
+                bytes.clear();
+            }
+        }
+
+        @Override
+        void flushTarget0() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        void close0(char[] buffer, int size) throws IOException {
+            encode(CharBuffer.wrap(buffer, 0, size), true);
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+            target.close();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file;
+
+import lombok.Getter;
+
+/**
+ * Classifies number literals in a single pass without throwing exceptions, parsing them into a {@code long} or
+ * {@code double} at the same time. Used by {@link ObjectReader} implementations to report precise number token types
+ * and to avoid parsing a value twice. Instances hold the result of the last {@link #lex(String)} call and are not
+ * thread-safe.
+ *
+ * @author yawkat
+ */
+@Getter
+public final class NumberLexer {
+    /**
+     * Decimal numbers with more significant digits than this may not survive a round trip through {@code double}.
+     */
+    private static final int MAX_DOUBLE_DIGITS = 17;
+
+    /**
+     * {@link TokenType#INT}, {@link TokenType#LONG}, {@link TokenType#DOUBLE} or {@link TokenType#BIG_NUMBER}, or
+     * {@code null} if the last input was not a number.
+     */
+    // nullable
+    private TokenType type;
+    /**
+     * The value of the last number if it is an {@link TokenType#INT} or {@link TokenType#LONG}.
+     */
+    private long longValue;
+    /**
+     * The value of the last number if it is a {@link TokenType#DOUBLE}.
+     */
+    private double doubleValue;
+
+    /**
+     * Lex a number in JSON syntax, with an optional leading {@code +}. Integers that do not fit a {@code long} and
+     * decimals with more significant digits than a {@code double} holds are reported as {@link TokenType#BIG_NUMBER}.
+     *
+     * @return whether the text is a number.
+     */
+    public boolean lex(String text) {
+        type = null;
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long accumulator = 0; // negative to fit Long.MIN_VALUE
+        boolean overflow = false;
+        int integerDigits = 0;
+        int significantDigits = 0;
+        while (i < length && isDigit(text.charAt(i))) {
+            int digit = text.charAt(i++) - '0';
+            integerDigits++;
+            if (significantDigits > 0 || digit != 0) { significantDigits++; }
+            if (accumulator < multiplyLimit) {
+                overflow = true;
+            } else {
+                accumulator *= 10;
+                if (accumulator < limit + digit) {
+                    overflow = true;
+                } else {
+                    accumulator -= digit;
+                }
+            }
+        }
+        if (i == length) {
+            if (integerDigits == 0) { return false; }
+            if (overflow) {
+                type = TokenType.BIG_NUMBER;
+            } else {
+                longValue = negative ? accumulator : -accumulator;
+                type = longValue == (int) longValue ? TokenType.INT : TokenType.LONG;
+            }
+            return true;
+        }
+
+        int fractionDigits = 0;
+        if (text.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(text.charAt(i))) {
+                if (significantDigits > 0 || text.charAt(i) != '0') { significantDigits++; }
+                i++;
+                fractionDigits++;
+            }
+        }
+        if (integerDigits + fractionDigits == 0) { return false; }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) { i++; }
+            int exponentDigits = 0;
+            while (i < length && isDigit(text.charAt(i))) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) { return false; }
+        }
+        if (i != length) { return false; }
+        if (significantDigits > MAX_DOUBLE_DIGITS) {
+            type = TokenType.BIG_NUMBER;
+        } else {
+            // syntax was validated above, so this does not throw
+            type = TokenType.DOUBLE;
+            doubleValue = Double.parseDouble(text);
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -7,6 +7,7 @@
 package at.yawk.config.file;
 
 import at.yawk.config.file.TokenType;
+import java.math.BigDecimal;
 
 /**
  * @author yawkat
@@ -36,5 +37,12 @@ public interface ObjectReader {
 
     double doubleValue();
 
+    /**
+     * Read a number without losing precision. Works on all number tokens, including {@link TokenType#BIG_NUMBER}.
+     */
+    default BigDecimal bigNumberValue() {
+        return new BigDecimal(stringValue());
+    }
+
     boolean booleanValue();
 }
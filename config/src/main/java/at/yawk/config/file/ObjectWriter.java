@@ -6,6 +6,8 @@
 
 package at.yawk.config.file;
 
+import java.math.BigDecimal;
+
 /**
  * @author yawkat
  */
@@ -33,4 +35,20 @@ public interface ObjectWriter {
     ObjectWriter item(double value);
 
     ObjectWriter item(boolean value);
+
+    /**
+     * Write a number without losing precision. The default implementation writes it as a {@code double}, for formats
+     * that have no exact number representation.
+     */
+    default ObjectWriter item(BigDecimal value) {
+        return item(value.doubleValue());
+    }
+
+    /**
+     * Pass all buffered output on and flush the target, as far as the {@link FlushPolicy} of the format allows.
+     * Writers that don't buffer can leave this as is.
+     */
+    default ObjectWriter flush() {
+        return this;
+    }
 }
@@ -0,0 +1,663 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file;
+
+import at.yawk.config.ConfigurationException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable recording of the tokens of a single value, which can be replayed any number of times through
+ * {@link #reader()} or {@link #writeTo(ObjectWriter)}. Recordings are made from a reader with
+ * {@link #capture(ObjectReader)} or from a writer with {@link #recorder()}.
+ * <p>
+ * Tokens are stored in two primitive arrays: one byte per token type, and one long per token holding the number or
+ * boolean value, the index of a key or string in the string pool, or for objects and lists the position after their
+ * end. Equal strings share one pool entry. Numbers and booleans are kept as read, so replaying them does not go
+ * through the original parser again, and values are skipped in one step.
+ *
+ * @author yawkat
+ */
+public final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final byte[] types;
+    private final long[] values;
+    private final String[] strings;
+    /**
+     * Structural hash of the value starting at each position, computed on first use. Racy, but the result is always
+     * the same.
+     */
+    private long[] hashes;
+
+    private TokenBuffer(byte[] types, long[] values, String[] strings) {
+        this.types = types;
+        this.values = values;
+        this.strings = strings;
+    }
+
+    /**
+     * Record the next value of the given reader, including all its children. The reader is advanced past the value.
+     */
+    public static TokenBuffer capture(ObjectReader reader) {
+        Builder builder = new Builder();
+        // whether the next token is in key position. Not every reader reports KEY from peek (snakeyaml reports the
+        // scalar type of the key), so key slots are tracked here instead.
+        boolean key = false;
+        do {
+            TokenType type = reader.peek();
+            if (key && type != TokenType.EXIT_OBJECT) {
+                builder.string(TokenType.KEY, reader.key());
+                key = false;
+                continue;
+            }
+            switch (type) {
+            case ENTER_OBJECT:
+                reader.enterObject();
+                builder.enter(type);
+                key = true;
+                continue;
+            case EXIT_OBJECT:
+                reader.exitObject();
+                builder.exit(type);
+                break;
+            case ENTER_LIST:
+                reader.enterList();
+                builder.enter(type);
+                continue;
+            case EXIT_LIST:
+                reader.exitList();
+                builder.exit(type);
+                break;
+            case KEY:
+                // key outside of an object slot, record it as reported
+                builder.string(type, reader.key());
+                continue;
+            case INT:
+                builder.add(type, reader.intValue());
+                break;
+            case LONG:
+                builder.add(type, reader.longValue());
+                break;
+            case FLOAT:
+                builder.add(type, Double.doubleToRawLongBits(reader.floatValue()));
+                break;
+            case DOUBLE:
+                builder.add(type, Double.doubleToRawLongBits(reader.doubleValue()));
+                break;
+            case BOOLEAN:
+                builder.add(type, reader.booleanValue() ? 1 : 0);
+                break;
+            default:
+                // strings and big numbers
+                builder.string(type, reader.stringValue());
+                break;
+            }
+            // a value was completed
+            key = builder.inObject();
+        } while (builder.level > 0);
+        return builder.build();
+    }
+
+    /**
+     * @return a writer that records everything written to it. Comments are dropped.
+     */
+    public static Recorder recorder() {
+        return new Recorder();
+    }
+
+    /**
+     * Number of recorded tokens.
+     */
+    public int size() {
+        return types.length;
+    }
+
+    public TokenType type(int position) {
+        return TYPES[types[position]];
+    }
+
+    /**
+     * @return the key at the given position.
+     */
+    public String key(int position) {
+        if (type(position) != TokenType.KEY) {
+            throw new IllegalArgumentException("No key at " + position);
+        }
+        return strings[(int) values[position]];
+    }
+
+    /**
+     * @return the position after the value (or key) starting at the given position.
+     */
+    public int end(int position) {
+        return isEnter(types[position]) ? (int) values[position] : position + 1;
+    }
+
+    /**
+     * @return a hash of the value starting at the given position, covering its structure, keys and scalar values.
+     */
+    public long hash(int position) {
+        return hashes()[position];
+    }
+
+    /**
+     * @return whether the value starting at the given position is equal to the value at the given position of the
+     * other buffer, token by token.
+     */
+    public boolean valueEquals(int position, TokenBuffer other, int otherPosition) {
+        int length = end(position) - position;
+        if (other.end(otherPosition) - otherPosition != length || hash(position) != other.hash(otherPosition)) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            byte type = types[position + i];
+            if (type != other.types[otherPosition + i]) {
+                return false;
+            }
+            long value = values[position + i];
+            long otherValue = other.values[otherPosition + i];
+            if (isString(type)) {
+                if (!strings[(int) value].equals(other.strings[(int) otherValue])) {
+                    return false;
+                }
+            } else if (isEnter(type)) {
+                // same length was checked above, the children are compared on their own
+                if (value - position != otherValue - otherPosition) {
+                    return false;
+                }
+            } else if (value != otherValue) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the recorded value to the given writer.
+     */
+    public void writeTo(ObjectWriter writer) {
+        for (int i = 0; i < types.length; i++) {
+            long value = values[i];
+            switch (TYPES[types[i]]) {
+            case ENTER_OBJECT:
+                writer.enterObject();
+                break;
+            case EXIT_OBJECT:
+                writer.exitObject();
+                break;
+            case ENTER_LIST:
+                writer.enterList();
+                break;
+            case EXIT_LIST:
+                writer.exitList();
+                break;
+            case KEY:
+                writer.key(strings[(int) value]);
+                break;
+            case INT:
+                writer.item((int) value);
+                break;
+            case LONG:
+                writer.item(value);
+                break;
+            case FLOAT:
+                writer.item((float) Double.longBitsToDouble(value));
+                break;
+            case DOUBLE:
+                writer.item(Double.longBitsToDouble(value));
+                break;
+            case BOOLEAN:
+                writer.item(value != 0);
+                break;
+            case BIG_NUMBER:
+                writer.item(new BigDecimal(strings[(int) value]));
+                break;
+            default:
+                writer.item(strings[(int) value]);
+                break;
+            }
+        }
+    }
+
+    private long[] hashes() {
+        long[] hashes = this.hashes;
+        if (hashes == null) {
+            hashes = new long[types.length];
+            // running hash and start position of each open container
+            long[] running = new long[8];
+            int[] starts = new int[8];
+            int level = 0;
+            for (int i = 0; i < types.length; i++) {
+                byte type = types[i];
+                long hash;
+                if (isEnter(type)) {
+                    if (level == running.length) {
+                        running = Arrays.copyOf(running, level * 2);
+                        starts = Arrays.copyOf(starts, level * 2);
+                    }
+                    running[level] = type;
+                    starts[level++] = i;
+                    continue;
+                } else if (isExit(type)) {
+                    level--;
+                    hash = mix(running[level] * 31 + type);
+                    hashes[starts[level]] = hash;
+                } else if (isString(type)) {
+                    hash = mix(type * 31L + strings[(int) values[i]].hashCode());
+                } else {
+                    hash = mix(type * 31L + values[i]);
+                }
+                hashes[i] = hash;
+                if (level > 0) {
+                    running[level - 1] = running[level - 1] * 31 + hash;
+                }
+            }
+            this.hashes = hashes;
+        }
+        return hashes;
+    }
+
+    /**
+     * 64-bit finalizer of MurmurHash3.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static boolean isEnter(byte type) {
+        return type == TokenType.ENTER_OBJECT.ordinal() || type == TokenType.ENTER_LIST.ordinal();
+    }
+
+    private static boolean isExit(byte type) {
+        return type == TokenType.EXIT_OBJECT.ordinal() || type == TokenType.EXIT_LIST.ordinal();
+    }
+
+    private static boolean isString(byte type) {
+        return type == TokenType.KEY.ordinal() || type == TokenType.STRING.ordinal() ||
+               type == TokenType.BIG_NUMBER.ordinal();
+    }
+
+    /**
+     * @return a new reader positioned before the recorded value.
+     */
+    public Replay reader() {
+        return new Replay();
+    }
+
+    /**
+     * Growable token arrays, shared by {@link #capture(ObjectReader)} and {@link Recorder}.
+     */
+    private static class Builder {
+        private byte[] types = new byte[16];
+        private long[] values = new long[16];
+        private int size = 0;
+
+        private final Map<String, Integer> stringIndices = new HashMap<>();
+        private String[] strings = new String[8];
+        private int stringCount = 0;
+
+        /**
+         * Start positions of the open containers.
+         */
+        private int[] starts = new int[8];
+        private int level = 0;
+
+        /**
+         * @return whether the innermost open container is an object.
+         */
+        boolean inObject() {
+            return level > 0 && types[starts[level - 1]] == TokenType.ENTER_OBJECT.ordinal();
+        }
+
+        void add(TokenType type, long value) {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            types[size] = (byte) type.ordinal();
+            values[size] = value;
+            size++;
+        }
+
+        void string(TokenType type, String value) {
+            Integer index = stringIndices.get(value);
+            if (index == null) {
+                if (stringCount == strings.length) {
+                    strings = Arrays.copyOf(strings, stringCount * 2);
+                }
+                index = stringCount;
+                strings[stringCount++] = value;
+                stringIndices.put(value, index);
+            }
+            add(type, index);
+        }
+
+        void enter(TokenType type) {
+            if (level == starts.length) {
+                starts = Arrays.copyOf(starts, level * 2);
+            }
+            starts[level++] = size;
+            // end position is filled in on exit
+            add(type, 0);
+        }
+
+        void exit(TokenType type) {
+            if (level == 0) {
+                throw new ConfigurationException("Unexpected " + type);
+            }
+            int start = starts[--level];
+            TokenType enter = type == TokenType.EXIT_OBJECT ? TokenType.ENTER_OBJECT : TokenType.ENTER_LIST;
+            if (types[start] != enter.ordinal()) {
+                throw new ConfigurationException("Unexpected " + type);
+            }
+            add(type, 0);
+            values[start] = size;
+        }
+
+        TokenBuffer build() {
+            if (level != 0) {
+                throw new ConfigurationException("Recorded value is incomplete");
+            }
+            return new TokenBuffer(Arrays.copyOf(types, size),
+                                   Arrays.copyOf(values, size),
+                                   Arrays.copyOf(strings, stringCount));
+        }
+    }
+
+    /**
+     * Writer that records the tokens written to it. {@link #build()} returns the recording once the value is
+     * complete.
+     */
+    public static final class Recorder implements ObjectWriter {
+        private final Builder builder = new Builder();
+
+        private Recorder() {}
+
+        public TokenBuffer build() {
+            return builder.build();
+        }
+
+        @Override
+        public ObjectWriter key(String key) {
+            builder.string(TokenType.KEY, key);
+            return this;
+        }
+
+        @Override
+        public ObjectWriter enterObject() {
+            builder.enter(TokenType.ENTER_OBJECT);
+            return this;
+        }
+
+        @Override
+        public ObjectWriter enterList() {
+            builder.enter(TokenType.ENTER_LIST);
+            return this;
+        }
+
+        @Override
+        public ObjectWriter exitObject() {
+            builder.exit(TokenType.EXIT_OBJECT);
+            return this;
+        }
+
+        @Override
+        public ObjectWriter exitList() {
+            builder.exit(TokenType.EXIT_LIST);
+            return this;
+        }
+
+        @Override
+        public ObjectWriter comment(String comment) {
+            return this;
+        }
+
+        @Override
+        public ObjectWriter item(String value) {
+            builder.string(TokenType.STRING, value);
+            return this;
+        }
+
+        @Override
+        public ObjectWriter item(int value) {
+            builder.add(TokenType.INT, value);
+            return this;
+        }
+
+        @Override
+        public ObjectWriter item(long value) {
+            builder.add(TokenType.LONG, value);
+            return this;
+        }
+
+        @Override
+        public ObjectWriter item(float value) {
+            builder.add(TokenType.FLOAT, Double.doubleToRawLongBits(value));
+            return this;
+        }
+
+        @Override
+        public ObjectWriter item(double value) {
+            builder.add(TokenType.DOUBLE, Double.doubleToRawLongBits(value));
+            return this;
+        }
+
+        @Override
+        public ObjectWriter item(boolean value) {
+            builder.add(TokenType.BOOLEAN, value ? 1 : 0);
+            return this;
+        }
+
+        @Override
+        public ObjectWriter item(BigDecimal value) {
+            builder.string(TokenType.BIG_NUMBER, value.toString());
+            return this;
+        }
+
+        @Override
+        public ObjectWriter flush() {
+            return this;
+        }
+    }
+
+    /**
+     * Reader over the recorded tokens.
+     */
+    public final class Replay implements ObjectReader {
+        private int position = 0;
+
+        private Replay() {}
+
+        /**
+         * @return the position of the next token in the buffer.
+         */
+        public int position() {
+            return position;
+        }
+
+        @Override
+        public TokenType peek() {
+            if (position == types.length) {
+                throw new ConfigurationException("End of recorded value");
+            }
+            return TYPES[types[position]];
+        }
+
+        @Override
+        public void skipDeep() {
+            peek();
+            position = end(position);
+        }
+
+        @Override
+        public void enterObject() {
+            expect(TokenType.ENTER_OBJECT);
+        }
+
+        @Override
+        public void exitObject() {
+            expect(TokenType.EXIT_OBJECT);
+        }
+
+        @Override
+        public void enterList() {
+            expect(TokenType.ENTER_LIST);
+        }
+
+        @Override
+        public void exitList() {
+            expect(TokenType.EXIT_LIST);
+        }
+
+        @Override
+        public String key() {
+            return strings[(int) expect(TokenType.KEY)];
+        }
+
+        @Override
+        public String stringValue() {
+            TokenType type = scalarType();
+            long value = values[position++];
+            switch (type) {
+            case INT:
+            case LONG:
+                return String.valueOf(value);
+            case FLOAT:
+                return String.valueOf((float) Double.longBitsToDouble(value));
+            case DOUBLE:
+                return String.valueOf(Double.longBitsToDouble(value));
+            case BOOLEAN:
+                return String.valueOf(value != 0);
+            default:
+                return strings[(int) value];
+            }
+        }
+
+        @Override
+        public int intValue() {
+            TokenType type = scalarType();
+            if (type == TokenType.INT) {
+                return (int) values[position++];
+            }
+            long l = longValue();
+            if (l != (int) l) {
+                throw new ConfigurationException("Value out of range for int: " + l);
+            }
+            return (int) l;
+        }
+
+        @Override
+        public long longValue() {
+            TokenType type = scalarType();
+            switch (type) {
+            case INT:
+            case LONG:
+                return values[position++];
+            case FLOAT:
+            case DOUBLE:
+                double d = Double.longBitsToDouble(values[position++]);
+                if (d != (long) d) {
+                    throw new ConfigurationException("Expected integer but got " + d);
+                }
+                return (long) d;
+            default:
+                String s = stringValue();
+                try {
+                    return Long.parseLong(s);
+                } catch (NumberFormatException e) {
+                    throw new ConfigurationException("Expected integer but got '" + s + "'");
+                }
+            }
+        }
+
+        @Override
+        public float floatValue() {
+            return (float) doubleValue();
+        }
+
+        @Override
+        public double doubleValue() {
+            TokenType type = scalarType();
+            switch (type) {
+            case INT:
+            case LONG:
+                return values[position++];
+            case FLOAT:
+            case DOUBLE:
+                return Double.longBitsToDouble(values[position++]);
+            default:
+                String s = stringValue();
+                try {
+                    return Double.parseDouble(s);
+                } catch (NumberFormatException e) {
+                    throw new ConfigurationException("Expected number but got '" + s + "'");
+                }
+            }
+        }
+
+        @Override
+        public BigDecimal bigNumberValue() {
+            TokenType type = scalarType();
+            switch (type) {
+            case INT:
+            case LONG:
+                return BigDecimal.valueOf(values[position++]);
+            case FLOAT:
+            case DOUBLE:
+                return BigDecimal.valueOf(Double.longBitsToDouble(values[position++]));
+            default:
+                String s = stringValue();
+                try {
+                    return new BigDecimal(s);
+                } catch (NumberFormatException e) {
+                    throw new ConfigurationException("Expected number but got '" + s + "'");
+                }
+            }
+        }
+
+        @Override
+        public boolean booleanValue() {
+            if (scalarType() == TokenType.BOOLEAN) {
+                return values[position++] != 0;
+            }
+            return stringValue().equalsIgnoreCase("true");
+        }
+
+        private long expect(TokenType expected) {
+            TokenType type = peek();
+            if (type != expected) {
+                throw new ConfigurationException("Expected " + expected + " but got " + type);
+            }
+            return values[position++];
+        }
+
+        /**
+         * @return the type of the next token, which must be a scalar. The token is not consumed.
+         */
+        private TokenType scalarType() {
+            TokenType type = peek();
+            switch (type) {
+            case ENTER_OBJECT:
+            case EXIT_OBJECT:
+            case ENTER_LIST:
+            case EXIT_LIST:
+            case KEY:
+                throw new ConfigurationException("Expected scalar but got " + type);
+            default:
+                return type;
+            }
+        }
+    }
+}
@@ -23,5 +23,9 @@ public enum TokenType {
     LONG,
     FLOAT,
     DOUBLE,
+    /**
+     * A number that does not fit a {@code long} or {@code double} without losing precision.
+     */
+    BIG_NUMBER,
     BOOLEAN,
 }
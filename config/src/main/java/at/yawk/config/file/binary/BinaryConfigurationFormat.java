@@ -0,0 +1,69 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.binary;
+
+import at.yawk.config.file.ByteInput;
+import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.FlushPolicy;
+import at.yawk.config.file.FlushingOutputStream;
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.ObjectWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Compact binary format for distributing and caching configuration between machines. See {@link BinaryTags} for the
+ * encoding. Only byte streams and buffers are supported.
+ *
+ * @author yawkat
+ */
+@RequiredArgsConstructor
+class BinaryConfigurationFormat implements ConfigurationFormat {
+    private final boolean keyDictionary;
+    @Getter private final FlushPolicy flushPolicy;
+    @Getter private final int bufferSize;
+
+    @Override
+    public String getExtension() {
+        return ".bin";
+    }
+
+    @Override
+    public String getMimeType() {
+        return "application/octet-stream";
+    }
+
+    @Override
+    public ObjectWriter createWriter(OutputStream outputStream) {
+        return new BinaryWriter(FlushingOutputStream.wrap(outputStream, flushPolicy, bufferSize), keyDictionary);
+    }
+
+    @Override
+    public ObjectWriter createWriter(Writer writer) {
+        throw new UnsupportedOperationException("Binary format cannot be written to a character stream");
+    }
+
+    @Override
+    public ObjectReader createReader(InputStream inputStream) {
+        return new BinaryReader(new ByteInput(inputStream));
+    }
+
+    @Override
+    public ObjectReader createReader(ByteBuffer buffer) {
+        return new BinaryReader(new ByteInput(buffer));
+    }
+
+    @Override
+    public ObjectReader createReader(Reader reader) {
+        throw new UnsupportedOperationException("Binary format cannot be read from a character stream");
+    }
+}
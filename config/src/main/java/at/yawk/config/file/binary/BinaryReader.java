@@ -0,0 +1,337 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.binary;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.ByteInput;
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.TokenType;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader for the binary format described in {@link BinaryTags}.
+ *
+ * @author yawkat
+ */
+final class BinaryReader implements ObjectReader {
+    private final ByteInput input;
+
+    private final List<String> dictionary = new ArrayList<>();
+    private boolean headerRead = false;
+    /**
+     * Tag of the peeked token, {@code -1} if no token has been peeked.
+     */
+    private int tag = -1;
+
+    BinaryReader(ByteInput input) {
+        this.input = input;
+    }
+
+    ////// ObjectReader
+
+    @Override
+    public TokenType peek() {
+        ensureTag();
+        return BinaryTags.type(tag);
+    }
+
+    @Override
+    public void skipDeep() {
+        int depth = 0;
+        try {
+            do {
+                int tag = take();
+                switch (tag) {
+                case BinaryTags.ENTER_OBJECT:
+                case BinaryTags.ENTER_LIST:
+                    depth++;
+                    break;
+                case BinaryTags.EXIT_OBJECT:
+                case BinaryTags.EXIT_LIST:
+                    depth--;
+                    break;
+                case BinaryTags.KEY:
+                case BinaryTags.STRING:
+                    input.skip(readLength());
+                    break;
+                case BinaryTags.KEY_DEFINE:
+                    dictionary.add(readString());
+                    break;
+                case BinaryTags.KEY_REF:
+                case BinaryTags.INT:
+                case BinaryTags.LONG:
+                    readVarint();
+                    break;
+                case BinaryTags.FLOAT:
+                    input.skip(4);
+                    break;
+                case BinaryTags.DOUBLE:
+                    input.skip(8);
+                    break;
+                default:
+                    break;
+                }
+            } while (depth > 0);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    @Override
+    public void enterObject() {
+        expect(BinaryTags.ENTER_OBJECT);
+    }
+
+    @Override
+    public void exitObject() {
+        expect(BinaryTags.EXIT_OBJECT);
+    }
+
+    @Override
+    public void enterList() {
+        expect(BinaryTags.ENTER_LIST);
+    }
+
+    @Override
+    public void exitList() {
+        expect(BinaryTags.EXIT_LIST);
+    }
+
+    @Override
+    public String key() {
+        int tag = take();
+        try {
+            switch (tag) {
+            case BinaryTags.KEY:
+                return readString();
+            case BinaryTags.KEY_DEFINE:
+                String key = readString();
+                dictionary.add(key);
+                return key;
+            case BinaryTags.KEY_REF:
+                long index = readVarint();
+                if (index < 0 || index >= dictionary.size()) {
+                    throw error("Undefined key reference " + index);
+                }
+                return dictionary.get((int) index);
+            default:
+                throw unexpected("KEY", tag);
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    @Override
+    public String stringValue() {
+        int tag = take();
+        try {
+            switch (tag) {
+            case BinaryTags.STRING:
+                return readString();
+            case BinaryTags.INT:
+            case BinaryTags.LONG:
+                return Long.toString(readZigzag());
+            case BinaryTags.FLOAT:
+                return Float.toString(Float.intBitsToFloat((int) input.readFixed(4)));
+            case BinaryTags.DOUBLE:
+                return Double.toString(Double.longBitsToDouble(input.readFixed(8)));
+            case BinaryTags.TRUE:
+                return "true";
+            case BinaryTags.FALSE:
+                return "false";
+            default:
+                throw unexpected("STRING", tag);
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    @Override
+    public int intValue() {
+        long value = longValue();
+        if (value != (int) value) {
+            throw error("Value out of range for int: " + value);
+        }
+        return (int) value;
+    }
+
+    @Override
+    public long longValue() {
+        int tag = take();
+        try {
+            switch (tag) {
+            case BinaryTags.INT:
+            case BinaryTags.LONG:
+                return readZigzag();
+            case BinaryTags.FLOAT:
+            case BinaryTags.DOUBLE:
+                double value = readFloating(tag);
+                if (value != (long) value) {
+                    throw error("Expected integer but got " + value);
+                }
+                return (long) value;
+            case BinaryTags.STRING:
+                String text = readString();
+                try {
+                    return Long.parseLong(text);
+                } catch (NumberFormatException e) {
+                    throw error("Expected integer but got '" + text + "'");
+                }
+            default:
+                throw unexpected("LONG", tag);
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    @Override
+    public float floatValue() {
+        ensureTag();
+        if (tag == BinaryTags.FLOAT) {
+            tag = -1;
+            try {
+                return Float.intBitsToFloat((int) input.readFixed(4));
+            } catch (IOException e) {
+                throw new ConfigurationException(e);
+            }
+        }
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        int tag = take();
+        try {
+            switch (tag) {
+            case BinaryTags.INT:
+            case BinaryTags.LONG:
+                return readZigzag();
+            case BinaryTags.FLOAT:
+            case BinaryTags.DOUBLE:
+                return readFloating(tag);
+            case BinaryTags.STRING:
+                String text = readString();
+                try {
+                    return Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    throw error("Expected number but got '" + text + "'");
+                }
+            default:
+                throw unexpected("DOUBLE", tag);
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    @Override
+    public boolean booleanValue() {
+        int tag = take();
+        switch (tag) {
+        case BinaryTags.TRUE:
+            return true;
+        case BinaryTags.FALSE:
+            return false;
+        case BinaryTags.STRING:
+            try {
+                return readString().equalsIgnoreCase("true");
+            } catch (IOException e) {
+                throw new ConfigurationException(e);
+            }
+        default:
+            throw unexpected("BOOLEAN", tag);
+        }
+    }
+
+    ////// tokens
+
+    private void ensureTag() {
+        if (tag != -1) { return; }
+        try {
+            if (!headerRead) {
+                if (!input.match(BinaryTags.MAGIC)) {
+                    throw error("Not a binary configuration document");
+                }
+                headerRead = true;
+            }
+            int next = input.readByte();
+            if (BinaryTags.type(next) == null) {
+                throw error("Unknown tag " + next);
+            }
+            tag = next;
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    /**
+     * Consume the tag of the next token. The payload has to be consumed by the caller.
+     */
+    private int take() {
+        ensureTag();
+        int tag = this.tag;
+        this.tag = -1;
+        return tag;
+    }
+
+    private void expect(int expected) {
+        int tag = take();
+        if (tag != expected) {
+            throw unexpected(BinaryTags.type(expected).name(), tag);
+        }
+    }
+
+    ////// payload
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readByte();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw error("Malformed varint");
+    }
+
+    private long readZigzag() throws IOException {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private double readFloating(int tag) throws IOException {
+        return tag == BinaryTags.FLOAT ?
+                Float.intBitsToFloat((int) input.readFixed(4)) :
+                Double.longBitsToDouble(input.readFixed(8));
+    }
+
+    private int readLength() throws IOException {
+        long length = readVarint();
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw error("Invalid length " + length);
+        }
+        return (int) length;
+    }
+
+    private String readString() throws IOException {
+        return input.readString(readLength());
+    }
+
+    private ConfigurationException unexpected(String expected, int tag) {
+        return error("Expected " + expected + " but got " + BinaryTags.type(tag));
+    }
+
+    private ConfigurationException error(String message) {
+        return new ConfigurationException(message + " at offset " + input.offset());
+    }
+}
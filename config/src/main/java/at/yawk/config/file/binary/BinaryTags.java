@@ -0,0 +1,77 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.binary;
+
+import at.yawk.config.file.TokenType;
+
+/**
+ * Encoding of the binary format. A stream starts with {@link #MAGIC}, followed by any number of documents. Every
+ * token is a tag byte followed by its payload:
+ * <ul>
+ * <li>structure tags have no payload</li>
+ * <li>{@link #KEY}, {@link #KEY_DEFINE} and {@link #STRING}: unsigned varint byte length, then UTF-8</li>
+ * <li>{@link #KEY_REF}: unsigned varint index into the key dictionary</li>
+ * <li>{@link #INT} and {@link #LONG}: zigzag varint</li>
+ * <li>{@link #FLOAT} and {@link #DOUBLE}: big-endian IEEE 754 bits</li>
+ * </ul>
+ * Keys written with {@link #KEY_DEFINE} are appended to the key dictionary of the stream, and later occurrences refer
+ * to them with {@link #KEY_REF}.
+ *
+ * @author yawkat
+ */
+final class BinaryTags {
+    static final byte[] MAGIC = { 'Y', 'C', 'B', 1 };
+
+    static final int ENTER_OBJECT = 0x01;
+    static final int EXIT_OBJECT = 0x02;
+    static final int ENTER_LIST = 0x03;
+    static final int EXIT_LIST = 0x04;
+    static final int KEY = 0x05;
+    static final int KEY_DEFINE = 0x06;
+    static final int KEY_REF = 0x07;
+    static final int STRING = 0x08;
+    static final int INT = 0x09;
+    static final int LONG = 0x0a;
+    static final int FLOAT = 0x0b;
+    static final int DOUBLE = 0x0c;
+    static final int TRUE = 0x0d;
+    static final int FALSE = 0x0e;
+
+    /**
+     * Maximum number of entries in the key dictionary. Further keys are written inline.
+     */
+    static final int MAX_DICTIONARY_SIZE = 4096;
+
+    /**
+     * Token type of each tag, {@code null} for invalid tags.
+     */
+    private static final TokenType[] TYPES = new TokenType[0x0f];
+
+    static {
+        TYPES[ENTER_OBJECT] = TokenType.ENTER_OBJECT;
+        TYPES[EXIT_OBJECT] = TokenType.EXIT_OBJECT;
+        TYPES[ENTER_LIST] = TokenType.ENTER_LIST;
+        TYPES[EXIT_LIST] = TokenType.EXIT_LIST;
+        TYPES[KEY] = TokenType.KEY;
+        TYPES[KEY_DEFINE] = TokenType.KEY;
+        TYPES[KEY_REF] = TokenType.KEY;
+        TYPES[STRING] = TokenType.STRING;
+        TYPES[INT] = TokenType.INT;
+        TYPES[LONG] = TokenType.LONG;
+        TYPES[FLOAT] = TokenType.FLOAT;
+        TYPES[DOUBLE] = TokenType.DOUBLE;
+        TYPES[TRUE] = TokenType.BOOLEAN;
+        TYPES[FALSE] = TokenType.BOOLEAN;
+    }
+
+    private BinaryTags() {}
+
+    // nullable
+    static TokenType type(int tag) {
+        return tag < TYPES.length ? TYPES[tag] : null;
+    }
+}
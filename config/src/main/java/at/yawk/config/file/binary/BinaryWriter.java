@@ -0,0 +1,223 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.binary;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.FlushingOutputStream;
+import at.yawk.config.file.ObjectWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writer for the binary format described in {@link BinaryTags}. Comments are dropped.
+ *
+ * @author yawkat
+ */
+final class BinaryWriter implements ObjectWriter {
+    private final FlushingOutputStream out;
+    // nullable
+    private final Map<String, Integer> dictionary;
+
+    /**
+     * Room for a tag and a ten-byte varint or eight-byte float.
+     */
+    private final byte[] scratch = new byte[11];
+    private int depth = 0;
+    private boolean started = false;
+
+    BinaryWriter(FlushingOutputStream out, boolean keyDictionary) {
+        this.out = out;
+        this.dictionary = keyDictionary ? new HashMap<>() : null;
+    }
+
+    @Override
+    public ObjectWriter key(String key) {
+        try {
+            start();
+            if (dictionary != null) {
+                Integer index = dictionary.get(key);
+                if (index != null) {
+                    writeVarint(BinaryTags.KEY_REF, index);
+                    return this;
+                }
+                if (dictionary.size() < BinaryTags.MAX_DICTIONARY_SIZE) {
+                    dictionary.put(key, dictionary.size());
+                    writeString(BinaryTags.KEY_DEFINE, key);
+                    return this;
+                }
+            }
+            writeString(BinaryTags.KEY, key);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+        return this;
+    }
+
+    @Override
+    public ObjectWriter enterObject() {
+        writeTag(BinaryTags.ENTER_OBJECT);
+        depth++;
+        return this;
+    }
+
+    @Override
+    public ObjectWriter enterList() {
+        writeTag(BinaryTags.ENTER_LIST);
+        depth++;
+        return this;
+    }
+
+    @Override
+    public ObjectWriter exitObject() {
+        exit(BinaryTags.EXIT_OBJECT);
+        return this;
+    }
+
+    @Override
+    public ObjectWriter exitList() {
+        exit(BinaryTags.EXIT_LIST);
+        return this;
+    }
+
+    @Override
+    public ObjectWriter comment(String comment) {
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(String value) {
+        try {
+            start();
+            writeString(BinaryTags.STRING, value);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(int value) {
+        return writeZigzag(BinaryTags.INT, value);
+    }
+
+    @Override
+    public ObjectWriter item(long value) {
+        return writeZigzag(BinaryTags.LONG, value);
+    }
+
+    @Override
+    public ObjectWriter item(float value) {
+        return writeFixed(BinaryTags.FLOAT, Float.floatToRawIntBits(value), 4);
+    }
+
+    @Override
+    public ObjectWriter item(double value) {
+        return writeFixed(BinaryTags.DOUBLE, Double.doubleToRawLongBits(value), 8);
+    }
+
+    @Override
+    public ObjectWriter item(boolean value) {
+        writeTag(value ? BinaryTags.TRUE : BinaryTags.FALSE);
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+        return this;
+    }
+
+    private void start() throws IOException {
+        if (!started) {
+            out.write(BinaryTags.MAGIC, 0, BinaryTags.MAGIC.length);
+            started = true;
+        }
+    }
+
+    private void exit(int tag) {
+        if (depth == 0) {
+            throw new IllegalStateException("Nesting problem");
+        }
+        writeTag(tag);
+        depth--;
+        endValue();
+    }
+
+    /**
+     * Called after a value has been written, to end the document if it was a top-level value.
+     */
+    private void endValue() {
+        if (depth == 0) {
+            try {
+                out.endDocument();
+            } catch (IOException e) {
+                throw new ConfigurationException(e);
+            }
+        }
+    }
+
+    private void writeTag(int tag) {
+        try {
+            start();
+            out.write(tag);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    private ObjectWriter writeZigzag(int tag, long value) {
+        try {
+            start();
+            writeVarint(tag, (value << 1) ^ (value >> 63));
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+        endValue();
+        return this;
+    }
+
+    private ObjectWriter writeFixed(int tag, long bits, int length) {
+        try {
+            start();
+            scratch[0] = (byte) tag;
+            for (int i = length; i > 0; i--) {
+                scratch[i] = (byte) bits;
+                bits >>>= 8;
+            }
+            out.write(scratch, 0, length + 1);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+        endValue();
+        return this;
+    }
+
+    private void writeVarint(int tag, long value) throws IOException {
+        scratch[0] = (byte) tag;
+        int length = 1;
+        while ((value & ~0x7fL) != 0) {
+            scratch[length++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        scratch[length++] = (byte) value;
+        out.write(scratch, 0, length);
+    }
+
+    private void writeString(int tag, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(tag, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+}
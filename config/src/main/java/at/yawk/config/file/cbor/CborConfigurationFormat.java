@@ -0,0 +1,68 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.cbor;
+
+import at.yawk.config.file.ByteInput;
+import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.FlushPolicy;
+import at.yawk.config.file.FlushingOutputStream;
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.ObjectWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * CBOR (RFC 8949) format, read and written as a stream of data items without building a tree. Only byte streams
+ * and buffers are supported.
+ *
+ * @author yawkat
+ */
+@RequiredArgsConstructor
+class CborConfigurationFormat implements ConfigurationFormat {
+    @Getter private final FlushPolicy flushPolicy;
+    @Getter private final int bufferSize;
+
+    @Override
+    public String getExtension() {
+        return ".cbor";
+    }
+
+    @Override
+    public String getMimeType() {
+        return "application/cbor";
+    }
+
+    @Override
+    public ObjectWriter createWriter(OutputStream outputStream) {
+        return new CborWriter(FlushingOutputStream.wrap(outputStream, flushPolicy, bufferSize));
+    }
+
+    @Override
+    public ObjectWriter createWriter(Writer writer) {
+        throw new UnsupportedOperationException("CBOR cannot be written to a character stream");
+    }
+
+    @Override
+    public ObjectReader createReader(InputStream inputStream) {
+        return new CborReader(new ByteInput(inputStream));
+    }
+
+    @Override
+    public ObjectReader createReader(ByteBuffer buffer) {
+        return new CborReader(new ByteInput(buffer));
+    }
+
+    @Override
+    public ObjectReader createReader(Reader reader) {
+        throw new UnsupportedOperationException("CBOR cannot be read from a character stream");
+    }
+}
@@ -0,0 +1,537 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.cbor;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.ByteInput;
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.TokenType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Pull parser for CBOR (RFC 8949) data items. Maps and arrays of definite and indefinite length are supported; map
+ * keys must be text strings or integers. Bignums (tags 2 and 3) are reported as {@link TokenType#BIG_NUMBER}, other
+ * tags are ignored. Byte strings are read as base64 text and {@code null} and {@code undefined} as the empty string.
+ * Consecutive top-level items are read as consecutive documents.
+ *
+ * @author yawkat
+ */
+final class CborReader implements ObjectReader {
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_BYTES = 2;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+    private static final int MAJOR_TAG = 6;
+    private static final int MAJOR_SIMPLE = 7;
+
+    private static final int INDEFINITE = 31;
+
+    private final ByteInput input;
+
+    // open containers
+
+    private boolean[] maps = new boolean[16];
+    /**
+     * Number of items (keys and values) in each container, {@code -1} for indefinite length.
+     */
+    private long[] sizes = new long[16];
+    /**
+     * Number of items of each container that have been started.
+     */
+    private long[] counts = new long[16];
+    private int depth = 0;
+
+    // peeked token
+
+    // nullable
+    private TokenType type = null;
+    private int major;
+    private int info;
+    private long argument;
+    /**
+     * Bignum tag (2 or 3) preceding the peeked item, or {@code -1}.
+     */
+    private int bignumTag;
+
+    CborReader(ByteInput input) {
+        this.input = input;
+    }
+
+    ////// ObjectReader
+
+    @Override
+    public TokenType peek() {
+        if (type == null) {
+            try {
+                type = readToken();
+            } catch (IOException e) {
+                throw new ConfigurationException(e);
+            }
+        }
+        return type;
+    }
+
+    @Override
+    public void skipDeep() {
+        int level = 0;
+        try {
+            do {
+                switch (peek()) {
+                case ENTER_OBJECT:
+                case ENTER_LIST:
+                    enter(peek());
+                    level++;
+                    break;
+                case EXIT_OBJECT:
+                case EXIT_LIST:
+                    exit(peek());
+                    level--;
+                    break;
+                default:
+                    take();
+                    if (major == MAJOR_BYTES || major == MAJOR_TEXT) {
+                        skipString();
+                    }
+                    break;
+                }
+            } while (level > 0);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    @Override
+    public void enterObject() {
+        enter(TokenType.ENTER_OBJECT);
+    }
+
+    @Override
+    public void exitObject() {
+        exit(TokenType.EXIT_OBJECT);
+    }
+
+    @Override
+    public void enterList() {
+        enter(TokenType.ENTER_LIST);
+    }
+
+    @Override
+    public void exitList() {
+        exit(TokenType.EXIT_LIST);
+    }
+
+    @Override
+    public String key() {
+        if (peek() != TokenType.KEY) {
+            throw error("Expected KEY but got " + type);
+        }
+        take();
+        return text();
+    }
+
+    @Override
+    public String stringValue() {
+        scalar();
+        return text();
+    }
+
+    @Override
+    public int intValue() {
+        long value = longValue();
+        if (value != (int) value) {
+            throw error("Value out of range for int: " + value);
+        }
+        return (int) value;
+    }
+
+    @Override
+    public long longValue() {
+        TokenType type = scalar();
+        switch (type) {
+        case INT:
+        case LONG:
+            return longValueOfInteger();
+        case FLOAT:
+        case DOUBLE:
+            double value = floating();
+            if (value != (long) value) {
+                throw error("Expected integer but got " + value);
+            }
+            return (long) value;
+        case BIG_NUMBER:
+            try {
+                return bigInteger().longValueExact();
+            } catch (ArithmeticException e) {
+                throw error("Value out of range for long");
+            }
+        default:
+            String text = text();
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                throw error("Expected integer but got '" + text + "'");
+            }
+        }
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        TokenType type = scalar();
+        switch (type) {
+        case INT:
+        case LONG:
+            return longValueOfInteger();
+        case FLOAT:
+        case DOUBLE:
+            return floating();
+        case BIG_NUMBER:
+            return bigInteger().doubleValue();
+        default:
+            String text = text();
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw error("Expected number but got '" + text + "'");
+            }
+        }
+    }
+
+    @Override
+    public BigDecimal bigNumberValue() {
+        TokenType type = scalar();
+        switch (type) {
+        case INT:
+        case LONG:
+            return BigDecimal.valueOf(longValueOfInteger());
+        case FLOAT:
+        case DOUBLE:
+            return BigDecimal.valueOf(floating());
+        case BIG_NUMBER:
+            return new BigDecimal(bigInteger());
+        default:
+            String text = text();
+            try {
+                return new BigDecimal(text);
+            } catch (NumberFormatException e) {
+                throw error("Expected number but got '" + text + "'");
+            }
+        }
+    }
+
+    @Override
+    public boolean booleanValue() {
+        TokenType type = scalar();
+        if (type == TokenType.BOOLEAN) {
+            return info == 21;
+        }
+        return text().equalsIgnoreCase("true");
+    }
+
+    ////// tokens
+
+    private TokenType readToken() throws IOException {
+        if (depth > 0 && sizes[depth - 1] != -1 && counts[depth - 1] == sizes[depth - 1]) {
+            return maps[depth - 1] ? TokenType.EXIT_OBJECT : TokenType.EXIT_LIST;
+        }
+        readHeader();
+        bignumTag = -1;
+        while (major == MAJOR_TAG) {
+            bignumTag = argument == 2 || argument == 3 ? (int) argument : -1;
+            readHeader();
+        }
+        if (major == MAJOR_SIMPLE && info == INDEFINITE) {
+            if (depth == 0 || sizes[depth - 1] != -1) {
+                throw error("Unexpected break");
+            }
+            if (maps[depth - 1] && (counts[depth - 1] & 1) != 0) {
+                throw error("Missing map value");
+            }
+            return maps[depth - 1] ? TokenType.EXIT_OBJECT : TokenType.EXIT_LIST;
+        }
+
+        TokenType type;
+        switch (major) {
+        case MAJOR_UNSIGNED:
+            // arguments beyond Long.MAX_VALUE are negative
+            type = argument < 0 ? TokenType.BIG_NUMBER :
+                    argument <= Integer.MAX_VALUE ? TokenType.INT : TokenType.LONG;
+            break;
+        case MAJOR_NEGATIVE:
+            type = argument < 0 ? TokenType.BIG_NUMBER :
+                    argument <= Integer.MAX_VALUE ? TokenType.INT : TokenType.LONG;
+            break;
+        case MAJOR_BYTES:
+            type = bignumTag != -1 ? TokenType.BIG_NUMBER : TokenType.STRING;
+            break;
+        case MAJOR_TEXT:
+            type = TokenType.STRING;
+            break;
+        case MAJOR_ARRAY:
+            type = TokenType.ENTER_LIST;
+            break;
+        case MAJOR_MAP:
+            type = TokenType.ENTER_OBJECT;
+            break;
+        default:
+            switch (info) {
+            case 20:
+            case 21:
+                type = TokenType.BOOLEAN;
+                break;
+            case 22:
+            case 23:
+                type = TokenType.STRING;
+                break;
+            case 25:
+            case 26:
+                type = TokenType.FLOAT;
+                break;
+            case 27:
+                type = TokenType.DOUBLE;
+                break;
+            default:
+                throw error("Unsupported simple value " + (info == 24 ? argument : info));
+            }
+            break;
+        }
+
+        if (depth > 0 && maps[depth - 1] && (counts[depth - 1] & 1) == 0) {
+            if (major != MAJOR_TEXT && major != MAJOR_UNSIGNED && major != MAJOR_NEGATIVE) {
+                throw error("Unsupported map key of type " + type);
+            }
+            type = TokenType.KEY;
+        }
+        return type;
+    }
+
+    private void readHeader() throws IOException {
+        int initial = input.readByte();
+        major = initial >>> 5;
+        info = initial & 0x1f;
+        if (info < 24) {
+            argument = info;
+        } else if (info <= 27) {
+            argument = input.readFixed(1 << (info - 24));
+        } else if (info == INDEFINITE && major != MAJOR_UNSIGNED && major != MAJOR_NEGATIVE && major != MAJOR_TAG) {
+            argument = -1;
+        } else {
+            throw error("Malformed initial byte " + initial);
+        }
+    }
+
+    /**
+     * Consume the peeked token. Its payload, if any, has to be consumed by the caller.
+     */
+    private TokenType take() {
+        TokenType type = peek();
+        this.type = null;
+        if (depth > 0 && type != TokenType.EXIT_OBJECT && type != TokenType.EXIT_LIST) {
+            counts[depth - 1]++;
+        }
+        return type;
+    }
+
+    /**
+     * Consume a scalar value.
+     */
+    private TokenType scalar() {
+        TokenType type = peek();
+        switch (type) {
+        case ENTER_OBJECT:
+        case EXIT_OBJECT:
+        case ENTER_LIST:
+        case EXIT_LIST:
+            throw error("Expected scalar but got " + type);
+        default:
+            return take();
+        }
+    }
+
+    private void enter(TokenType expected) {
+        if (peek() != expected) {
+            throw error("Expected " + expected + " but got " + type);
+        }
+        take();
+        if (depth == maps.length) {
+            maps = Arrays.copyOf(maps, depth * 2);
+            sizes = Arrays.copyOf(sizes, depth * 2);
+            counts = Arrays.copyOf(counts, depth * 2);
+        }
+        boolean map = major == MAJOR_MAP;
+        maps[depth] = map;
+        sizes[depth] = info == INDEFINITE ? -1 : map ? argument * 2 : argument;
+        if (sizes[depth] < -1) {
+            throw error("Invalid length " + argument);
+        }
+        counts[depth] = 0;
+        depth++;
+    }
+
+    private void exit(TokenType expected) {
+        if (peek() != expected) {
+            throw error("Expected " + expected + " but got " + type);
+        }
+        take();
+        depth--;
+    }
+
+    ////// payload
+
+    /**
+     * Text of the consumed scalar.
+     */
+    private String text() {
+        try {
+            switch (major) {
+            case MAJOR_UNSIGNED:
+            case MAJOR_NEGATIVE:
+                return argument < 0 ? bigInteger().toString() : Long.toString(longValueOfInteger());
+            case MAJOR_BYTES:
+                if (bignumTag != -1) {
+                    return bigInteger().toString();
+                }
+                return Base64.getEncoder().encodeToString(readBytes());
+            case MAJOR_TEXT:
+                if (info != INDEFINITE) {
+                    return input.readString(length(argument));
+                }
+                StringBuilder builder = new StringBuilder();
+                while (nextChunk(MAJOR_TEXT)) {
+                    builder.append(input.readString(length(argument)));
+                }
+                return builder.toString();
+            default:
+                switch (info) {
+                case 20:
+                    return "false";
+                case 21:
+                    return "true";
+                case 22:
+                case 23:
+                    return "";
+                case 27:
+                    return Double.toString(floating());
+                default:
+                    return Float.toString((float) floating());
+                }
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    private long longValueOfInteger() {
+        return major == MAJOR_UNSIGNED ? argument : -1 - argument;
+    }
+
+    private double floating() {
+        switch (info) {
+        case 25:
+            return halfToFloat((int) argument);
+        case 26:
+            return Float.intBitsToFloat((int) argument);
+        default:
+            return Double.longBitsToDouble(argument);
+        }
+    }
+
+    /**
+     * Value of the consumed integer or bignum.
+     */
+    private BigInteger bigInteger() {
+        BigInteger magnitude;
+        boolean negative;
+        if (major == MAJOR_BYTES) {
+            try {
+                magnitude = new BigInteger(1, readBytes());
+            } catch (IOException e) {
+                throw new ConfigurationException(e);
+            }
+            negative = bignumTag == 3;
+        } else {
+            magnitude = new BigInteger(Long.toUnsignedString(argument));
+            negative = major == MAJOR_NEGATIVE;
+        }
+        return negative ? magnitude.not() : magnitude;
+    }
+
+    private byte[] readBytes() throws IOException {
+        if (info != INDEFINITE) {
+            return input.readBytes(length(argument));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        while (nextChunk(MAJOR_BYTES)) {
+            bytes.write(input.readBytes(length(argument)));
+        }
+        return bytes.toByteArray();
+    }
+
+    private void skipString() throws IOException {
+        if (info != INDEFINITE) {
+            input.skip(argument);
+            return;
+        }
+        int stringMajor = major;
+        while (nextChunk(stringMajor)) {
+            input.skip(argument);
+        }
+    }
+
+    /**
+     * Read the header of the next chunk of an indefinite-length string.
+     *
+     * @return {@code false} at the end of the string.
+     */
+    private boolean nextChunk(int stringMajor) throws IOException {
+        readHeader();
+        if (major == MAJOR_SIMPLE && info == INDEFINITE) {
+            major = stringMajor;
+            return false;
+        }
+        if (major != stringMajor || info == INDEFINITE) {
+            throw error("Malformed indefinite-length string");
+        }
+        return true;
+    }
+
+    private int length(long length) {
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw error("Invalid length " + length);
+        }
+        return (int) length;
+    }
+
+    private static float halfToFloat(int half) {
+        int exponent = (half >>> 10) & 0x1f;
+        int mantissa = half & 0x3ff;
+        float value;
+        if (exponent == 0) {
+            value = Math.scalb((float) mantissa, -24);
+        } else if (exponent == 31) {
+            value = mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+        } else {
+            value = Math.scalb((float) (mantissa + 1024), exponent - 25);
+        }
+        return (half & 0x8000) != 0 ? -value : value;
+    }
+
+    private ConfigurationException error(String message) {
+        return new ConfigurationException(message + " at offset " + input.offset());
+    }
+}
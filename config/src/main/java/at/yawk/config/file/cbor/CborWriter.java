@@ -0,0 +1,210 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.cbor;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.FlushingOutputStream;
+import at.yawk.config.file.ObjectWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming CBOR writer. Maps and arrays are written with indefinite length so nothing has to be buffered, and
+ * integers use the shortest encoding. Comments are dropped.
+ *
+ * @author yawkat
+ */
+final class CborWriter implements ObjectWriter {
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_TEXT = 3;
+
+    private static final int INDEFINITE_ARRAY = 0x9f;
+    private static final int INDEFINITE_MAP = 0xbf;
+    private static final int BREAK = 0xff;
+    private static final int FALSE = 0xf4;
+    private static final int TRUE = 0xf5;
+    private static final int FLOAT = 0xfa;
+    private static final int DOUBLE = 0xfb;
+
+    private final FlushingOutputStream out;
+
+    /**
+     * Room for an initial byte and an eight-byte argument.
+     */
+    private final byte[] scratch = new byte[9];
+    private int depth = 0;
+
+    CborWriter(FlushingOutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public ObjectWriter key(String key) {
+        writeText(key);
+        return this;
+    }
+
+    @Override
+    public ObjectWriter enterObject() {
+        writeByte(INDEFINITE_MAP);
+        depth++;
+        return this;
+    }
+
+    @Override
+    public ObjectWriter enterList() {
+        writeByte(INDEFINITE_ARRAY);
+        depth++;
+        return this;
+    }
+
+    @Override
+    public ObjectWriter exitObject() {
+        return exit();
+    }
+
+    @Override
+    public ObjectWriter exitList() {
+        return exit();
+    }
+
+    @Override
+    public ObjectWriter comment(String comment) {
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(String value) {
+        writeText(value);
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(int value) {
+        return item((long) value);
+    }
+
+    @Override
+    public ObjectWriter item(long value) {
+        try {
+            if (value >= 0) {
+                writeHead(MAJOR_UNSIGNED, value);
+            } else {
+                writeHead(MAJOR_NEGATIVE, -1 - value);
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(float value) {
+        writeFixed(FLOAT, Float.floatToRawIntBits(value), 4);
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(double value) {
+        writeFixed(DOUBLE, Double.doubleToRawLongBits(value), 8);
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(boolean value) {
+        writeByte(value ? TRUE : FALSE);
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+        return this;
+    }
+
+    private ObjectWriter exit() {
+        if (depth == 0) {
+            throw new IllegalStateException("Nesting problem");
+        }
+        writeByte(BREAK);
+        depth--;
+        endValue();
+        return this;
+    }
+
+    /**
+     * Called after a value has been written, to end the document if it was a top-level value.
+     */
+    private void endValue() {
+        if (depth == 0) {
+            try {
+                out.endDocument();
+            } catch (IOException e) {
+                throw new ConfigurationException(e);
+            }
+        }
+    }
+
+    private void writeByte(int b) {
+        try {
+            out.write(b);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    private void writeText(String value) {
+        try {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeHead(MAJOR_TEXT, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    private void writeFixed(int initial, long bits, int length) {
+        scratch[0] = (byte) initial;
+        for (int i = length; i > 0; i--) {
+            scratch[i] = (byte) bits;
+            bits >>>= 8;
+        }
+        try {
+            out.write(scratch, 0, length + 1);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    /**
+     * Write an initial byte with the given major type and the shortest encoding of the given non-negative argument.
+     */
+    private void writeHead(int major, long argument) throws IOException {
+        int type = major << 5;
+        if (argument < 24) {
+            out.write(type | (int) argument);
+        } else if (argument < 0x100) {
+            writeFixed(type | 24, argument, 1);
+        } else if (argument < 0x10000) {
+            writeFixed(type | 25, argument, 2);
+        } else if (argument < 0x100000000L) {
+            writeFixed(type | 26, argument, 4);
+        } else {
+            writeFixed(type | 27, argument, 8);
+        }
+    }
+}
@@ -7,19 +7,20 @@
 package at.yawk.config.file.gson;
 
 import at.yawk.config.ConfigurationException;
-import at.yawk.config.Util;
 import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.FlushPolicy;
+import at.yawk.config.file.FlushingWriter;
+import at.yawk.config.file.NumberLexer;
 import at.yawk.config.file.ObjectReader;
 import at.yawk.config.file.ObjectWriter;
 import at.yawk.config.file.TokenType;
-import at.yawk.reflect.Methods;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
-import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
-import java.util.Arrays;
+import java.math.BigDecimal;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -30,6 +31,8 @@ class GsonConfigurationFormat implements ConfigurationFormat {
     private final String indent;
     private final boolean lenient;
     private final int commentWrapWidth; // -1 for no wrap
+    @Getter private final FlushPolicy flushPolicy;
+    @Getter private final int bufferSize;
 
     @Override
     public String getExtension() {
@@ -43,16 +46,13 @@ class GsonConfigurationFormat implements ConfigurationFormat {
 
     @Override
     public ObjectWriter createWriter(Writer writer) {
-        JsonWriter handle = new JsonWriter(writer);
-        handle.setLenient(lenient);
-        handle.setIndent(indent);
+        FlushingWriter out = FlushingWriter.wrap(writer, flushPolicy, bufferSize);
+        JsonCommentWriter handle = new JsonCommentWriter(out, indent, lenient, commentWrapWidth);
         return new ObjectWriter() {
-            int depth = 0;
-
-            private void flush() {
-                if (depth == 0) {
+            private void endDocument() {
+                if (handle.depth() == 0) {
                     try {
-                        writer.flush();
+                        out.endDocument();
                     } catch (IOException e) {
                         throw new ConfigurationException(e);
                     }
@@ -76,8 +76,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 } catch (IOException e) {
                     throw new ConfigurationException(e);
                 }
-                depth++;
-                flush();
+                endDocument();
                 return this;
             }
 
@@ -88,8 +87,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 } catch (IOException e) {
                     throw new ConfigurationException(e);
                 }
-                depth++;
-                flush();
+                endDocument();
                 return this;
             }
 
@@ -100,8 +98,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 } catch (IOException e) {
                     throw new ConfigurationException(e);
                 }
-                depth--;
-                flush();
+                endDocument();
                 return this;
             }
 
@@ -112,26 +109,17 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 } catch (IOException e) {
                     throw new ConfigurationException(e);
                 }
-                depth--;
-                flush();
+                endDocument();
                 return this;
             }
 
             @Override
             public ObjectWriter comment(String comment) {
                 try {
-                    for (String line : (
-                            commentWrapWidth >= 0 ?
-                                    Util.wrap(comment, commentWrapWidth) :
-                                    Arrays.asList(comment)
-                    )) {
-                        Methods.of(handle).name("newline").invoke();
-                        writer.write("// " + line);
-                    }
+                    handle.comment(comment);
                 } catch (IOException e) {
                     throw new ConfigurationException(e);
                 }
-                flush();
                 return this;
             }
 
@@ -142,7 +130,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 } catch (IOException e) {
                     throw new ConfigurationException(e);
                 }
-                flush();
+                endDocument();
                 return this;
             }
 
@@ -153,7 +141,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 } catch (IOException e) {
                     throw new ConfigurationException(e);
                 }
-                flush();
+                endDocument();
                 return this;
             }
 
@@ -164,7 +152,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 } catch (IOException e) {
                     throw new ConfigurationException(e);
                 }
-                flush();
+                endDocument();
                 return this;
             }
 
@@ -175,7 +163,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 } catch (IOException e) {
                     throw new ConfigurationException(e);
                 }
-                flush();
+                endDocument();
                 return this;
             }
 
@@ -186,7 +174,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 } catch (IOException e) {
                     throw new ConfigurationException(e);
                 }
-                flush();
+                endDocument();
                 return this;
             }
 
@@ -197,7 +185,28 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 } catch (IOException e) {
                     throw new ConfigurationException(e);
                 }
-                flush();
+                endDocument();
+                return this;
+            }
+
+            @Override
+            public ObjectWriter item(BigDecimal value) {
+                try {
+                    handle.value(value);
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                endDocument();
+                return this;
+            }
+
+            @Override
+            public ObjectWriter flush() {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
                 return this;
             }
         };
@@ -208,8 +217,19 @@ class GsonConfigurationFormat implements ConfigurationFormat {
         JsonReader handle = new JsonReader(reader);
         handle.setLenient(lenient);
         return new ObjectReader() {
+            /**
+             * Numbers are consumed from the JSON reader and lexed when they are peeked so the exact token type can be
+             * reported. The typed accessors then use the lexed value.
+             */
+            private final NumberLexer lexer = new NumberLexer();
+            // nullable
+            private String numberText = null;
+
             @Override
             public TokenType peek() {
+                if (numberText != null) {
+                    return lexer.getType();
+                }
                 JsonToken peek;
                 try {
                     peek = handle.peek();
@@ -230,7 +250,17 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 case STRING:
                     return TokenType.STRING;
                 case NUMBER:
-                    return TokenType.DOUBLE;
+                    String text;
+                    try {
+                        text = handle.nextString();
+                    } catch (IOException e) {
+                        throw new ConfigurationException(e);
+                    }
+                    if (!lexer.lex(text)) {
+                        throw new ConfigurationException("Malformed number " + text);
+                    }
+                    numberText = text;
+                    return lexer.getType();
                 case BOOLEAN:
                     return TokenType.BOOLEAN;
                 default:
@@ -238,8 +268,30 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 }
             }
 
+            /**
+             * Fail if a peeked number has not been consumed yet.
+             */
+            private void expectNoNumber(String expected) {
+                if (numberText != null) {
+                    throw new ConfigurationException("Expected " + expected + " but was NUMBER " + numberText);
+                }
+            }
+
+            /**
+             * Consume the peeked number.
+             */
+            private String takeNumber() {
+                String text = numberText;
+                numberText = null;
+                return text;
+            }
+
             @Override
             public void skipDeep() {
+                if (numberText != null) {
+                    numberText = null;
+                    return;
+                }
                 try {
                     handle.skipValue();
                 } catch (IOException e) {
@@ -249,6 +301,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
 
             @Override
             public void enterObject() {
+                expectNoNumber("BEGIN_OBJECT");
                 try {
                     handle.beginObject();
                 } catch (IOException e) {
@@ -258,6 +311,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
 
             @Override
             public void exitObject() {
+                expectNoNumber("END_OBJECT");
                 try {
                     handle.endObject();
                 } catch (IOException e) {
@@ -267,6 +321,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
 
             @Override
             public void enterList() {
+                expectNoNumber("BEGIN_ARRAY");
                 try {
                     handle.beginArray();
                 } catch (IOException e) {
@@ -276,6 +331,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
 
             @Override
             public void exitList() {
+                expectNoNumber("END_ARRAY");
                 try {
                     handle.endArray();
                 } catch (IOException e) {
@@ -285,6 +341,7 @@ class GsonConfigurationFormat implements ConfigurationFormat {
 
             @Override
             public String key() {
+                expectNoNumber("NAME");
                 try {
                     return handle.nextName();
                 } catch (IOException e) {
@@ -294,6 +351,9 @@ class GsonConfigurationFormat implements ConfigurationFormat {
 
             @Override
             public String stringValue() {
+                if (numberText != null) {
+                    return takeNumber();
+                }
                 try {
                     return handle.nextString();
                 } catch (IOException e) {
@@ -303,15 +363,39 @@ class GsonConfigurationFormat implements ConfigurationFormat {
 
             @Override
             public int intValue() {
-                try {
-                    return handle.nextInt();
-                } catch (IOException e) {
-                    throw new ConfigurationException(e);
+                if (numberText != null && lexer.getType() == TokenType.INT) {
+                    takeNumber();
+                    return (int) lexer.getLongValue();
                 }
+                long value = longValue();
+                if (value != (int) value) {
+                    throw new ConfigurationException("Expected an int but was " + value);
+                }
+                return (int) value;
             }
 
             @Override
             public long longValue() {
+                if (numberText != null) {
+                    String text = takeNumber();
+                    switch (lexer.getType()) {
+                    case INT:
+                    case LONG:
+                        return lexer.getLongValue();
+                    case DOUBLE:
+                        double value = lexer.getDoubleValue();
+                        if (value != (long) value) {
+                            throw new ConfigurationException("Expected a long but was " + text);
+                        }
+                        return (long) value;
+                    default:
+                        try {
+                            return new BigDecimal(text).longValueExact();
+                        } catch (ArithmeticException e) {
+                            throw new ConfigurationException("Expected a long but was " + text, e);
+                        }
+                    }
+                }
                 try {
                     return handle.nextLong();
                 } catch (IOException e) {
@@ -326,6 +410,18 @@ class GsonConfigurationFormat implements ConfigurationFormat {
 
             @Override
             public double doubleValue() {
+                if (numberText != null) {
+                    String text = takeNumber();
+                    switch (lexer.getType()) {
+                    case INT:
+                    case LONG:
+                        return lexer.getLongValue();
+                    case DOUBLE:
+                        return lexer.getDoubleValue();
+                    default:
+                        return Double.parseDouble(text);
+                    }
+                }
                 try {
                     return handle.nextDouble();
                 } catch (IOException e) {
@@ -333,8 +429,29 @@ class GsonConfigurationFormat implements ConfigurationFormat {
                 }
             }
 
+            @Override
+            public BigDecimal bigNumberValue() {
+                if (numberText != null) {
+                    String text = takeNumber();
+                    switch (lexer.getType()) {
+                    case INT:
+                    case LONG:
+                        return BigDecimal.valueOf(lexer.getLongValue());
+                    default:
+                        return new BigDecimal(text);
+                    }
+                }
+                String text = stringValue();
+                try {
+                    return new BigDecimal(text);
+                } catch (NumberFormatException e) {
+                    throw new ConfigurationException("Expected a number but was " + text, e);
+                }
+            }
+
             @Override
             public boolean booleanValue() {
+                expectNoNumber("BOOLEAN");
                 try {
                     return handle.nextBoolean();
                 } catch (IOException e) {
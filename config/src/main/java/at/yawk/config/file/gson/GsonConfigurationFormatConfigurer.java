@@ -8,6 +8,8 @@ package at.yawk.config.file.gson;
 
 import at.yawk.config.file.ConfigurationFormat;
 import at.yawk.config.file.ConfigurationFormatConfigurer;
+import at.yawk.config.file.FlushPolicy;
+import at.yawk.config.file.FlushingWriter;
 import com.google.gson.stream.JsonWriter;
 import java.util.Properties;
 import lombok.Getter;
@@ -31,7 +33,9 @@ public class GsonConfigurationFormatConfigurer implements ConfigurationFormatCon
         String indent = properties.getProperty("json.indent", "    ");
         boolean lenient = Boolean.parseBoolean(properties.getProperty("json.lenient", "true"));
         int commentWrapWidth = Integer.parseInt(properties.getProperty("commentWrapWidth", "80"));
+        FlushPolicy flushPolicy = FlushPolicy.fromProperties(properties);
+        int bufferSize = FlushingWriter.bufferSize(properties);
 
-        return new GsonConfigurationFormat(indent, lenient, commentWrapWidth);
+        return new GsonConfigurationFormat(indent, lenient, commentWrapWidth, flushPolicy, bufferSize);
     }
 }
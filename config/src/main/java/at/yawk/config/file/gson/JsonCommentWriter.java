@@ -0,0 +1,300 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.gson;
+
+import at.yawk.config.Util;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming JSON writer with support for {@code //} comments. Output matches the layout of gson's
+ * {@link com.google.gson.stream.JsonWriter} with the same indent, so documents can be read back by a lenient gson
+ * reader.
+ *
+ * @author yawkat
+ */
+final class JsonCommentWriter {
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private static final String[] REPLACEMENT_CHARS = new String[128];
+
+    static {
+        for (int i = 0; i < 0x20; i++) {
+            REPLACEMENT_CHARS[i] = String.format("\\u%04x", i);
+        }
+        REPLACEMENT_CHARS['"'] = "\\\"";
+        REPLACEMENT_CHARS['\\'] = "\\\\";
+        REPLACEMENT_CHARS['\t'] = "\\t";
+        REPLACEMENT_CHARS['\b'] = "\\b";
+        REPLACEMENT_CHARS['\n'] = "\\n";
+        REPLACEMENT_CHARS['\r'] = "\\r";
+        REPLACEMENT_CHARS['\f'] = "\\f";
+    }
+
+    private final Writer out;
+    private final String indent;
+    private final String separator;
+    private final boolean lenient;
+    private final int commentWrapWidth; // -1 for no wrap
+
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+
+    /**
+     * Comments after an element of an object or array. They are written once it is known whether another element
+     * follows, as the separator (comma) has to go before them.
+     */
+    private final List<String> pendingComments = new ArrayList<>();
+    /**
+     * Whether the current line ends in a comment and must be terminated before anything else is written.
+     */
+    private boolean commentPending = false;
+    private boolean started = false;
+
+    JsonCommentWriter(Writer out, String indent, boolean lenient, int commentWrapWidth) {
+        this.out = out;
+        this.indent = indent;
+        this.separator = indent.isEmpty() ? ":" : ": ";
+        this.lenient = lenient;
+        this.commentWrapWidth = commentWrapWidth;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * @return the nesting depth, {@code 0} at the top level.
+     */
+    int depth() {
+        return stackSize - 1;
+    }
+
+    void beginObject() throws IOException {
+        open(EMPTY_OBJECT, '{');
+    }
+
+    void endObject() throws IOException {
+        close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    void beginArray() throws IOException {
+        open(EMPTY_ARRAY, '[');
+    }
+
+    void endArray() throws IOException {
+        close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    void name(String name) throws IOException {
+        int context = peek();
+        if (context == NONEMPTY_OBJECT) {
+            out.write(',');
+            writePendingComments();
+        } else if (context != EMPTY_OBJECT) {
+            throw new IllegalStateException("Nesting problem");
+        }
+        newline();
+        finishComment();
+        string(name);
+        stack[stackSize - 1] = DANGLING_NAME;
+    }
+
+    void value(String value) throws IOException {
+        beforeValue();
+        string(value);
+    }
+
+    void value(int value) throws IOException {
+        beforeValue();
+        out.write(Integer.toString(value));
+    }
+
+    void value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+    }
+
+    void value(float value) throws IOException {
+        checkFinite(value);
+        beforeValue();
+        out.write(Float.toString(value));
+    }
+
+    void value(double value) throws IOException {
+        checkFinite(value);
+        beforeValue();
+        out.write(Double.toString(value));
+    }
+
+    void value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+    }
+
+    void value(BigDecimal value) throws IOException {
+        beforeValue();
+        out.write(value.toString());
+    }
+
+    /**
+     * Write a comment before the next element, wrapping it at the configured width.
+     */
+    void comment(String comment) throws IOException {
+        int context = peek();
+        if (context == NONEMPTY_OBJECT || context == NONEMPTY_ARRAY) {
+            pendingComments.add(comment);
+        } else {
+            writeComment(comment);
+        }
+    }
+
+    private void writeComment(String comment) throws IOException {
+        for (String line : commentWrapWidth >= 0 ? Util.wrap(comment, commentWrapWidth) : Arrays.asList(comment)) {
+            if (started) {
+                lineBreak();
+            }
+            out.write("// ");
+            out.write(line);
+            commentPending = true;
+            started = true;
+        }
+    }
+
+    private void checkFinite(double value) {
+        if (!lenient && (Double.isNaN(value) || Double.isInfinite(value))) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+    }
+
+    private int peek() {
+        return stack[stackSize - 1];
+    }
+
+    private void open(int empty, char bracket) throws IOException {
+        beforeValue();
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = empty;
+        out.write(bracket);
+    }
+
+    private void close(int empty, int nonempty, char bracket) throws IOException {
+        int context = peek();
+        if (context != nonempty && context != empty) {
+            throw new IllegalStateException("Nesting problem");
+        }
+        writePendingComments();
+        stackSize--;
+        if (context == nonempty) {
+            newline();
+        }
+        finishComment();
+        out.write(bracket);
+    }
+
+    private void beforeValue() throws IOException {
+        switch (peek()) {
+        case NONEMPTY_DOCUMENT:
+            if (!lenient) {
+                throw new IllegalStateException("JSON must have only one top-level value.");
+            }
+            lineBreak();
+            break;
+        case EMPTY_DOCUMENT:
+            stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+            break;
+        case EMPTY_ARRAY:
+            stack[stackSize - 1] = NONEMPTY_ARRAY;
+            newline();
+            break;
+        case NONEMPTY_ARRAY:
+            out.write(',');
+            writePendingComments();
+            newline();
+            break;
+        case DANGLING_NAME:
+            finishComment();
+            out.write(separator);
+            stack[stackSize - 1] = NONEMPTY_OBJECT;
+            break;
+        default:
+            throw new IllegalStateException("Nesting problem");
+        }
+        finishComment();
+        started = true;
+    }
+
+    private void writePendingComments() throws IOException {
+        for (String comment : pendingComments) {
+            writeComment(comment);
+        }
+        pendingComments.clear();
+    }
+
+    /**
+     * Start a new line at the current indentation. Without indent, this is only done to terminate a comment.
+     */
+    private void newline() throws IOException {
+        if (!indent.isEmpty() || commentPending) {
+            lineBreak();
+        }
+    }
+
+    private void lineBreak() throws IOException {
+        commentPending = false;
+        out.write('\n');
+        for (int i = 1; i < stackSize; i++) {
+            out.write(indent);
+        }
+    }
+
+    private void finishComment() throws IOException {
+        if (commentPending) {
+            newline();
+        }
+    }
+
+    private void string(String value) throws IOException {
+        out.write('"');
+        int last = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c < 128) {
+                replacement = REPLACEMENT_CHARS[c];
+                if (replacement == null) {
+                    continue;
+                }
+            } else if (c == '\u2028') {
+                replacement = "\\u2028";
+            } else if (c == '\u2029') {
+                replacement = "\\u2029";
+            } else {
+                continue;
+            }
+            if (last < i) {
+                out.write(value, last, i - last);
+            }
+            out.write(replacement);
+            last = i + 1;
+        }
+        if (last < length) {
+            out.write(value, last, length - last);
+        }
+        out.write('"');
+    }
+}
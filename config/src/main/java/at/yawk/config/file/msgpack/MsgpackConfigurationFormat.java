@@ -0,0 +1,67 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.msgpack;
+
+import at.yawk.config.file.ByteInput;
+import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.FlushPolicy;
+import at.yawk.config.file.FlushingOutputStream;
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.ObjectWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * MessagePack format, read and written without building a tree. Only byte streams and buffers are supported.
+ *
+ * @author yawkat
+ */
+@RequiredArgsConstructor
+class MsgpackConfigurationFormat implements ConfigurationFormat {
+    @Getter private final FlushPolicy flushPolicy;
+    @Getter private final int bufferSize;
+
+    @Override
+    public String getExtension() {
+        return ".msgpack";
+    }
+
+    @Override
+    public String getMimeType() {
+        return "application/msgpack";
+    }
+
+    @Override
+    public ObjectWriter createWriter(OutputStream outputStream) {
+        return new MsgpackWriter(FlushingOutputStream.wrap(outputStream, flushPolicy, bufferSize));
+    }
+
+    @Override
+    public ObjectWriter createWriter(Writer writer) {
+        throw new UnsupportedOperationException("MessagePack cannot be written to a character stream");
+    }
+
+    @Override
+    public ObjectReader createReader(InputStream inputStream) {
+        return new MsgpackReader(new ByteInput(inputStream));
+    }
+
+    @Override
+    public ObjectReader createReader(ByteBuffer buffer) {
+        return new MsgpackReader(new ByteInput(buffer));
+    }
+
+    @Override
+    public ObjectReader createReader(Reader reader) {
+        throw new UnsupportedOperationException("MessagePack cannot be read from a character stream");
+    }
+}
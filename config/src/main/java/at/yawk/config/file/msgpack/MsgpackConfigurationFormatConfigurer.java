@@ -0,0 +1,28 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.msgpack;
+
+import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.ConfigurationFormatConfigurer;
+import at.yawk.config.file.FlushPolicy;
+import at.yawk.config.file.FlushingWriter;
+import java.util.Properties;
+import lombok.Getter;
+
+/**
+ * @author yawkat
+ */
+public class MsgpackConfigurationFormatConfigurer implements ConfigurationFormatConfigurer {
+    @Getter private static final ConfigurationFormatConfigurer instance = new MsgpackConfigurationFormatConfigurer();
+
+    @Override
+    public ConfigurationFormat buildFormat(Properties properties) {
+        FlushPolicy flushPolicy = FlushPolicy.fromProperties(properties);
+        int bufferSize = FlushingWriter.bufferSize(properties);
+        return new MsgpackConfigurationFormat(flushPolicy, bufferSize);
+    }
+}
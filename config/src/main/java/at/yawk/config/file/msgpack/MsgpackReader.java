@@ -0,0 +1,453 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.msgpack;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.ByteInput;
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.TokenType;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Pull parser for MessagePack. Map keys must be strings or integers. Binary data is read as base64 text and
+ * {@code nil} as the empty string; extension types are not supported. Consecutive top-level objects are read as
+ * consecutive documents.
+ *
+ * @author yawkat
+ */
+final class MsgpackReader implements ObjectReader {
+    private static final int KIND_INTEGER = 0;
+    /**
+     * uint 64 beyond {@link Long#MAX_VALUE}.
+     */
+    private static final int KIND_UNSIGNED = 1;
+    private static final int KIND_FLOAT = 2;
+    private static final int KIND_DOUBLE = 3;
+    private static final int KIND_STRING = 4;
+    private static final int KIND_BINARY = 5;
+    private static final int KIND_NIL = 6;
+    private static final int KIND_BOOLEAN = 7;
+    private static final int KIND_MAP = 8;
+    private static final int KIND_ARRAY = 9;
+
+    private final ByteInput input;
+
+    // open containers
+
+    private boolean[] maps = new boolean[16];
+    /**
+     * Number of items (keys and values) in each container.
+     */
+    private long[] sizes = new long[16];
+    /**
+     * Number of items of each container that have been started.
+     */
+    private long[] counts = new long[16];
+    private int depth = 0;
+
+    // peeked token
+
+    // nullable
+    private TokenType type = null;
+    private int kind;
+    /**
+     * Integer value, float bits, boolean value, or length of strings and containers.
+     */
+    private long value;
+
+    MsgpackReader(ByteInput input) {
+        this.input = input;
+    }
+
+    ////// ObjectReader
+
+    @Override
+    public TokenType peek() {
+        if (type == null) {
+            try {
+                type = readToken();
+            } catch (IOException e) {
+                throw new ConfigurationException(e);
+            }
+        }
+        return type;
+    }
+
+    @Override
+    public void skipDeep() {
+        int level = 0;
+        try {
+            do {
+                switch (peek()) {
+                case ENTER_OBJECT:
+                case ENTER_LIST:
+                    enter(peek());
+                    level++;
+                    break;
+                case EXIT_OBJECT:
+                case EXIT_LIST:
+                    exit(peek());
+                    level--;
+                    break;
+                default:
+                    take();
+                    if (kind == KIND_STRING || kind == KIND_BINARY) {
+                        input.skip(value);
+                    }
+                    break;
+                }
+            } while (level > 0);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    @Override
+    public void enterObject() {
+        enter(TokenType.ENTER_OBJECT);
+    }
+
+    @Override
+    public void exitObject() {
+        exit(TokenType.EXIT_OBJECT);
+    }
+
+    @Override
+    public void enterList() {
+        enter(TokenType.ENTER_LIST);
+    }
+
+    @Override
+    public void exitList() {
+        exit(TokenType.EXIT_LIST);
+    }
+
+    @Override
+    public String key() {
+        if (peek() != TokenType.KEY) {
+            throw error("Expected KEY but got " + type);
+        }
+        take();
+        return text();
+    }
+
+    @Override
+    public String stringValue() {
+        scalar();
+        return text();
+    }
+
+    @Override
+    public int intValue() {
+        long value = longValue();
+        if (value != (int) value) {
+            throw error("Value out of range for int: " + value);
+        }
+        return (int) value;
+    }
+
+    @Override
+    public long longValue() {
+        scalar();
+        switch (kind) {
+        case KIND_INTEGER:
+            return value;
+        case KIND_UNSIGNED:
+            throw error("Value out of range for long: " + Long.toUnsignedString(value));
+        case KIND_FLOAT:
+        case KIND_DOUBLE:
+            double value = floating();
+            if (value != (long) value) {
+                throw error("Expected integer but got " + value);
+            }
+            return (long) value;
+        default:
+            String text = text();
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                throw error("Expected integer but got '" + text + "'");
+            }
+        }
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        scalar();
+        switch (kind) {
+        case KIND_INTEGER:
+            return value;
+        case KIND_UNSIGNED:
+            return new BigInteger(Long.toUnsignedString(value)).doubleValue();
+        case KIND_FLOAT:
+        case KIND_DOUBLE:
+            return floating();
+        default:
+            String text = text();
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw error("Expected number but got '" + text + "'");
+            }
+        }
+    }
+
+    @Override
+    public BigDecimal bigNumberValue() {
+        scalar();
+        switch (kind) {
+        case KIND_INTEGER:
+            return BigDecimal.valueOf(value);
+        case KIND_UNSIGNED:
+            return new BigDecimal(Long.toUnsignedString(value));
+        case KIND_FLOAT:
+        case KIND_DOUBLE:
+            return BigDecimal.valueOf(floating());
+        default:
+            String text = text();
+            try {
+                return new BigDecimal(text);
+            } catch (NumberFormatException e) {
+                throw error("Expected number but got '" + text + "'");
+            }
+        }
+    }
+
+    @Override
+    public boolean booleanValue() {
+        scalar();
+        if (kind == KIND_BOOLEAN) {
+            return value != 0;
+        }
+        return text().equalsIgnoreCase("true");
+    }
+
+    ////// tokens
+
+    private TokenType readToken() throws IOException {
+        if (depth > 0 && counts[depth - 1] == sizes[depth - 1]) {
+            return maps[depth - 1] ? TokenType.EXIT_OBJECT : TokenType.EXIT_LIST;
+        }
+        int format = input.readByte();
+        if (format < 0x80) {
+            set(KIND_INTEGER, format);
+        } else if (format < 0x90) {
+            set(KIND_MAP, format & 0x0f);
+        } else if (format < 0xa0) {
+            set(KIND_ARRAY, format & 0x0f);
+        } else if (format < 0xc0) {
+            set(KIND_STRING, format & 0x1f);
+        } else if (format >= 0xe0) {
+            set(KIND_INTEGER, (byte) format);
+        } else {
+            switch (format) {
+            case 0xc0:
+                set(KIND_NIL, 0);
+                break;
+            case 0xc2:
+            case 0xc3:
+                set(KIND_BOOLEAN, format & 1);
+                break;
+            case 0xc4:
+            case 0xc5:
+            case 0xc6:
+                set(KIND_BINARY, input.readFixed(1 << (format - 0xc4)));
+                break;
+            case 0xca:
+                set(KIND_FLOAT, input.readFixed(4));
+                break;
+            case 0xcb:
+                set(KIND_DOUBLE, input.readFixed(8));
+                break;
+            case 0xcc:
+            case 0xcd:
+            case 0xce:
+                set(KIND_INTEGER, input.readFixed(1 << (format - 0xcc)));
+                break;
+            case 0xcf:
+                long unsigned = input.readFixed(8);
+                set(unsigned < 0 ? KIND_UNSIGNED : KIND_INTEGER, unsigned);
+                break;
+            case 0xd0:
+                set(KIND_INTEGER, (byte) input.readFixed(1));
+                break;
+            case 0xd1:
+                set(KIND_INTEGER, (short) input.readFixed(2));
+                break;
+            case 0xd2:
+                set(KIND_INTEGER, (int) input.readFixed(4));
+                break;
+            case 0xd3:
+                set(KIND_INTEGER, input.readFixed(8));
+                break;
+            case 0xd9:
+            case 0xda:
+            case 0xdb:
+                set(KIND_STRING, input.readFixed(1 << (format - 0xd9)));
+                break;
+            case 0xdc:
+            case 0xdd:
+                set(KIND_ARRAY, input.readFixed(format == 0xdc ? 2 : 4));
+                break;
+            case 0xde:
+            case 0xdf:
+                set(KIND_MAP, input.readFixed(format == 0xde ? 2 : 4));
+                break;
+            default:
+                throw error(String.format("Unsupported format 0x%02x", format));
+            }
+        }
+
+        TokenType type;
+        switch (kind) {
+        case KIND_INTEGER:
+            type = value == (int) value ? TokenType.INT : TokenType.LONG;
+            break;
+        case KIND_UNSIGNED:
+            type = TokenType.BIG_NUMBER;
+            break;
+        case KIND_FLOAT:
+            type = TokenType.FLOAT;
+            break;
+        case KIND_DOUBLE:
+            type = TokenType.DOUBLE;
+            break;
+        case KIND_BOOLEAN:
+            type = TokenType.BOOLEAN;
+            break;
+        case KIND_MAP:
+            type = TokenType.ENTER_OBJECT;
+            break;
+        case KIND_ARRAY:
+            type = TokenType.ENTER_LIST;
+            break;
+        default:
+            type = TokenType.STRING;
+            break;
+        }
+
+        if (depth > 0 && maps[depth - 1] && (counts[depth - 1] & 1) == 0) {
+            if (kind != KIND_STRING && kind != KIND_INTEGER && kind != KIND_UNSIGNED) {
+                throw error("Unsupported map key of type " + type);
+            }
+            type = TokenType.KEY;
+        }
+        return type;
+    }
+
+    private void set(int kind, long value) {
+        this.kind = kind;
+        this.value = value;
+    }
+
+    /**
+     * Consume the peeked token. Its payload, if any, has to be consumed by the caller.
+     */
+    private TokenType take() {
+        TokenType type = peek();
+        this.type = null;
+        if (depth > 0 && type != TokenType.EXIT_OBJECT && type != TokenType.EXIT_LIST) {
+            counts[depth - 1]++;
+        }
+        return type;
+    }
+
+    /**
+     * Consume a scalar value.
+     */
+    private TokenType scalar() {
+        TokenType type = peek();
+        switch (type) {
+        case ENTER_OBJECT:
+        case EXIT_OBJECT:
+        case ENTER_LIST:
+        case EXIT_LIST:
+            throw error("Expected scalar but got " + type);
+        default:
+            return take();
+        }
+    }
+
+    private void enter(TokenType expected) {
+        if (peek() != expected) {
+            throw error("Expected " + expected + " but got " + type);
+        }
+        take();
+        if (depth == maps.length) {
+            maps = Arrays.copyOf(maps, depth * 2);
+            sizes = Arrays.copyOf(sizes, depth * 2);
+            counts = Arrays.copyOf(counts, depth * 2);
+        }
+        boolean map = kind == KIND_MAP;
+        maps[depth] = map;
+        sizes[depth] = map ? value * 2 : value;
+        counts[depth] = 0;
+        depth++;
+    }
+
+    private void exit(TokenType expected) {
+        if (peek() != expected) {
+            throw error("Expected " + expected + " but got " + type);
+        }
+        take();
+        depth--;
+    }
+
+    ////// payload
+
+    /**
+     * Text of the consumed scalar.
+     */
+    private String text() {
+        try {
+            switch (kind) {
+            case KIND_INTEGER:
+                return Long.toString(value);
+            case KIND_UNSIGNED:
+                return Long.toUnsignedString(value);
+            case KIND_FLOAT:
+                return Float.toString((float) floating());
+            case KIND_DOUBLE:
+                return Double.toString(floating());
+            case KIND_STRING:
+                return input.readString(length());
+            case KIND_BINARY:
+                return Base64.getEncoder().encodeToString(input.readBytes(length()));
+            case KIND_BOOLEAN:
+                return value != 0 ? "true" : "false";
+            default:
+                return "";
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    private double floating() {
+        return kind == KIND_FLOAT ? Float.intBitsToFloat((int) value) : Double.longBitsToDouble(value);
+    }
+
+    private int length() {
+        if (value > Integer.MAX_VALUE) {
+            throw error("Invalid length " + value);
+        }
+        return (int) value;
+    }
+
+    private ConfigurationException error(String message) {
+        return new ConfigurationException(message + " at offset " + input.offset());
+    }
+}
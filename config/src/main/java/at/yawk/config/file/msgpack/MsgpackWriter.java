@@ -0,0 +1,268 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.msgpack;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.FlushingOutputStream;
+import at.yawk.config.file.ObjectWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * MessagePack writer. Map and array headers carry the number of entries, which is not known until the collection is
+ * closed, so each top-level document is encoded into a byte buffer first. Every collection reserves room for the
+ * largest header and is moved back once its size is known, so the output uses the shortest encoding throughout.
+ * This includes top-level lists written element by element, which are held in memory until they are closed; flushing
+ * only passes on completed documents. Comments are dropped.
+ *
+ * @author yawkat
+ */
+final class MsgpackWriter implements ObjectWriter {
+    /**
+     * Size of the largest map or array header.
+     */
+    private static final int MAX_HEADER = 5;
+
+    private final FlushingOutputStream out;
+
+    private byte[] buffer = new byte[256];
+    private int size = 0;
+
+    // open collections
+
+    private boolean[] maps = new boolean[16];
+    /**
+     * Buffer position of the reserved header of each collection.
+     */
+    private int[] starts = new int[16];
+    /**
+     * Number of entries (key-value pairs for maps) of each collection.
+     */
+    private int[] counts = new int[16];
+    private int depth = 0;
+
+    MsgpackWriter(FlushingOutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public ObjectWriter key(String key) {
+        if (depth == 0 || !maps[depth - 1]) {
+            throw new IllegalStateException("Unexpected key");
+        }
+        counts[depth - 1]++;
+        writeString(key);
+        return this;
+    }
+
+    @Override
+    public ObjectWriter enterObject() {
+        return enter(true);
+    }
+
+    @Override
+    public ObjectWriter enterList() {
+        return enter(false);
+    }
+
+    @Override
+    public ObjectWriter exitObject() {
+        return exit(true);
+    }
+
+    @Override
+    public ObjectWriter exitList() {
+        return exit(false);
+    }
+
+    @Override
+    public ObjectWriter comment(String comment) {
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(String value) {
+        beforeValue();
+        writeString(value);
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(int value) {
+        return item((long) value);
+    }
+
+    @Override
+    public ObjectWriter item(long value) {
+        beforeValue();
+        if (value >= 0) {
+            if (value < 0x80) {
+                writeByte((int) value);
+            } else if (value < 0x100) {
+                writeFixed(0xcc, value, 1);
+            } else if (value < 0x10000) {
+                writeFixed(0xcd, value, 2);
+            } else if (value < 0x100000000L) {
+                writeFixed(0xce, value, 4);
+            } else {
+                writeFixed(0xcf, value, 8);
+            }
+        } else {
+            if (value >= -32) {
+                writeByte((int) value & 0xff);
+            } else if (value >= Byte.MIN_VALUE) {
+                writeFixed(0xd0, value, 1);
+            } else if (value >= Short.MIN_VALUE) {
+                writeFixed(0xd1, value, 2);
+            } else if (value >= Integer.MIN_VALUE) {
+                writeFixed(0xd2, value, 4);
+            } else {
+                writeFixed(0xd3, value, 8);
+            }
+        }
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(float value) {
+        beforeValue();
+        writeFixed(0xca, Float.floatToRawIntBits(value), 4);
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(double value) {
+        beforeValue();
+        writeFixed(0xcb, Double.doubleToRawLongBits(value), 8);
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter item(boolean value) {
+        beforeValue();
+        writeByte(value ? 0xc3 : 0xc2);
+        endValue();
+        return this;
+    }
+
+    @Override
+    public ObjectWriter flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+        return this;
+    }
+
+    private ObjectWriter enter(boolean map) {
+        beforeValue();
+        if (depth == maps.length) {
+            maps = Arrays.copyOf(maps, depth * 2);
+            starts = Arrays.copyOf(starts, depth * 2);
+            counts = Arrays.copyOf(counts, depth * 2);
+        }
+        maps[depth] = map;
+        starts[depth] = size;
+        counts[depth] = 0;
+        depth++;
+        ensureCapacity(MAX_HEADER);
+        size += MAX_HEADER;
+        return this;
+    }
+
+    private ObjectWriter exit(boolean map) {
+        if (depth == 0 || maps[depth - 1] != map) {
+            throw new IllegalStateException("Nesting problem");
+        }
+        depth--;
+        int start = starts[depth];
+        int count = counts[depth];
+        int headerLength = count < 16 ? 1 : count < 0x10000 ? 3 : 5;
+        int contentStart = start + MAX_HEADER;
+        System.arraycopy(buffer, contentStart, buffer, start + headerLength, size - contentStart);
+        size -= MAX_HEADER - headerLength;
+        if (headerLength == 1) {
+            buffer[start] = (byte) ((map ? 0x80 : 0x90) | count);
+        } else {
+            buffer[start] = (byte) (map ? (headerLength == 3 ? 0xde : 0xdf) : (headerLength == 3 ? 0xdc : 0xdd));
+            for (int i = headerLength - 1; i > 0; i--) {
+                buffer[start + i] = (byte) count;
+                count >>>= 8;
+            }
+        }
+        endValue();
+        return this;
+    }
+
+    /**
+     * Count a value in the enclosing array.
+     */
+    private void beforeValue() {
+        if (depth > 0 && !maps[depth - 1]) {
+            counts[depth - 1]++;
+        }
+    }
+
+    /**
+     * Called after a value has been written. Top-level values are passed on to the output.
+     */
+    private void endValue() {
+        if (depth == 0) {
+            try {
+                out.write(buffer, 0, size);
+                size = 0;
+                out.endDocument();
+            } catch (IOException e) {
+                throw new ConfigurationException(e);
+            }
+        }
+    }
+
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        if (length < 32) {
+            writeByte(0xa0 | length);
+        } else if (length < 0x100) {
+            writeFixed(0xd9, length, 1);
+        } else if (length < 0x10000) {
+            writeFixed(0xda, length, 2);
+        } else {
+            writeFixed(0xdb, length, 4);
+        }
+        ensureCapacity(length);
+        System.arraycopy(bytes, 0, buffer, size, length);
+        size += length;
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) b;
+    }
+
+    private void writeFixed(int format, long bits, int length) {
+        ensureCapacity(length + 1);
+        buffer[size] = (byte) format;
+        for (int i = length; i > 0; i--) {
+            buffer[size + i] = (byte) bits;
+            bits >>>= 8;
+        }
+        size += length + 1;
+    }
+
+    private void ensureCapacity(int n) {
+        if (buffer.length - size < n) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + n));
+        }
+    }
+}
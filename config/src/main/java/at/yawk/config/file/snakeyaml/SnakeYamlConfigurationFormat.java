@@ -9,6 +9,9 @@ package at.yawk.config.file.snakeyaml;
 import at.yawk.config.ConfigurationException;
 import at.yawk.config.Util;
 import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.FlushPolicy;
+import at.yawk.config.file.FlushingWriter;
+import at.yawk.config.file.NumberLexer;
 import at.yawk.config.file.ObjectReader;
 import at.yawk.config.file.ObjectWriter;
 import at.yawk.config.file.TokenType;
@@ -16,6 +19,8 @@ import at.yawk.reflect.Methods;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.math.BigDecimal;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.emitter.Emitter;
@@ -30,6 +35,8 @@ import org.yaml.snakeyaml.reader.StreamReader;
 @RequiredArgsConstructor
 class SnakeYamlConfigurationFormat implements ConfigurationFormat {
     private final DumperOptions dumperOptions;
+    @Getter private final FlushPolicy flushPolicy;
+    @Getter private final int bufferSize;
 
     @Override
     public String getExtension() {
@@ -43,7 +50,8 @@ class SnakeYamlConfigurationFormat implements ConfigurationFormat {
 
     @Override
     public ObjectWriter createWriter(Writer writer) {
-        Emitter emitter = new Emitter(writer, dumperOptions);
+        FlushingWriter out = FlushingWriter.wrap(writer, flushPolicy, bufferSize);
+        Emitter emitter = new Emitter(out, dumperOptions);
         return new ObjectWriter() {
             boolean start = true;
             int depth = 0;
@@ -61,9 +69,9 @@ class SnakeYamlConfigurationFormat implements ConfigurationFormat {
                 }
                 if (event instanceof CollectionStartEvent) { depth++; }
                 if (event instanceof CollectionEndEvent) { depth--; }
-                if (depth == 0) {
+                if (depth == 0 && (event instanceof CollectionEndEvent || event instanceof ScalarEvent)) {
                     try {
-                        writer.flush();
+                        out.endDocument();
                     } catch (IOException e) {
                         throw new ConfigurationException(e);
                     }
@@ -114,7 +122,7 @@ class SnakeYamlConfigurationFormat implements ConfigurationFormat {
                 for (String line : Util.wrap(comment, dumperOptions.getWidth())) {
                     Methods.of(emitter).name("writeIndent").invoke();
                     try {
-                        writer.write("# " + line);
+                        out.write("# " + line);
                     } catch (IOException e) {
                         throw new ConfigurationException(e);
                     }
@@ -160,6 +168,21 @@ class SnakeYamlConfigurationFormat implements ConfigurationFormat {
             public ObjectWriter item(boolean value) {
                 return item(String.valueOf(value));
             }
+
+            @Override
+            public ObjectWriter item(BigDecimal value) {
+                return item(value.toString());
+            }
+
+            @Override
+            public ObjectWriter flush() {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                return this;
+            }
         };
     }
 
@@ -167,35 +190,45 @@ class SnakeYamlConfigurationFormat implements ConfigurationFormat {
     public ObjectReader createReader(Reader reader) {
         Parser parser = new ParserImpl(new StreamReader(reader));
         return new ObjectReader() {
+            private final NumberLexer lexer = new NumberLexer();
+
+            private boolean isDocumentEvent(Event evt) {
+                return evt instanceof StreamStartEvent ||
+                       evt instanceof StreamEndEvent ||
+                       evt instanceof DocumentStartEvent ||
+                       evt instanceof DocumentEndEvent;
+            }
+
             private Event poll() {
                 Event evt;
                 do {
                     evt = parser.getEvent();
-                } while (evt instanceof StreamStartEvent ||
-                         evt instanceof StreamEndEvent ||
-                         evt instanceof DocumentStartEvent ||
-                         evt instanceof DocumentEndEvent);
+                } while (isDocumentEvent(evt));
                 return evt;
             }
 
-            @SuppressWarnings("ResultOfMethodCallIgnored")
+            private Event peekEvent() {
+                while (isDocumentEvent(parser.peekEvent())) {
+                    parser.getEvent();
+                }
+                return parser.peekEvent();
+            }
+
             @Override
             public TokenType peek() {
-                Event event = parser.peekEvent();
+                Event event = peekEvent();
                 if (event instanceof SequenceStartEvent) { return TokenType.ENTER_LIST; }
                 if (event instanceof SequenceEndEvent) { return TokenType.EXIT_LIST; }
                 if (event instanceof MappingStartEvent) { return TokenType.ENTER_OBJECT; }
                 if (event instanceof MappingEndEvent) { return TokenType.EXIT_OBJECT; }
                 if (event instanceof ScalarEvent) {
                     String value = ((ScalarEvent) event).getValue();
-                    try {
-                        Long.parseLong(value);
-                        return TokenType.LONG;
-                    } catch (NumberFormatException ignored) {}
-                    try {
-                        Double.parseDouble(value);
+                    if (lexer.lex(value)) {
+                        return lexer.getType();
+                    }
+                    if (value.equals("NaN") || value.equals("Infinity") || value.equals("-Infinity")) {
                         return TokenType.DOUBLE;
-                    } catch (NumberFormatException ignored) {}
+                    }
                     if (value.equals("true") || value.equals("false")) {
                         return TokenType.BOOLEAN;
                     }
@@ -206,6 +239,7 @@ class SnakeYamlConfigurationFormat implements ConfigurationFormat {
 
             @Override
             public void skipDeep() {
+                // the parser builds an event for every skipped node, we can only avoid binding it
                 int depth = 0;
                 do {
                     Event event = poll();
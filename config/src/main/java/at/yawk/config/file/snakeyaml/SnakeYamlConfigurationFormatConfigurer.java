@@ -8,6 +8,8 @@ package at.yawk.config.file.snakeyaml;
 
 import at.yawk.config.file.ConfigurationFormat;
 import at.yawk.config.file.ConfigurationFormatConfigurer;
+import at.yawk.config.file.FlushPolicy;
+import at.yawk.config.file.FlushingWriter;
 import java.util.Properties;
 import lombok.Getter;
 import org.yaml.snakeyaml.DumperOptions;
@@ -52,6 +54,8 @@ public class SnakeYamlConfigurationFormatConfigurer implements ConfigurationForm
                 properties.getProperty("yaml.prettyFlow", "true")));
         dumperOptions.setWidth(Integer.parseInt(
                 properties.getProperty("yaml.width", "80")));
-        return new SnakeYamlConfigurationFormat(dumperOptions);
+        FlushPolicy flushPolicy = FlushPolicy.fromProperties(properties);
+        int bufferSize = FlushingWriter.bufferSize(properties);
+        return new SnakeYamlConfigurationFormat(dumperOptions, flushPolicy, bufferSize);
     }
 }
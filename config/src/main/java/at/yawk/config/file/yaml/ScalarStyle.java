@@ -0,0 +1,112 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.yaml;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+
+/**
+ * Style in which a string scalar is written.
+ *
+ * @author yawkat
+ */
+enum ScalarStyle {
+    PLAIN,
+    SINGLE_QUOTED,
+    DOUBLE_QUOTED;
+
+    /**
+     * Plain scalars that YAML 1.1 resolves to something other than a string, and the Java spellings of infinity and
+     * NaN that {@link YamlReader} reads as numbers because {@link Double#toString(double)} produces them.
+     */
+    private static final Set<String> RESERVED = ImmutableSet.of(
+            "~", "null", "Null", "NULL",
+            "y", "Y", "yes", "Yes", "YES", "n", "N", "no", "No", "NO",
+            "true", "True", "TRUE", "false", "False", "FALSE",
+            "on", "On", "ON", "off", "Off", "OFF",
+            "=", "<<",
+            "Infinity", "+Infinity", "-Infinity", "NaN"
+    );
+
+    /**
+     * Pick the simplest style that reads back as the given string.
+     */
+    static ScalarStyle of(String value, boolean allowUnicode) {
+        boolean plain = isPlainSafe(value);
+        for (int i = 0; i < value.length(); i++) {
+            if (!isPrintable(value.charAt(i), allowUnicode)) {
+                return DOUBLE_QUOTED;
+            }
+        }
+        return plain ? PLAIN : SINGLE_QUOTED;
+    }
+
+    static boolean isPrintable(char c, boolean allowUnicode) {
+        if (c >= 0x20 && c < 0x7f) { return true; }
+        if (!allowUnicode) { return false; }
+        return c >= 0xa0 && c != 0x2028 && c != 0x2029 && c != 0xfeff && c != 0xfffe && c != 0xffff;
+    }
+
+    private static boolean isPlainSafe(String value) {
+        int length = value.length();
+        if (length == 0 || RESERVED.contains(value)) { return false; }
+        char first = value.charAt(0);
+        switch (first) {
+        case '#':
+        case ',':
+        case '[':
+        case ']':
+        case '{':
+        case '}':
+        case '&':
+        case '*':
+        case '!':
+        case '|':
+        case '>':
+        case '\'':
+        case '"':
+        case '%':
+        case '@':
+        case '`':
+        case ' ':
+            return false;
+        case '-':
+        case '?':
+        case ':':
+            if (length == 1 || value.charAt(1) == ' ') { return false; }
+            break;
+        }
+        if (value.charAt(length - 1) == ' ' || value.charAt(length - 1) == ':') { return false; }
+        if (looksNumeric(value)) { return false; }
+        for (int i = 0; i < length - 1; i++) {
+            char c = value.charAt(i);
+            char next = value.charAt(i + 1);
+            if ((c == ':' && next == ' ') || (c == ' ' && next == '#')) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Conservatively check whether the given plain scalar might be resolved as a number or timestamp.
+     */
+    private static boolean looksNumeric(String value) {
+        int i = 0;
+        char c = value.charAt(0);
+        if (c == '+' || c == '-') {
+            if (value.length() == 1) { return false; }
+            c = value.charAt(++i);
+        }
+        if (c >= '0' && c <= '9') { return true; }
+        if (c == '.' && i + 1 < value.length()) {
+            char next = value.charAt(i + 1);
+            return (next >= '0' && next <= '9') ||
+                   value.regionMatches(true, i, ".inf", 0, 4) ||
+                   value.regionMatches(true, i, ".nan", 0, 4);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.yaml;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.FlushPolicy;
+import at.yawk.config.file.FlushingWriter;
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.ObjectWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * YAML format that reads and writes through the native {@link YamlReader} and {@link YamlWriter}, without depending
+ * on SnakeYAML.
+ *
+ * @author yawkat
+ */
+@RequiredArgsConstructor
+class YamlConfigurationFormat implements ConfigurationFormat {
+    private final int indent;
+    private final int width;
+    private final boolean allowUnicode;
+    @Getter private final FlushPolicy flushPolicy;
+    @Getter private final int bufferSize;
+
+    @Override
+    public String getExtension() {
+        return ".yml";
+    }
+
+    @Override
+    public String getMimeType() {
+        return "application/x-yaml";
+    }
+
+    @Override
+    public ObjectWriter createWriter(Writer writer) {
+        FlushingWriter out = FlushingWriter.wrap(writer, flushPolicy, bufferSize);
+        YamlWriter handle = new YamlWriter(out, indent, width, allowUnicode);
+        return new ObjectWriter() {
+            private void endDocument() {
+                if (handle.depth() == 0) {
+                    try {
+                        out.endDocument();
+                    } catch (IOException e) {
+                        throw new ConfigurationException(e);
+                    }
+                }
+            }
+
+            @Override
+            public ObjectWriter key(String key) {
+                try {
+                    handle.key(key);
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                return this;
+            }
+
+            @Override
+            public ObjectWriter enterObject() {
+                try {
+                    handle.beginMapping();
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                return this;
+            }
+
+            @Override
+            public ObjectWriter enterList() {
+                try {
+                    handle.beginSequence();
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                return this;
+            }
+
+            @Override
+            public ObjectWriter exitObject() {
+                try {
+                    handle.endMapping();
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                endDocument();
+                return this;
+            }
+
+            @Override
+            public ObjectWriter exitList() {
+                try {
+                    handle.endSequence();
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                endDocument();
+                return this;
+            }
+
+            @Override
+            public ObjectWriter comment(String comment) {
+                try {
+                    handle.comment(comment);
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                return this;
+            }
+
+            @Override
+            public ObjectWriter item(String value) {
+                try {
+                    handle.value(value);
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                endDocument();
+                return this;
+            }
+
+            @Override
+            public ObjectWriter item(int value) {
+                try {
+                    handle.value(value);
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                endDocument();
+                return this;
+            }
+
+            @Override
+            public ObjectWriter item(long value) {
+                try {
+                    handle.value(value);
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                endDocument();
+                return this;
+            }
+
+            @Override
+            public ObjectWriter item(float value) {
+                try {
+                    handle.value(value);
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                endDocument();
+                return this;
+            }
+
+            @Override
+            public ObjectWriter item(double value) {
+                try {
+                    handle.value(value);
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                endDocument();
+                return this;
+            }
+
+            @Override
+            public ObjectWriter item(boolean value) {
+                try {
+                    handle.value(value);
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                endDocument();
+                return this;
+            }
+
+            @Override
+            public ObjectWriter item(BigDecimal value) {
+                try {
+                    handle.value(value);
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                endDocument();
+                return this;
+            }
+
+            @Override
+            public ObjectWriter flush() {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    throw new ConfigurationException(e);
+                }
+                return this;
+            }
+        };
+    }
+
+    @Override
+    public ObjectReader createReader(Reader reader) {
+        return new YamlReader(reader);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.yaml;
+
+import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.ConfigurationFormatConfigurer;
+import at.yawk.config.file.FlushPolicy;
+import at.yawk.config.file.FlushingWriter;
+import java.util.Properties;
+import lombok.Getter;
+
+/**
+ * @author yawkat
+ */
+public class YamlConfigurationFormatConfigurer implements ConfigurationFormatConfigurer {
+    @Getter private static final ConfigurationFormatConfigurer instance = new YamlConfigurationFormatConfigurer();
+
+    @Override
+    public ConfigurationFormat buildFormat(Properties properties) {
+        int indent = Integer.parseInt(properties.getProperty("yaml.indent", "2"));
+        int width = Integer.parseInt(properties.getProperty("yaml.width", "80"));
+        boolean allowUnicode = Boolean.parseBoolean(properties.getProperty("yaml.allowUnicode", "false"));
+        FlushPolicy flushPolicy = FlushPolicy.fromProperties(properties);
+        int bufferSize = FlushingWriter.bufferSize(properties);
+
+        return new YamlConfigurationFormat(indent, width, allowUnicode, flushPolicy, bufferSize);
+    }
+}
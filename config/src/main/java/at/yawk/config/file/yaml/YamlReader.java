@@ -0,0 +1,1023 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.yaml;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.NumberLexer;
+import at.yawk.config.file.ObjectReader;
+import at.yawk.config.file.TokenType;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Pull parser for the subset of YAML used in configuration files: block and flow mappings and sequences, plain,
+ * quoted and block scalars, comments and multiple documents. Anchors, aliases, tags and explicit keys are not
+ * supported.
+ * <p>
+ * Input is parsed line by line into a queue of tokens, which is refilled whenever it runs empty. Plain scalars are
+ * classified as boolean, integer, floating point or string when they are first peeked, and numbers are parsed at the
+ * same time, so reading them later needs no further parsing. Values skipped with {@link #skipDeep()} are never
+ * classified.
+ *
+ * @author yawkat
+ */
+final class YamlReader implements ObjectReader {
+    private static final int MAPPING = 0;
+    private static final int SEQUENCE = 1;
+
+    private final Reader reader;
+
+    // input
+
+    private final char[] buffer = new char[8192];
+    private int bufferPosition = 0;
+    private int bufferLimit = 0;
+    private boolean endOfInput = false;
+
+    private char[] line = new char[256];
+    private int lineLength = 0;
+    private int lineNumber = 0;
+    /**
+     * Position in the current line.
+     */
+    private int pos = 0;
+    /**
+     * Whether the current line has been read but not processed yet.
+     */
+    private boolean lineAvailable = false;
+
+    // open block collections
+
+    private int[] frameKinds = new int[16];
+    private int[] frameIndents = new int[16];
+    /**
+     * Whether the last key or sequence entry of the collection has no value yet. The value may start on the next line.
+     */
+    private boolean[] frameAwaiting = new boolean[16];
+    private int frameCount = 0;
+
+    // token queue
+
+    private TokenType[] types = new TokenType[16];
+    private String[] texts = new String[16];
+    private long[] longValues = new long[16];
+    private double[] doubleValues = new double[16];
+    /**
+     * Whether the token is a plain scalar that has not been classified yet.
+     */
+    private boolean[] unclassified = new boolean[16];
+    private int head = 0;
+    private int tail = 0;
+
+    private boolean finished = false;
+
+    private final NumberLexer lexer = new NumberLexer();
+
+    YamlReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    ////// ObjectReader
+
+    @Override
+    public TokenType peek() {
+        ensureToken();
+        if (unclassified[head]) {
+            unclassified[head] = false;
+            classify(head);
+        }
+        return types[head];
+    }
+
+    @Override
+    public void skipDeep() {
+        int depth = 0;
+        do {
+            ensureToken();
+            TokenType type = types[head];
+            if (type == TokenType.ENTER_OBJECT || type == TokenType.ENTER_LIST) { depth++; }
+            if (type == TokenType.EXIT_OBJECT || type == TokenType.EXIT_LIST) { depth--; }
+            head++;
+        } while (depth > 0);
+    }
+
+    @Override
+    public void enterObject() {
+        expect(TokenType.ENTER_OBJECT);
+    }
+
+    @Override
+    public void exitObject() {
+        expect(TokenType.EXIT_OBJECT);
+    }
+
+    @Override
+    public void enterList() {
+        expect(TokenType.ENTER_LIST);
+    }
+
+    @Override
+    public void exitList() {
+        expect(TokenType.EXIT_LIST);
+    }
+
+    @Override
+    public String key() {
+        expect(TokenType.KEY);
+        return texts[head - 1];
+    }
+
+    @Override
+    public String stringValue() {
+        scalar();
+        return texts[head - 1];
+    }
+
+    @Override
+    public int intValue() {
+        long value = longValue();
+        if (value != (int) value) {
+            throw new ConfigurationException("Value out of range for int: " + value);
+        }
+        return (int) value;
+    }
+
+    @Override
+    public long longValue() {
+        int slot = number();
+        if (types[slot] == TokenType.BIG_NUMBER) {
+            try {
+                return new BigDecimal(texts[slot]).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new ConfigurationException("Value out of range for long: " + texts[slot], e);
+            }
+        }
+        if (types[slot] == TokenType.DOUBLE) {
+            double value = doubleValues[slot];
+            if (value != (long) value) {
+                throw new ConfigurationException("Expected integer but got " + texts[slot]);
+            }
+            return (long) value;
+        }
+        return longValues[slot];
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        int slot = number();
+        switch (types[slot]) {
+        case DOUBLE:
+            return doubleValues[slot];
+        case BIG_NUMBER:
+            return Double.parseDouble(texts[slot]);
+        default:
+            return longValues[slot];
+        }
+    }
+
+    @Override
+    public BigDecimal bigNumberValue() {
+        int slot = number();
+        switch (types[slot]) {
+        case DOUBLE:
+            if (Double.isNaN(doubleValues[slot]) || Double.isInfinite(doubleValues[slot])) {
+                throw error("Expected finite number but got '" + texts[slot] + "'");
+            }
+            return new BigDecimal(texts[slot]);
+        case BIG_NUMBER:
+            return new BigDecimal(texts[slot]);
+        default:
+            return BigDecimal.valueOf(longValues[slot]);
+        }
+    }
+
+    @Override
+    public boolean booleanValue() {
+        int slot = scalar();
+        if (types[slot] == TokenType.BOOLEAN) {
+            return longValues[slot] != 0;
+        }
+        return texts[slot].equalsIgnoreCase("true");
+    }
+
+    private void expect(TokenType type) {
+        TokenType actual = peek();
+        if (actual != type) {
+            throw error("Expected " + type + " but got " + actual);
+        }
+        head++;
+    }
+
+    /**
+     * Consume a scalar token.
+     *
+     * @return the queue slot of the token.
+     */
+    private int scalar() {
+        TokenType type = peek();
+        switch (type) {
+        case ENTER_OBJECT:
+        case EXIT_OBJECT:
+        case ENTER_LIST:
+        case EXIT_LIST:
+            throw error("Expected scalar but got " + type);
+        default:
+            return head++;
+        }
+    }
+
+    /**
+     * Consume a numeric token. Quoted strings are accepted if their content is a number.
+     *
+     * @return the queue slot of the token.
+     */
+    private int number() {
+        int slot = scalar();
+        if (types[slot] == TokenType.STRING || types[slot] == TokenType.KEY) {
+            classify(slot);
+        }
+        TokenType type = types[slot];
+        if (type != TokenType.INT && type != TokenType.LONG && type != TokenType.DOUBLE &&
+            type != TokenType.BIG_NUMBER) {
+            throw error("Expected number but got '" + texts[slot] + "'");
+        }
+        return slot;
+    }
+
+    private void ensureToken() {
+        while (head == tail) {
+            head = tail = 0;
+            if (finished) {
+                throw error("Unexpected end of document");
+            }
+            try {
+                fill();
+            } catch (IOException e) {
+                throw new ConfigurationException(e);
+            }
+        }
+    }
+
+    ////// token queue
+
+    private int push(TokenType type, String text) {
+        if (tail == types.length) {
+            int capacity = tail * 2;
+            types = Arrays.copyOf(types, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            longValues = Arrays.copyOf(longValues, capacity);
+            doubleValues = Arrays.copyOf(doubleValues, capacity);
+            unclassified = Arrays.copyOf(unclassified, capacity);
+        }
+        types[tail] = type;
+        texts[tail] = text;
+        unclassified[tail] = false;
+        return tail++;
+    }
+
+    private void pushScalar(String text, boolean plain) {
+        int slot = push(TokenType.STRING, text);
+        unclassified[slot] = plain;
+    }
+
+    /**
+     * Determine the type of a plain scalar and parse its value. Strings that are not numbers or booleans are left as
+     * {@link TokenType#STRING}.
+     */
+    private void classify(int slot) {
+        String text = texts[slot];
+        int length = text.length();
+        if (length == 0) { return; }
+        if (isBoolean(text)) {
+            types[slot] = TokenType.BOOLEAN;
+            longValues[slot] = text.length() == 4 ? 1 : 0;
+            return;
+        }
+
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        if (classifySpecial(slot, text, i, negative)) { return; }
+
+        if (lexer.lex(text)) {
+            types[slot] = lexer.getType();
+            longValues[slot] = lexer.getLongValue();
+            doubleValues[slot] = lexer.getDoubleValue();
+        }
+    }
+
+    /**
+     * Check whether the given plain scalar is one of the YAML 1.1 spellings of a boolean that the writer quotes.
+     * Other capitalizations such as {@code tRUE} stay strings.
+     */
+    private static boolean isBoolean(String text) {
+        switch (text) {
+        case "true":
+        case "True":
+        case "TRUE":
+        case "false":
+        case "False":
+        case "FALSE":
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Classify infinity and NaN, in both YAML ({@code .inf}) and Java ({@code Infinity}) spelling.
+     */
+    private boolean classifySpecial(int slot, String text, int start, boolean negative) {
+        int remaining = text.length() - start;
+        double value;
+        if ((remaining == 4 && text.regionMatches(true, start, ".inf", 0, 4)) ||
+            (remaining == 8 && text.regionMatches(start, "Infinity", 0, 8))) {
+            value = negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        } else if (start == 0 && (text.equalsIgnoreCase(".nan") || text.equals("NaN"))) {
+            value = Double.NaN;
+        } else {
+            return false;
+        }
+        types[slot] = TokenType.DOUBLE;
+        doubleValues[slot] = value;
+        return true;
+    }
+
+    ////// block structure
+
+    /**
+     * Parse input until at least one token has been queued or the input ends.
+     */
+    private void fill() throws IOException {
+        while (head == tail) {
+            if (!lineAvailable && !readLine()) {
+                closeFrames();
+                finished = true;
+                return;
+            }
+            lineAvailable = false;
+            pos = 0;
+            int indent = 0;
+            while (indent < lineLength && line[indent] == ' ') { indent++; }
+            pos = indent;
+            if (pos == lineLength || line[pos] == '#') {
+                continue; // blank or comment
+            }
+            if (line[pos] == '\t') {
+                throw error("Tabs are not allowed for indentation");
+            }
+            if (indent == 0 && (isDocumentMarker('-') || isDocumentMarker('.'))) {
+                closeFrames();
+                pos = 3;
+                skipSpaces();
+                if (line[0] == '-' && !atEndOfContent()) {
+                    node(pos, -1);
+                }
+                continue;
+            }
+            if (indent == 0 && frameCount == 0 && line[0] == '%') {
+                continue; // directive
+            }
+            blockLine(indent);
+        }
+    }
+
+    private void blockLine(int indent) throws IOException {
+        while (frameCount > 0) {
+            int top = frameCount - 1;
+            int frameIndent = frameIndents[top];
+            if (frameAwaiting[top]) {
+                frameAwaiting[top] = false;
+                if (indent > frameIndent ||
+                    (indent == frameIndent && frameKinds[top] == MAPPING && atSequenceEntry())) {
+                    node(indent, frameIndent);
+                    return;
+                }
+                pushScalar("", false);
+            }
+            if (indent < frameIndent ||
+                (indent == frameIndent && frameKinds[top] == SEQUENCE && !atSequenceEntry())) {
+                closeFrame();
+            } else {
+                break;
+            }
+        }
+        if (frameCount == 0) {
+            node(indent, -1);
+            return;
+        }
+        int top = frameCount - 1;
+        if (indent != frameIndents[top]) {
+            throw error("Bad indentation");
+        }
+        if (frameKinds[top] == MAPPING) {
+            mappingEntry();
+        } else {
+            sequenceEntry();
+        }
+    }
+
+    /**
+     * Parse a block node starting at the current position.
+     *
+     * @param column        column of the node.
+     * @param parentIndent  indent of the enclosing collection, {@code -1} at the top level.
+     */
+    private void node(int column, int parentIndent) throws IOException {
+        if (atSequenceEntry()) {
+            pushFrame(SEQUENCE, column);
+            push(TokenType.ENTER_LIST, null);
+            sequenceEntry();
+            return;
+        }
+        char c = line[pos];
+        if (c == '[' || c == '{') {
+            flowNode();
+            endOfLine();
+            return;
+        }
+        if (c == '|' || c == '>') {
+            blockScalar(parentIndent);
+            return;
+        }
+        checkNodeStart();
+        boolean plain = c != '\'' && c != '"';
+        String text = plain ? scanPlain(false) : scanQuoted();
+        skipSpaces();
+        if (atMappingValueIndicator(false)) {
+            pushFrame(MAPPING, column);
+            push(TokenType.ENTER_OBJECT, null);
+            push(TokenType.KEY, text);
+            pos++;
+            mappingValue();
+            return;
+        }
+        scalarValue(text, plain, parentIndent);
+    }
+
+    private void mappingEntry() throws IOException {
+        char c = line[pos];
+        checkNodeStart();
+        String key = c == '\'' || c == '"' ? scanQuoted() : scanPlain(false);
+        skipSpaces();
+        if (!atMappingValueIndicator(false)) {
+            throw error("Expected ':' after key '" + key + "'");
+        }
+        push(TokenType.KEY, key);
+        pos++;
+        mappingValue();
+    }
+
+    private void mappingValue() throws IOException {
+        int top = frameCount - 1;
+        skipSpaces();
+        if (atEndOfContent()) {
+            frameAwaiting[top] = true;
+            return;
+        }
+        char c = line[pos];
+        if (c == '[' || c == '{') {
+            flowNode();
+            endOfLine();
+            return;
+        }
+        if (c == '|' || c == '>') {
+            blockScalar(frameIndents[top]);
+            return;
+        }
+        if (atSequenceEntry()) {
+            throw error("Block sequences must start on a new line");
+        }
+        checkNodeStart();
+        boolean plain = c != '\'' && c != '"';
+        String text = plain ? scanPlain(false) : scanQuoted();
+        skipSpaces();
+        if (atMappingValueIndicator(false)) {
+            throw error("Nested mappings must start on a new line");
+        }
+        scalarValue(text, plain, frameIndents[top]);
+    }
+
+    private void sequenceEntry() throws IOException {
+        int top = frameCount - 1;
+        pos++; // '-'
+        skipSpaces();
+        if (atEndOfContent()) {
+            frameAwaiting[top] = true;
+            return;
+        }
+        node(pos, frameIndents[top]);
+    }
+
+    /**
+     * Queue a block scalar value and finish the line. Plain scalars may continue on following lines that are indented
+     * further than the enclosing collection.
+     */
+    private void scalarValue(String text, boolean plain, int parentIndent) throws IOException {
+        if (plain && pos == lineLength) {
+            text = plainContinuation(text, parentIndent);
+        } else {
+            endOfLine();
+        }
+        pushScalar(text, plain);
+    }
+
+    private String plainContinuation(String text, int parentIndent) throws IOException {
+        StringBuilder builder = null;
+        int emptyLines = 0;
+        while (readLine()) {
+            int indent = 0;
+            while (indent < lineLength && line[indent] == ' ') { indent++; }
+            if (indent == lineLength) {
+                emptyLines++;
+                continue;
+            }
+            if (indent <= parentIndent || line[indent] == '#' ||
+                (indent == 0 && (isDocumentMarker('-') || isDocumentMarker('.')))) {
+                lineAvailable = true;
+                break;
+            }
+            pos = indent;
+            String continuation = scanPlain(false);
+            if (atMappingValueIndicator(false)) {
+                throw error("Unexpected ':' in multi-line plain scalar");
+            }
+            endOfLine();
+            if (builder == null) { builder = new StringBuilder(text); }
+            if (emptyLines == 0) {
+                builder.append(' ');
+            } else {
+                for (; emptyLines > 0; emptyLines--) { builder.append('\n'); }
+            }
+            builder.append(continuation);
+        }
+        return builder == null ? text : builder.toString();
+    }
+
+    /**
+     * Parse a literal ({@code |}) or folded ({@code >}) block scalar.
+     */
+    private void blockScalar(int parentIndent) throws IOException {
+        boolean literal = line[pos++] == '|';
+        int chomping = 0; // -1 strip, 0 clip, 1 keep
+        int explicitIndent = 0;
+        for (int i = 0; i < 2 && pos < lineLength; i++) {
+            char c = line[pos];
+            if (c == '-' || c == '+') {
+                chomping = c == '-' ? -1 : 1;
+            } else if (c >= '1' && c <= '9') {
+                explicitIndent = c - '0';
+            } else {
+                break;
+            }
+            pos++;
+        }
+        endOfLine();
+
+        int contentIndent = explicitIndent == 0 ? -1 : Math.max(parentIndent, 0) + explicitIndent;
+        StringBuilder builder = new StringBuilder();
+        boolean first = true;
+        boolean previousMoreIndented = false;
+        int emptyLines = 0;
+        while (readLine()) {
+            int indent = 0;
+            while (indent < lineLength && line[indent] == ' ') { indent++; }
+            if (indent == lineLength && (contentIndent == -1 || indent <= contentIndent)) {
+                emptyLines++;
+                continue;
+            }
+            if (contentIndent == -1) {
+                if (indent <= parentIndent) {
+                    lineAvailable = true;
+                    break;
+                }
+                contentIndent = indent;
+            }
+            if (indent < contentIndent) {
+                lineAvailable = true;
+                break;
+            }
+            boolean moreIndented = indent > contentIndent || (lineLength > indent && line[indent] == '\t');
+            if (!first) {
+                if (literal || moreIndented || previousMoreIndented) {
+                    emptyLines++;
+                } else if (emptyLines == 0) {
+                    builder.append(' ');
+                }
+            }
+            for (; emptyLines > 0; emptyLines--) { builder.append('\n'); }
+            builder.append(line, contentIndent, lineLength - contentIndent);
+            first = false;
+            previousMoreIndented = moreIndented;
+        }
+        if (chomping != -1 && !first) {
+            builder.append('\n');
+        }
+        if (chomping == 1) {
+            for (; emptyLines > 0; emptyLines--) { builder.append('\n'); }
+        }
+        pushScalar(builder.toString(), false);
+    }
+
+    private void pushFrame(int kind, int indent) {
+        if (frameCount == frameKinds.length) {
+            frameKinds = Arrays.copyOf(frameKinds, frameCount * 2);
+            frameIndents = Arrays.copyOf(frameIndents, frameCount * 2);
+            frameAwaiting = Arrays.copyOf(frameAwaiting, frameCount * 2);
+        }
+        frameKinds[frameCount] = kind;
+        frameIndents[frameCount] = indent;
+        frameAwaiting[frameCount] = false;
+        frameCount++;
+    }
+
+    private void closeFrame() {
+        int top = --frameCount;
+        if (frameAwaiting[top]) {
+            pushScalar("", false);
+        }
+        push(frameKinds[top] == MAPPING ? TokenType.EXIT_OBJECT : TokenType.EXIT_LIST, null);
+    }
+
+    private void closeFrames() {
+        while (frameCount > 0) {
+            closeFrame();
+        }
+    }
+
+    ////// flow collections
+
+    private void flowNode() throws IOException {
+        char c = line[pos];
+        if (c == '[') {
+            pos++;
+            push(TokenType.ENTER_LIST, null);
+            while (true) {
+                skipFlowSpace();
+                if (line[pos] == ']') { break; }
+                flowNode();
+                skipFlowSpace();
+                if (line[pos] == ',') {
+                    pos++;
+                } else if (line[pos] != ']') {
+                    throw error("Expected ',' or ']'");
+                }
+            }
+            pos++;
+            push(TokenType.EXIT_LIST, null);
+        } else if (c == '{') {
+            pos++;
+            push(TokenType.ENTER_OBJECT, null);
+            while (true) {
+                skipFlowSpace();
+                if (line[pos] == '}') { break; }
+                checkNodeStart();
+                c = line[pos];
+                push(TokenType.KEY, c == '\'' || c == '"' ? scanQuoted() : scanPlain(true));
+                skipFlowSpace();
+                if (line[pos] == ':') {
+                    pos++;
+                    skipFlowSpace();
+                }
+                if (line[pos] == ',' || line[pos] == '}') {
+                    pushScalar("", false);
+                } else {
+                    flowNode();
+                    skipFlowSpace();
+                }
+                if (line[pos] == ',') {
+                    pos++;
+                } else if (line[pos] != '}') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+            pos++;
+            push(TokenType.EXIT_OBJECT, null);
+        } else {
+            checkNodeStart();
+            boolean plain = c != '\'' && c != '"';
+            String text = plain ? scanPlain(true) : scanQuoted();
+            if (atMappingValueIndicator(true)) {
+                throw error("Mappings in flow sequences are not supported");
+            }
+            pushScalar(text, plain);
+        }
+    }
+
+    /**
+     * Skip whitespace, comments and line breaks inside a flow collection.
+     */
+    private void skipFlowSpace() throws IOException {
+        while (true) {
+            skipSpaces();
+            if (atEndOfContent()) {
+                if (!readLine()) {
+                    throw error("Unterminated flow collection");
+                }
+                pos = 0;
+            } else {
+                return;
+            }
+        }
+    }
+
+    ////// scalars
+
+    /**
+     * Scan a plain scalar on the current line. Trailing whitespace is not included.
+     */
+    private String scanPlain(boolean flow) {
+        int start = pos;
+        int end = pos;
+        while (pos < lineLength) {
+            char c = line[pos];
+            if (c == ':' && (pos + 1 == lineLength || isSpace(line[pos + 1]) ||
+                             (flow && isFlowIndicator(line[pos + 1])))) {
+                break;
+            }
+            if (c == '#' && pos > start && isSpace(line[pos - 1])) { break; }
+            if (flow && isFlowIndicator(c)) { break; }
+            pos++;
+            if (!isSpace(c)) { end = pos; }
+        }
+        pos = end;
+        return new String(line, start, end - start);
+    }
+
+    /**
+     * Scan a single- or double-quoted scalar, which may span several lines.
+     */
+    private String scanQuoted() throws IOException {
+        boolean single = line[pos++] == '\'';
+        StringBuilder builder = new StringBuilder();
+        while (true) {
+            if (pos == lineLength) {
+                foldQuotedLineBreak(builder);
+                continue;
+            }
+            char c = line[pos++];
+            if (single) {
+                if (c == '\'') {
+                    if (pos < lineLength && line[pos] == '\'') {
+                        builder.append('\'');
+                        pos++;
+                    } else {
+                        return builder.toString();
+                    }
+                } else {
+                    builder.append(c);
+                }
+            } else {
+                if (c == '"') {
+                    return builder.toString();
+                } else if (c == '\\') {
+                    if (pos == lineLength) {
+                        // escaped line break
+                        if (!readLine()) { throw error("Unterminated quoted scalar"); }
+                        pos = 0;
+                        skipSpaces();
+                    } else {
+                        escape(builder);
+                    }
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fold a line break inside a quoted scalar: a single line break becomes a space, while each empty line becomes a
+     * line feed.
+     */
+    private void foldQuotedLineBreak(StringBuilder builder) throws IOException {
+        int trimmed = builder.length();
+        while (trimmed > 0 && isSpace(builder.charAt(trimmed - 1))) { trimmed--; }
+        builder.setLength(trimmed);
+        int emptyLines = 0;
+        while (true) {
+            if (!readLine()) { throw error("Unterminated quoted scalar"); }
+            pos = 0;
+            skipSpaces();
+            if (pos < lineLength) { break; }
+            emptyLines++;
+        }
+        if (emptyLines == 0) {
+            builder.append(' ');
+        } else {
+            for (; emptyLines > 0; emptyLines--) { builder.append('\n'); }
+        }
+    }
+
+    private void escape(StringBuilder builder) {
+        char c = line[pos++];
+        switch (c) {
+        case '0':
+            builder.append('\0');
+            break;
+        case 'a':
+            builder.append('\u0007');
+            break;
+        case 'b':
+            builder.append('\b');
+            break;
+        case 't':
+        case '\t':
+            builder.append('\t');
+            break;
+        case 'n':
+            builder.append('\n');
+            break;
+        case 'v':
+            builder.append('\u000b');
+            break;
+        case 'f':
+            builder.append('\f');
+            break;
+        case 'r':
+            builder.append('\r');
+            break;
+        case 'e':
+            builder.append('\u001b');
+            break;
+        case ' ':
+        case '"':
+        case '/':
+        case '\\':
+            builder.append(c);
+            break;
+        case 'N':
+            builder.append('\u0085');
+            break;
+        case '_':
+            builder.append('\u00a0');
+            break;
+        case 'L':
+            builder.append('\u2028');
+            break;
+        case 'P':
+            builder.append('\u2029');
+            break;
+        case 'x':
+            builder.appendCodePoint(hex(2));
+            break;
+        case 'u':
+            builder.appendCodePoint(hex(4));
+            break;
+        case 'U':
+            builder.appendCodePoint(hex(8));
+            break;
+        default:
+            throw error("Invalid escape sequence \\" + c);
+        }
+    }
+
+    private int hex(int digits) {
+        if (pos + digits > lineLength) {
+            throw error("Invalid escape sequence");
+        }
+        int value = 0;
+        for (int i = 0; i < digits; i++) {
+            int digit = Character.digit(line[pos++], 16);
+            if (digit == -1) {
+                throw error("Invalid escape sequence");
+            }
+            value = value * 16 + digit;
+        }
+        if (!Character.isValidCodePoint(value)) {
+            throw error("Invalid escape sequence");
+        }
+        return value;
+    }
+
+    private void checkNodeStart() {
+        char c = line[pos];
+        switch (c) {
+        case '&':
+        case '*':
+        case '!':
+            throw error("Anchors, aliases and tags are not supported");
+        case '?':
+            if (pos + 1 == lineLength || isSpace(line[pos + 1])) {
+                throw error("Explicit keys are not supported");
+            }
+            break;
+        case '@':
+        case '`':
+        case '%':
+            throw error("Reserved indicator " + c);
+        case '|':
+        case '>':
+            throw error("Block scalars are not allowed here");
+        case ',':
+        case ']':
+        case '}':
+            throw error("Unexpected " + c);
+        }
+    }
+
+    ////// lines
+
+    private boolean readLine() throws IOException {
+        int length = 0;
+        while (true) {
+            if (bufferPosition == bufferLimit) {
+                if (endOfInput || !fillBuffer()) {
+                    if (length == 0) {
+                        lineLength = 0;
+                        return false;
+                    }
+                    break;
+                }
+            }
+            char c = buffer[bufferPosition++];
+            if (c == '\n') { break; }
+            if (length == line.length) { line = Arrays.copyOf(line, length * 2); }
+            line[length++] = c;
+        }
+        if (length > 0 && line[length - 1] == '\r') { length--; }
+        if (lineNumber == 0 && length > 0 && line[0] == '\uFEFF') {
+            System.arraycopy(line, 1, line, 0, --length);
+        }
+        lineLength = length;
+        lineNumber++;
+        pos = 0;
+        return true;
+    }
+
+    private boolean fillBuffer() throws IOException {
+        int read;
+        do {
+            read = reader.read(buffer);
+        } while (read == 0);
+        if (read == -1) {
+            endOfInput = true;
+            return false;
+        }
+        bufferPosition = 0;
+        bufferLimit = read;
+        return true;
+    }
+
+    private void skipSpaces() {
+        while (pos < lineLength && isSpace(line[pos])) { pos++; }
+    }
+
+    /**
+     * Check that only whitespace or a comment follows on the current line.
+     */
+    private void endOfLine() {
+        skipSpaces();
+        if (!atEndOfContent()) {
+            throw error("Unexpected '" + line[pos] + "'");
+        }
+    }
+
+    private boolean atEndOfContent() {
+        return pos == lineLength || (line[pos] == '#' && (pos == 0 || isSpace(line[pos - 1])));
+    }
+
+    private boolean atSequenceEntry() {
+        return line[pos] == '-' && (pos + 1 == lineLength || isSpace(line[pos + 1]));
+    }
+
+    private boolean atMappingValueIndicator(boolean flow) {
+        return pos < lineLength && line[pos] == ':' &&
+               (pos + 1 == lineLength || isSpace(line[pos + 1]) || (flow && isFlowIndicator(line[pos + 1])));
+    }
+
+    /**
+     * Check for a {@code ---} or {@code ...} marker at the start of the current line.
+     */
+    private boolean isDocumentMarker(char c) {
+        return lineLength >= 3 && line[0] == c && line[1] == c && line[2] == c &&
+               (lineLength == 3 || isSpace(line[3]));
+    }
+
+    private ConfigurationException error(String message) {
+        return new ConfigurationException(message + " at line " + lineNumber);
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isFlowIndicator(char c) {
+        return c == ',' || c == '[' || c == ']' || c == '{' || c == '}';
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.yaml;
+
+import at.yawk.config.Util;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Streaming YAML writer for block mappings and sequences of scalars, as produced by an
+ * {@link at.yawk.config.file.ObjectWriter}. Output is written straight to the target without building any event or
+ * node objects. Sequences inside mappings are not indented, like SnakeYAML does by default.
+ *
+ * @author yawkat
+ */
+final class YamlWriter {
+    private static final int DOCUMENT = 0;
+    private static final int MAPPING = 1;
+    private static final int SEQUENCE = 2;
+
+    private static final char[] SPACES = new char[64];
+
+    static {
+        Arrays.fill(SPACES, ' ');
+    }
+
+    private final Writer out;
+    private final int indent;
+    private final int commentWidth;
+    private final boolean allowUnicode;
+
+    private int[] kinds = new int[16];
+    /**
+     * Column at which the entries of each collection start.
+     */
+    private int[] indents = new int[16];
+    private int[] counts = new int[16];
+    private int stackSize = 1;
+
+    /**
+     * Whether the current line has content and has not been terminated yet.
+     */
+    private boolean lineOpen = false;
+    /**
+     * Whether the current line ends in a sequence entry indicator ({@code - }) and the first entry of the collection
+     * that was just started goes on the same line.
+     */
+    private boolean inline = false;
+    /**
+     * Whether a mapping key has been written and its value is next.
+     */
+    private boolean afterKey = false;
+
+    YamlWriter(Writer out, int indent, int commentWidth, boolean allowUnicode) {
+        this.out = out;
+        this.indent = indent;
+        this.commentWidth = commentWidth;
+        this.allowUnicode = allowUnicode;
+        kinds[0] = DOCUMENT;
+    }
+
+    /**
+     * @return the nesting depth, {@code 0} at the top level.
+     */
+    int depth() {
+        return stackSize - 1;
+    }
+
+    void beginMapping() throws IOException {
+        begin(MAPPING);
+    }
+
+    void endMapping() throws IOException {
+        end(MAPPING, "{}");
+    }
+
+    void beginSequence() throws IOException {
+        begin(SEQUENCE);
+    }
+
+    void endSequence() throws IOException {
+        end(SEQUENCE, "[]");
+    }
+
+    void key(String key) throws IOException {
+        int top = stackSize - 1;
+        if (kinds[top] != MAPPING || afterKey) {
+            throw new IllegalStateException("Unexpected key");
+        }
+        counts[top]++;
+        startLine(indents[top]);
+        string(key);
+        out.write(':');
+        afterKey = true;
+    }
+
+    void value(String value) throws IOException {
+        beforeScalar();
+        string(value);
+        endLine();
+    }
+
+    void value(int value) throws IOException {
+        beforeScalar();
+        out.write(Integer.toString(value));
+        endLine();
+    }
+
+    void value(long value) throws IOException {
+        beforeScalar();
+        out.write(Long.toString(value));
+        endLine();
+    }
+
+    void value(float value) throws IOException {
+        beforeScalar();
+        number(Float.toString(value));
+        endLine();
+    }
+
+    void value(double value) throws IOException {
+        beforeScalar();
+        number(Double.toString(value));
+        endLine();
+    }
+
+    void value(boolean value) throws IOException {
+        beforeScalar();
+        out.write(value ? "true" : "false");
+        endLine();
+    }
+
+    void value(BigDecimal value) throws IOException {
+        beforeScalar();
+        // exponents of BigDecimal.toString are always signed
+        out.write(value.toString());
+        endLine();
+    }
+
+    /**
+     * Write a comment on its own lines before the next entry, wrapping it at the configured width.
+     */
+    void comment(String comment) throws IOException {
+        int top = stackSize - 1;
+        int column = afterKey ? indents[top] + indent : indents[top];
+        if (lineOpen) { endLine(); }
+        inline = false;
+        for (String line : Util.wrap(comment, commentWidth)) {
+            writeIndent(column);
+            out.write("# ");
+            out.write(line);
+            endLine();
+        }
+    }
+
+    private void begin(int kind) throws IOException {
+        int top = stackSize - 1;
+        int childIndent;
+        switch (kinds[top]) {
+        case MAPPING:
+            expectValue();
+            // sequences in mappings are not indented
+            childIndent = kind == MAPPING ? indents[top] + indent : indents[top];
+            break;
+        case SEQUENCE:
+            entry();
+            inline = true;
+            childIndent = indents[top] + 2;
+            break;
+        default:
+            document();
+            childIndent = 0;
+            break;
+        }
+        if (stackSize == kinds.length) {
+            kinds = Arrays.copyOf(kinds, stackSize * 2);
+            indents = Arrays.copyOf(indents, stackSize * 2);
+            counts = Arrays.copyOf(counts, stackSize * 2);
+        }
+        kinds[stackSize] = kind;
+        indents[stackSize] = childIndent;
+        counts[stackSize] = 0;
+        stackSize++;
+    }
+
+    private void end(int kind, String empty) throws IOException {
+        int top = stackSize - 1;
+        if (kinds[top] != kind || afterKey) {
+            throw new IllegalStateException("Nesting problem");
+        }
+        if (counts[top] == 0) {
+            // empty collections are written in flow style
+            if (!lineOpen) {
+                writeIndent(indents[top]);
+            } else if (!inline) {
+                out.write(' ');
+            }
+            inline = false;
+            out.write(empty);
+            endLine();
+        }
+        stackSize--;
+    }
+
+    private void beforeScalar() throws IOException {
+        int top = stackSize - 1;
+        switch (kinds[top]) {
+        case MAPPING:
+            expectValue();
+            if (lineOpen) {
+                out.write(' ');
+            } else {
+                // a comment was written after the key
+                writeIndent(indents[top] + indent);
+            }
+            break;
+        case SEQUENCE:
+            entry();
+            break;
+        default:
+            document();
+            break;
+        }
+    }
+
+    private void expectValue() {
+        if (!afterKey) {
+            throw new IllegalStateException("Expected key");
+        }
+        afterKey = false;
+    }
+
+    private void entry() throws IOException {
+        int top = stackSize - 1;
+        counts[top]++;
+        startLine(indents[top]);
+        out.write("- ");
+    }
+
+    private void document() throws IOException {
+        if (counts[0]++ > 0) {
+            if (lineOpen) { endLine(); }
+            out.write("---\n");
+        }
+    }
+
+    /**
+     * Start a new line at the given column, unless the current line ends in a sequence entry indicator for the first
+     * entry of the current collection.
+     */
+    private void startLine(int column) throws IOException {
+        if (inline) {
+            inline = false;
+            return;
+        }
+        if (lineOpen) { endLine(); }
+        writeIndent(column);
+    }
+
+    private void writeIndent(int column) throws IOException {
+        while (column > 0) {
+            int n = Math.min(column, SPACES.length);
+            out.write(SPACES, 0, n);
+            column -= n;
+        }
+        lineOpen = true;
+    }
+
+    private void endLine() throws IOException {
+        out.write('\n');
+        lineOpen = false;
+    }
+
+    /**
+     * Write a floating point number. Positive exponents get an explicit sign, which YAML requires for floats.
+     */
+    private void number(String value) throws IOException {
+        int exponent = value.indexOf('E');
+        if (exponent != -1 && value.charAt(exponent + 1) != '-') {
+            out.write(value, 0, exponent + 1);
+            out.write('+');
+            out.write(value, exponent + 1, value.length() - exponent - 1);
+        } else {
+            out.write(value);
+        }
+    }
+
+    private void string(String value) throws IOException {
+        switch (ScalarStyle.of(value, allowUnicode)) {
+        case PLAIN:
+            out.write(value);
+            break;
+        case SINGLE_QUOTED:
+            out.write('\'');
+            int last = 0;
+            for (int i = value.indexOf('\''); i != -1; i = value.indexOf('\'', i + 1)) {
+                out.write(value, last, i + 1 - last);
+                out.write('\'');
+                last = i + 1;
+            }
+            out.write(value, last, value.length() - last);
+            out.write('\'');
+            break;
+        default:
+            doubleQuoted(value);
+            break;
+        }
+    }
+
+    private void doubleQuoted(String value) throws IOException {
+        out.write('"');
+        int last = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (ScalarStyle.isPrintable(c, allowUnicode) && c != '"' && c != '\\') {
+                continue;
+            }
+            if (last < i) { out.write(value, last, i - last); }
+            last = i + 1;
+            switch (c) {
+            case '"':
+                out.write("\\\"");
+                break;
+            case '\\':
+                out.write("\\\\");
+                break;
+            case '\n':
+                out.write("\\n");
+                break;
+            case '\t':
+                out.write("\\t");
+                break;
+            case '\r':
+                out.write("\\r");
+                break;
+            case 0:
+                out.write("\\0");
+                break;
+            default:
+                if (c < 0x100) {
+                    out.write(String.format("\\x%02X", (int) c));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length &&
+                           Character.isLowSurrogate(value.charAt(i + 1))) {
+                    out.write(String.format("\\U%08X", value.codePointAt(i)));
+                    i++;
+                    last = i + 1;
+                } else {
+                    out.write(String.format("\\u%04X", (int) c));
+                }
+                break;
+            }
+        }
+        if (last < length) { out.write(value, last, length - last); }
+        out.write('"');
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.junit.Assert.*;
+
+/**
+ * Numbers that neither a {@code long} nor a {@code double} holds survive a save and load through the text formats.
+ *
+ * @author yawkat
+ */
+@RunWith(Parameterized.class)
+public class ExactNumberTest {
+    private static final BigDecimal INTEGER = new BigDecimal("1234567890123456789012345");
+    private static final BigDecimal DECIMAL = new BigDecimal("1.234567890123456789012345");
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> formats() {
+        return Arrays.asList(new Object[][]{
+                { "json" },
+                { "yaml" },
+                { "yaml-native" },
+        });
+    }
+
+    private final Configuration configuration;
+
+    public ExactNumberTest(String format) {
+        configuration = FormatRoundTripTest.configuration(format);
+    }
+
+    @Test
+    public void roundTrip() {
+        JsonObject object = new JsonObject();
+        object.add("integer", new JsonPrimitive(INTEGER));
+        object.add("decimal", new JsonPrimitive(DECIMAL));
+        object.add("long", new JsonPrimitive(Long.MAX_VALUE));
+        object.add("double", new JsonPrimitive(0.1));
+
+        StringWriter out = new StringWriter();
+        configuration.save(object, out);
+        String text = out.toString();
+        assertTrue(text, text.contains("1234567890123456789012345"));
+        assertTrue(text, text.contains("1.234567890123456789012345"));
+
+        JsonObject read = configuration.load(JsonObject.class, new StringReader(text));
+        assertEquals(INTEGER, read.get("integer").getAsBigDecimal());
+        assertEquals(DECIMAL, read.get("decimal").getAsBigDecimal());
+        assertEquals(Long.MAX_VALUE, read.get("long").getAsLong());
+        assertEquals(0.1, read.get("double").getAsDouble(), 0);
+    }
+}
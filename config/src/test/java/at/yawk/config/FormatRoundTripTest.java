@@ -0,0 +1,147 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config;
+
+import at.yawk.config.document.Lazy;
+import at.yawk.config.file.DocumentCache;
+import at.yawk.config.file.TokenBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import lombok.Data;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round-trips the same beans through every registered format, directly and through a recorded {@link TokenBuffer}.
+ *
+ * @author yawkat
+ */
+@RunWith(Parameterized.class)
+public class FormatRoundTripTest {
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> formats() {
+        return Arrays.asList(new Object[][]{
+                { "json" },
+                { "yaml" },
+                { "yaml-native" },
+                { "binary" },
+                { "cbor" },
+                { "msgpack" },
+        });
+    }
+
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Configuration configuration;
+
+    public FormatRoundTripTest(String format) {
+        configuration = configuration(format);
+    }
+
+    static Configuration configuration(String format) {
+        Properties properties = new Properties();
+        properties.setProperty("format", format);
+        return Configuration.create(properties);
+    }
+
+    static Bean bean() {
+        Bean bean = new Bean();
+        bean.setName("round trip");
+        bean.setCount(42);
+        bean.setRatio(0.5);
+        bean.setEnabled(true);
+        bean.setTags(Arrays.asList("a", "b", "c"));
+        bean.setLimits(Collections.singletonMap("x", 7));
+        Nested nested = new Nested();
+        nested.setValue("inner");
+        nested.setNumbers(Arrays.asList(1, 2, 3));
+        bean.setNested(nested);
+        return bean;
+    }
+
+    private byte[] save(Object o) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        configuration.save(o, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void direct() {
+        Bean bean = bean();
+        assertEquals(bean, configuration.load(Bean.class, new ByteArrayInputStream(save(bean))));
+    }
+
+    @Test
+    public void captured() {
+        Bean bean = bean();
+        TokenBuffer tokens = TokenBuffer.capture(
+                configuration.getFormat().createReader(new ByteArrayInputStream(save(bean))));
+        assertEquals(bean, configuration.getDocumentHandler().read(tokens.reader(), Bean.class));
+    }
+
+    @Test
+    public void cached() {
+        Path file = folder.getRoot().toPath().resolve("config");
+        Bean bean = bean();
+        configuration.save(bean, file);
+
+        DocumentCache cache = new DocumentCache(configuration.getFormat(), 1 << 16);
+        Configuration cached = configuration.withDocumentCache(cache);
+        assertEquals(bean, cached.load(Bean.class, file));
+        TokenBuffer tokens = cache.get(file);
+        assertEquals(bean, cached.load(Bean.class, file));
+        assertEquals(bean, configuration.withDocumentCache(cache).load(Bean.class, file));
+        assertSame(tokens, cache.get(file));
+    }
+
+    @Test
+    public void lazy() {
+        LazyBean bean = new LazyBean();
+        bean.setName("outer");
+        bean.setNested(Lazy.of(bean().getNested()));
+
+        LazyBean read = configuration.load(LazyBean.class, new ByteArrayInputStream(save(bean)));
+        assertEquals("outer", read.getName());
+        assertFalse(read.getNested().isBound());
+        assertEquals(bean().getNested(), read.getNested().get());
+    }
+
+    @Data
+    public static class Bean {
+        private String name;
+        private int count;
+        private double ratio;
+        private boolean enabled;
+        private List<String> tags;
+        private Map<String, Integer> limits;
+        private Nested nested;
+    }
+
+    @Data
+    public static class Nested {
+        private String value;
+        private List<Integer> numbers;
+    }
+
+    @Data
+    public static class LazyBean {
+        private String name;
+        private Lazy<Nested> nested;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config;
+
+import at.yawk.config.FormatRoundTripTest.Bean;
+import at.yawk.config.document.DocumentPath;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author yawkat
+ */
+@RunWith(Parameterized.class)
+public class ReloadingConfigurationTest {
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> formats() {
+        return Arrays.asList(new Object[][]{
+                { "json" },
+                { "yaml" },
+        });
+    }
+
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Configuration configuration;
+
+    public ReloadingConfigurationTest(String format) {
+        configuration = FormatRoundTripTest.configuration(format);
+    }
+
+    @Test
+    public void reload() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("config");
+        Bean bean = FormatRoundTripTest.bean();
+        configuration.save(bean, file);
+
+        try (ReloadingConfiguration<Bean> reloading = configuration.watch(Bean.class, file, 1, TimeUnit.HOURS)) {
+            assertEquals(bean, reloading.get());
+
+            AtomicInteger countChanges = new AtomicInteger();
+            AtomicInteger nestedChanges = new AtomicInteger();
+            reloading.subscribe(DocumentPath.ROOT.key("count"), b -> countChanges.incrementAndGet());
+            reloading.subscribe(DocumentPath.ROOT.key("nested"), b -> nestedChanges.incrementAndGet());
+
+            Bean previous = reloading.get();
+            bean.setCount(43);
+            configuration.save(bean, file);
+            reloading.reload();
+
+            assertEquals(bean, reloading.get());
+            assertSame(previous.getNested(), reloading.get().getNested());
+            assertEquals(1, countChanges.get());
+            assertEquals(0, nestedChanges.get());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void watch() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("config");
+        Bean bean = FormatRoundTripTest.bean();
+        configuration.save(bean, file);
+
+        try (ReloadingConfiguration<Bean> reloading =
+                     configuration.watch(Bean.class, file, 10, TimeUnit.MILLISECONDS)) {
+            assertEquals(bean, reloading.get());
+
+            bean.setName("changed");
+            configuration.save(bean, file);
+            while (!bean.equals(reloading.get())) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
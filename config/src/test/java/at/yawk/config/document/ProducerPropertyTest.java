@@ -0,0 +1,70 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.document;
+
+import at.yawk.config.file.TokenBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.Data;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author yawkat
+ */
+public class ProducerPropertyTest {
+    private final DocumentHandlerBuilder builder = new DocumentHandlerBuilder();
+    private final DocumentHandler handler = builder.build();
+
+    @Test
+    public void write() {
+        Producers producers = new Producers();
+        producers.setNames(Arrays.asList("a", "b").iterator());
+        producers.setNumbers(Stream.of(1, 2, 3));
+
+        TokenBuffer.Recorder recorder = TokenBuffer.recorder();
+        handler.write(recorder, producers);
+        Lists lists = handler.read(recorder.build().reader(), Lists.class);
+
+        assertEquals(Arrays.asList("a", "b"), lists.getNames());
+        assertEquals(Arrays.asList(1, 2, 3), lists.getNumbers());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readIterator() throws NoSuchFieldException {
+        read("names");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readStream() throws NoSuchFieldException {
+        read("numbers");
+    }
+
+    private void read(String property) throws NoSuchFieldException {
+        TokenBuffer.Recorder recorder = TokenBuffer.recorder();
+        recorder.enterList().item(1).exitList();
+
+        TypeAdapterRegistry registry = builder.getTypeAdapterRegistry();
+        TypeAdapter<?> adapter = registry.getTypeAdapter(Producers.class.getDeclaredField(property).getGenericType());
+        adapter.read(new RegistryReaderContext(registry, recorder.build().reader()));
+    }
+
+    @Data
+    public static class Producers {
+        private Iterator<String> names;
+        private Stream<Integer> numbers;
+    }
+
+    @Data
+    public static class Lists {
+        private List<String> names;
+        private List<Integer> numbers;
+    }
+}
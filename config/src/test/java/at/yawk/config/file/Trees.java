@@ -0,0 +1,57 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads documents into plain java objects for comparison in format tests: integers as {@link Long}, floating point
+ * numbers as {@link Double}, big numbers as {@link java.math.BigDecimal}, objects as {@link LinkedHashMap} and lists
+ * as {@link ArrayList}.
+ *
+ * @author yawkat
+ */
+public final class Trees {
+    private Trees() {}
+
+    public static Object read(ObjectReader reader) {
+        switch (reader.peek()) {
+        case ENTER_OBJECT:
+            Map<String, Object> map = new LinkedHashMap<>();
+            reader.enterObject();
+            while (reader.peek() != TokenType.EXIT_OBJECT) {
+                String key = reader.key();
+                map.put(key, read(reader));
+            }
+            reader.exitObject();
+            return map;
+        case ENTER_LIST:
+            List<Object> list = new ArrayList<>();
+            reader.enterList();
+            while (reader.peek() != TokenType.EXIT_LIST) {
+                list.add(read(reader));
+            }
+            reader.exitList();
+            return list;
+        case INT:
+        case LONG:
+            return reader.longValue();
+        case FLOAT:
+        case DOUBLE:
+            return reader.doubleValue();
+        case BIG_NUMBER:
+            return reader.bigNumberValue();
+        case BOOLEAN:
+            return reader.booleanValue();
+        default:
+            return reader.stringValue();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.cbor;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.ObjectWriter;
+import at.yawk.config.file.Trees;
+import com.google.common.io.BaseEncoding;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Consumer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Examples of RFC 8949 Appendix A. Tags other than bignums are ignored by the reader, byte strings are read as base64
+ * and {@code null} and {@code undefined} as the empty string.
+ *
+ * @author yawkat
+ */
+public class CborConformanceTest {
+    private final ConfigurationFormat format = CborConfigurationFormatConfigurer.getInstance().buildFormat(
+            new Properties());
+
+    @Test
+    public void decodeIntegers() {
+        assertDecodes("00", 0L);
+        assertDecodes("01", 1L);
+        assertDecodes("0a", 10L);
+        assertDecodes("17", 23L);
+        assertDecodes("1818", 24L);
+        assertDecodes("1819", 25L);
+        assertDecodes("1864", 100L);
+        assertDecodes("1903e8", 1000L);
+        assertDecodes("1a000f4240", 1000000L);
+        assertDecodes("1b000000e8d4a51000", 1000000000000L);
+        assertDecodes("1bffffffffffffffff", new BigDecimal("18446744073709551615"));
+        assertDecodes("c249010000000000000000", new BigDecimal("18446744073709551616"));
+        assertDecodes("3bffffffffffffffff", new BigDecimal("-18446744073709551616"));
+        assertDecodes("c349010000000000000000", new BigDecimal("-18446744073709551617"));
+        assertDecodes("20", -1L);
+        assertDecodes("29", -10L);
+        assertDecodes("3863", -100L);
+        assertDecodes("3903e7", -1000L);
+    }
+
+    @Test
+    public void decodeFloatingPoint() {
+        assertDecodes("f90000", 0.0);
+        assertDecodes("f98000", -0.0);
+        assertDecodes("f93c00", 1.0);
+        assertDecodes("fb3ff199999999999a", 1.1);
+        assertDecodes("f93e00", 1.5);
+        assertDecodes("f97bff", 65504.0);
+        assertDecodes("fa47c35000", 100000.0);
+        assertDecodes("fa7f7fffff", 3.4028234663852886e+38);
+        assertDecodes("fb7e37e43c8800759c", 1.0e+300);
+        assertDecodes("f90001", 5.960464477539063e-8);
+        assertDecodes("f90400", 0.00006103515625);
+        assertDecodes("f9c400", -4.0);
+        assertDecodes("fbc010666666666666", -4.1);
+        assertDecodes("f97c00", Double.POSITIVE_INFINITY);
+        assertDecodes("f97e00", Double.NaN);
+        assertDecodes("f9fc00", Double.NEGATIVE_INFINITY);
+        assertDecodes("fa7f800000", Double.POSITIVE_INFINITY);
+        assertDecodes("fa7fc00000", Double.NaN);
+        assertDecodes("faff800000", Double.NEGATIVE_INFINITY);
+        assertDecodes("fb7ff0000000000000", Double.POSITIVE_INFINITY);
+        assertDecodes("fb7ff8000000000000", Double.NaN);
+        assertDecodes("fbfff0000000000000", Double.NEGATIVE_INFINITY);
+    }
+
+    @Test
+    public void decodeSimpleValues() {
+        assertDecodes("f4", false);
+        assertDecodes("f5", true);
+        assertDecodes("f6", "");
+        assertDecodes("f7", "");
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void decodeUnassignedSimpleValue() {
+        decode("f0");
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void decodeExtendedSimpleValue() {
+        decode("f8ff");
+    }
+
+    @Test
+    public void decodeTags() {
+        assertDecodes("c074323031332d30332d32315432303a30343a30305a", "2013-03-21T20:04:00Z");
+        assertDecodes("c11a514b67b0", 1363896240L);
+        assertDecodes("c1fb41d452d9ec200000", 1363896240.5);
+        assertDecodes("d74401020304", "AQIDBA==");
+        assertDecodes("d818456449455446", "ZElFVEY=");
+        assertDecodes("d82076687474703a2f2f7777772e6578616d706c652e636f6d", "http://www.example.com");
+    }
+
+    @Test
+    public void decodeStrings() {
+        assertDecodes("40", "");
+        assertDecodes("4401020304", "AQIDBA==");
+        assertDecodes("60", "");
+        assertDecodes("6161", "a");
+        assertDecodes("6449455446", "IETF");
+        assertDecodes("62225c", "\"\\");
+        assertDecodes("62c3bc", "\u00fc");
+        assertDecodes("63e6b0b4", "\u6c34");
+        assertDecodes("64f0908591", "\ud800\udd51");
+        assertDecodes("5f42010243030405ff", "AQIDBAU=");
+        assertDecodes("7f657374726561646d696e67ff", "streaming");
+    }
+
+    @Test
+    public void decodeContainers() {
+        List<Object> nested = list(1L, list(2L, 3L), list(4L, 5L));
+        List<Object> oneToTwentyFive = list(
+                1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L, 21L, 22L,
+                23L, 24L, 25L);
+
+        assertDecodes("80", list());
+        assertDecodes("83010203", list(1L, 2L, 3L));
+        assertDecodes("8301820203820405", nested);
+        assertDecodes("98190102030405060708090a0b0c0d0e0f101112131415161718181819", oneToTwentyFive);
+        assertDecodes("a0", map());
+        assertDecodes("a201020304", map("1", 2L, "3", 4L));
+        assertDecodes("a26161016162820203", map("a", 1L, "b", list(2L, 3L)));
+        assertDecodes("826161a161626163", list("a", map("b", "c")));
+        assertDecodes("a56161614161626142616361436164614461656145",
+                      map("a", "A", "b", "B", "c", "C", "d", "D", "e", "E"));
+
+        assertDecodes("9fff", list());
+        assertDecodes("9f018202039f0405ffff", nested);
+        assertDecodes("9f01820203820405ff", nested);
+        assertDecodes("83018202039f0405ff", nested);
+        assertDecodes("83019f0203ff820405", nested);
+        assertDecodes("9f0102030405060708090a0b0c0d0e0f101112131415161718181819ff", oneToTwentyFive);
+        assertDecodes("bf61610161629f0203ffff", map("a", 1L, "b", list(2L, 3L)));
+        assertDecodes("826161bf61626163ff", list("a", map("b", "c")));
+        assertDecodes("bf6346756ef563416d7421ff", map("Fun", true, "Amt", -2L));
+    }
+
+    @Test
+    public void encodeScalars() {
+        assertEncodes("00", w -> w.item(0));
+        assertEncodes("01", w -> w.item(1));
+        assertEncodes("0a", w -> w.item(10));
+        assertEncodes("17", w -> w.item(23));
+        assertEncodes("1818", w -> w.item(24));
+        assertEncodes("1819", w -> w.item(25));
+        assertEncodes("1864", w -> w.item(100));
+        assertEncodes("1903e8", w -> w.item(1000));
+        assertEncodes("1a000f4240", w -> w.item(1000000));
+        assertEncodes("1b000000e8d4a51000", w -> w.item(1000000000000L));
+        assertEncodes("20", w -> w.item(-1));
+        assertEncodes("29", w -> w.item(-10));
+        assertEncodes("3863", w -> w.item(-100));
+        assertEncodes("3903e7", w -> w.item(-1000));
+
+        assertEncodes("fb3ff199999999999a", w -> w.item(1.1));
+        assertEncodes("fa47c35000", w -> w.item(100000.0F));
+        assertEncodes("fa7f7fffff", w -> w.item(Float.MAX_VALUE));
+        assertEncodes("fb7e37e43c8800759c", w -> w.item(1.0e+300));
+        assertEncodes("fbc010666666666666", w -> w.item(-4.1));
+
+        assertEncodes("f4", w -> w.item(false));
+        assertEncodes("f5", w -> w.item(true));
+
+        assertEncodes("60", w -> w.item(""));
+        assertEncodes("6161", w -> w.item("a"));
+        assertEncodes("6449455446", w -> w.item("IETF"));
+        assertEncodes("62225c", w -> w.item("\"\\"));
+        assertEncodes("62c3bc", w -> w.item("\u00fc"));
+        assertEncodes("63e6b0b4", w -> w.item("\u6c34"));
+        assertEncodes("64f0908591", w -> w.item("\ud800\udd51"));
+    }
+
+    @Test
+    public void encodeContainers() {
+        // containers are always written with indefinite length
+        assertEncodes("9fff", w -> w.enterList().exitList());
+        assertEncodes("bf6346756ef563416d7421ff",
+                      w -> w.enterObject().key("Fun").item(true).key("Amt").item(-2).exitObject());
+    }
+
+    private Object decode(String hex) {
+        return Trees.read(format.createReader(ByteBuffer.wrap(BaseEncoding.base16().lowerCase().decode(hex))));
+    }
+
+    private void assertDecodes(String hex, Object expected) {
+        assertEquals(hex, expected, decode(hex));
+    }
+
+    private void assertEncodes(String hex, Consumer<ObjectWriter> write) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectWriter writer = format.createWriter(out);
+        write.accept(writer);
+        writer.flush();
+        assertEquals(hex, BaseEncoding.base16().lowerCase().encode(out.toByteArray()));
+    }
+
+    private static List<Object> list(Object... items) {
+        return items.length == 0 ? Collections.emptyList() : Arrays.asList(items);
+    }
+
+    private static Map<String, Object> map(Object... entries) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            map.put((String) entries[i], entries[i + 1]);
+        }
+        return map;
+    }
+}
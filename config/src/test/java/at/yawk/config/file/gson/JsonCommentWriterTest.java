@@ -0,0 +1,141 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.gson;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.junit.Assert.*;
+
+/**
+ * Comments in every position a writer may emit them must leave a document that gson's lenient reader accepts, with
+ * and without indentation.
+ *
+ * @author yawkat
+ */
+@RunWith(Parameterized.class)
+public class JsonCommentWriterTest {
+    @Parameterized.Parameters(name = "indent=\"{0}\"")
+    public static Collection<Object[]> indents() {
+        return Arrays.asList(new Object[][]{
+                { "" },
+                { "  " },
+        });
+    }
+
+    private final String indent;
+
+    public JsonCommentWriterTest(String indent) {
+        this.indent = indent;
+    }
+
+    @Test
+    public void commentsInObject() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonCommentWriter writer = new JsonCommentWriter(out, indent, true, -1);
+        writer.comment("before document");
+        writer.beginObject();
+        writer.comment("before first entry");
+        writer.name("a");
+        writer.value(1);
+        writer.comment("between entries");
+        writer.name("b");
+        writer.value("x");
+        writer.comment("after last entry");
+        writer.endObject();
+
+        JsonObject expected = new JsonObject();
+        expected.add("a", new JsonPrimitive(1));
+        expected.add("b", new JsonPrimitive("x"));
+        assertReadsAs(out.toString(), expected);
+        assertContainsComments(out.toString(),
+                               "before document", "before first entry", "between entries", "after last entry");
+    }
+
+    @Test
+    public void commentsInArray() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonCommentWriter writer = new JsonCommentWriter(out, indent, true, -1);
+        writer.beginObject();
+        writer.name("list");
+        writer.beginArray();
+        writer.comment("before first element");
+        writer.value(1);
+        writer.comment("between elements");
+        writer.value(2);
+        writer.comment("after last element");
+        writer.endArray();
+        writer.name("empty");
+        writer.beginArray();
+        writer.comment("in empty array");
+        writer.endArray();
+        writer.endObject();
+
+        JsonArray list = new JsonArray();
+        list.add(new JsonPrimitive(1));
+        list.add(new JsonPrimitive(2));
+        JsonObject expected = new JsonObject();
+        expected.add("list", list);
+        expected.add("empty", new JsonArray());
+        assertReadsAs(out.toString(), expected);
+        assertContainsComments(out.toString(),
+                               "before first element", "between elements", "after last element", "in empty array");
+    }
+
+    @Test
+    public void commentsInNestedContainers() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonCommentWriter writer = new JsonCommentWriter(out, indent, true, -1);
+        writer.beginArray();
+        writer.comment("before object");
+        writer.beginObject();
+        writer.comment("in object");
+        writer.name("a");
+        writer.beginArray();
+        writer.comment("in nested array");
+        writer.value(true);
+        writer.endArray();
+        writer.endObject();
+        writer.comment("after object");
+        writer.endArray();
+
+        JsonArray nested = new JsonArray();
+        nested.add(new JsonPrimitive(true));
+        JsonObject object = new JsonObject();
+        object.add("a", nested);
+        JsonArray expected = new JsonArray();
+        expected.add(object);
+        assertReadsAs(out.toString(), expected);
+        assertContainsComments(out.toString(), "before object", "in object", "in nested array", "after object");
+    }
+
+    private static void assertReadsAs(String json, JsonElement expected) throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.setLenient(true);
+        assertEquals(json, expected, new JsonParser().parse(reader));
+        assertEquals(json, JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    private static void assertContainsComments(String json, String... comments) {
+        for (String comment : comments) {
+            assertTrue(json, json.contains("// " + comment + "\n"));
+        }
+    }
+}
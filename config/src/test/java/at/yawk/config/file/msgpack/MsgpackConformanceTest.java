@@ -0,0 +1,215 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.msgpack;
+
+import at.yawk.config.ConfigurationException;
+import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.ObjectWriter;
+import at.yawk.config.file.Trees;
+import com.google.common.base.Strings;
+import com.google.common.io.BaseEncoding;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Consumer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Encodings of every format family of the MessagePack specification, at the bounds of each family. Binary data is
+ * read as base64 and {@code nil} as the empty string; extension types are rejected.
+ *
+ * @author yawkat
+ */
+public class MsgpackConformanceTest {
+    private final ConfigurationFormat format = MsgpackConfigurationFormatConfigurer.getInstance().buildFormat(
+            new Properties());
+
+    @Test
+    public void decodeIntegers() {
+        assertDecodes("00", 0L);
+        assertDecodes("7f", 127L);
+        assertDecodes("cc80", 128L);
+        assertDecodes("ccff", 255L);
+        assertDecodes("cd0100", 256L);
+        assertDecodes("cdffff", 65535L);
+        assertDecodes("ce00010000", 65536L);
+        assertDecodes("ceffffffff", 4294967295L);
+        assertDecodes("cf0000000100000000", 4294967296L);
+        assertDecodes("cf7fffffffffffffff", Long.MAX_VALUE);
+        assertDecodes("cfffffffffffffffff", new BigDecimal("18446744073709551615"));
+        assertDecodes("ff", -1L);
+        assertDecodes("e0", -32L);
+        assertDecodes("d0df", -33L);
+        assertDecodes("d080", -128L);
+        assertDecodes("d1ff7f", -129L);
+        assertDecodes("d18000", -32768L);
+        assertDecodes("d2ffff7fff", -32769L);
+        assertDecodes("d280000000", -2147483648L);
+        assertDecodes("d3ffffffff7fffffff", -2147483649L);
+        assertDecodes("d38000000000000000", Long.MIN_VALUE);
+        // non-minimal encodings are valid too
+        assertDecodes("cd0001", 1L);
+        assertDecodes("d3ffffffffffffffff", -1L);
+    }
+
+    @Test
+    public void decodeFloatingPoint() {
+        assertDecodes("ca3fc00000", 1.5);
+        assertDecodes("ca7f800000", Double.POSITIVE_INFINITY);
+        assertDecodes("cb3ff199999999999a", 1.1);
+        assertDecodes("cb8000000000000000", -0.0);
+        assertDecodes("cb7ff8000000000000", Double.NaN);
+    }
+
+    @Test
+    public void decodeSimpleValues() {
+        assertDecodes("c0", "");
+        assertDecodes("c2", false);
+        assertDecodes("c3", true);
+    }
+
+    @Test
+    public void decodeStrings() {
+        assertDecodes("a0", "");
+        assertDecodes("a161", "a");
+        assertDecodes("a2c3bc", "\u00fc");
+        assertDecodes("a4f0908591", "\ud800\udd51");
+        assertDecodes("d903616263", "abc");
+        assertDecodes("da0003616263", "abc");
+        assertDecodes("db00000003616263", "abc");
+    }
+
+    @Test
+    public void decodeBinary() {
+        assertDecodes("c400", "");
+        assertDecodes("c40401020304", "AQIDBA==");
+        assertDecodes("c5000401020304", "AQIDBA==");
+        assertDecodes("c60000000401020304", "AQIDBA==");
+    }
+
+    @Test
+    public void decodeContainers() {
+        assertDecodes("90", list());
+        assertDecodes("93010203", list(1L, 2L, 3L));
+        assertDecodes("dc0003010203", list(1L, 2L, 3L));
+        assertDecodes("dd00000003010203", list(1L, 2L, 3L));
+        assertDecodes("9301920203920405", list(1L, list(2L, 3L), list(4L, 5L)));
+        assertDecodes("80", map());
+        assertDecodes("81a16101", map("a", 1L));
+        assertDecodes("de0001a16101", map("a", 1L));
+        assertDecodes("df00000001a16101", map("a", 1L));
+        assertDecodes("8201020304", map("1", 2L, "3", 4L));
+        assertDecodes("82a16101a162920203", map("a", 1L, "b", list(2L, 3L)));
+        assertDecodes("92a16181a162a163", list("a", map("b", "c")));
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void decodeNeverUsed() {
+        decode("c1");
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void decodeFixext() {
+        decode("d40100");
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void decodeExt() {
+        decode("c7010100");
+    }
+
+    @Test
+    public void encodeIntegers() {
+        assertEncodes("00", w -> w.item(0));
+        assertEncodes("7f", w -> w.item(127));
+        assertEncodes("cc80", w -> w.item(128));
+        assertEncodes("ccff", w -> w.item(255));
+        assertEncodes("cd0100", w -> w.item(256));
+        assertEncodes("cdffff", w -> w.item(65535));
+        assertEncodes("ce00010000", w -> w.item(65536));
+        assertEncodes("ceffffffff", w -> w.item(4294967295L));
+        assertEncodes("cf0000000100000000", w -> w.item(4294967296L));
+        assertEncodes("cf7fffffffffffffff", w -> w.item(Long.MAX_VALUE));
+        assertEncodes("ff", w -> w.item(-1));
+        assertEncodes("e0", w -> w.item(-32));
+        assertEncodes("d0df", w -> w.item(-33));
+        assertEncodes("d080", w -> w.item(-128));
+        assertEncodes("d1ff7f", w -> w.item(-129));
+        assertEncodes("d18000", w -> w.item(-32768));
+        assertEncodes("d2ffff7fff", w -> w.item(-32769));
+        assertEncodes("d280000000", w -> w.item(Integer.MIN_VALUE));
+        assertEncodes("d3ffffffff7fffffff", w -> w.item(Integer.MIN_VALUE - 1L));
+        assertEncodes("d38000000000000000", w -> w.item(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void encodeScalars() {
+        assertEncodes("ca3fc00000", w -> w.item(1.5F));
+        assertEncodes("cb3ff199999999999a", w -> w.item(1.1));
+        assertEncodes("c2", w -> w.item(false));
+        assertEncodes("c3", w -> w.item(true));
+        assertEncodes("a0", w -> w.item(""));
+        assertEncodes("a161", w -> w.item("a"));
+        assertEncodes("a2c3bc", w -> w.item("\u00fc"));
+        assertEncodes("bf" + Strings.repeat("61", 31), w -> w.item(Strings.repeat("a", 31)));
+        assertEncodes("d920" + Strings.repeat("61", 32), w -> w.item(Strings.repeat("a", 32)));
+        assertEncodes("da0100" + Strings.repeat("61", 256), w -> w.item(Strings.repeat("a", 256)));
+    }
+
+    @Test
+    public void encodeContainers() {
+        assertEncodes("90", w -> w.enterList().exitList());
+        assertEncodes("93010203", w -> w.enterList().item(1).item(2).item(3).exitList());
+        assertEncodes("80", w -> w.enterObject().exitObject());
+        assertEncodes("82a16101a162920203",
+                      w -> w.enterObject().key("a").item(1).key("b").enterList().item(2).item(3).exitList()
+                              .exitObject());
+        assertEncodes("dc0010" + Strings.repeat("00", 16), w -> {
+            w.enterList();
+            for (int i = 0; i < 16; i++) {
+                w.item(0);
+            }
+            w.exitList();
+        });
+    }
+
+    private Object decode(String hex) {
+        return Trees.read(format.createReader(ByteBuffer.wrap(BaseEncoding.base16().lowerCase().decode(hex))));
+    }
+
+    private void assertDecodes(String hex, Object expected) {
+        assertEquals(hex, expected, decode(hex));
+    }
+
+    private void assertEncodes(String hex, Consumer<ObjectWriter> write) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectWriter writer = format.createWriter(out);
+        write.accept(writer);
+        writer.flush();
+        assertEquals(hex, BaseEncoding.base16().lowerCase().encode(out.toByteArray()));
+    }
+
+    private static List<Object> list(Object... items) {
+        return items.length == 0 ? Collections.emptyList() : Arrays.asList(items);
+    }
+
+    private static Map<String, Object> map(Object... entries) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            map.put((String) entries[i], entries[i + 1]);
+        }
+        return map;
+    }
+}
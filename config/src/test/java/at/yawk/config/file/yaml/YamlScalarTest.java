@@ -0,0 +1,76 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.file.yaml;
+
+import at.yawk.config.file.ConfigurationFormat;
+import at.yawk.config.file.ObjectWriter;
+import at.yawk.config.file.Trees;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Strings that look like booleans or special floating point values must read back as strings, and the reader must
+ * only resolve the spellings the writer quotes.
+ *
+ * @author yawkat
+ */
+public class YamlScalarTest {
+    private final ConfigurationFormat format = YamlConfigurationFormatConfigurer.getInstance().buildFormat(
+            new Properties());
+
+    @Test
+    public void reservedStringsRoundTrip() {
+        List<Object> strings = Arrays.asList(
+                "true", "True", "TRUE", "tRUE", "false", "fAlSe",
+                "Infinity", "+Infinity", "-Infinity", "NaN", "nan",
+                ".inf", "-.Inf", ".NaN", "yes", "null");
+        StringWriter out = new StringWriter();
+        ObjectWriter writer = format.createWriter(out);
+        writer.enterList();
+        for (Object string : strings) {
+            writer.item((String) string);
+        }
+        writer.exitList();
+        writer.flush();
+
+        assertEquals(out.toString(), strings, read(out.toString()));
+    }
+
+    @Test
+    public void specialDoublesRoundTrip() {
+        StringWriter out = new StringWriter();
+        ObjectWriter writer = format.createWriter(out);
+        writer.enterList()
+                .item(Double.POSITIVE_INFINITY)
+                .item(Double.NEGATIVE_INFINITY)
+                .item(Double.NaN)
+                .exitList();
+        writer.flush();
+
+        assertEquals(out.toString(),
+                     Arrays.asList(Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN),
+                     read(out.toString()));
+    }
+
+    @Test
+    public void plainScalars() {
+        assertEquals(Arrays.asList(true, true, true, false, "tRUE", "fALSE"),
+                     read("[true, True, TRUE, false, tRUE, fALSE]"));
+        assertEquals(Arrays.asList(Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN, Double.NaN),
+                     read("[.inf, -.Inf, .NaN, NaN]"));
+    }
+
+    private Object read(String yaml) {
+        return Trees.read(format.createReader(new StringReader(yaml)));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.processor.test;
+
+import at.yawk.config.document.DescribedAs;
+import at.yawk.config.document.GenerateTypeAdapter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bean covering the property kinds the generated adapters handle differently: direct primitives and strings,
+ * parameterized types and generic arrays (built through {@code Types}) and nested generated beans. Accessors are
+ * written out so the processor doesn't depend on other processors running first.
+ *
+ * @author yawkat
+ */
+@GenerateTypeAdapter
+public class FixtureBean {
+    @DescribedAs("Plain int")
+    private int count;
+    private long id;
+    private double ratio;
+    private boolean enabled;
+    private String name;
+    private List<String> tags;
+    private Map<String, List<Integer>> groups;
+    private List<String>[] tagSets;
+    private Nested nested;
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public double getRatio() {
+        return ratio;
+    }
+
+    public void setRatio(double ratio) {
+        this.ratio = ratio;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public Map<String, List<Integer>> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Map<String, List<Integer>> groups) {
+        this.groups = groups;
+    }
+
+    public List<String>[] getTagSets() {
+        return tagSets;
+    }
+
+    public void setTagSets(List<String>[] tagSets) {
+        this.tagSets = tagSets;
+    }
+
+    public Nested getNested() {
+        return nested;
+    }
+
+    public void setNested(Nested nested) {
+        this.nested = nested;
+    }
+
+    @GenerateTypeAdapter
+    public static class Nested {
+        private String value;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+}
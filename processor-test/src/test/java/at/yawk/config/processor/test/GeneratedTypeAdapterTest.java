@@ -0,0 +1,67 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.processor.test;
+
+import at.yawk.config.document.DocumentHandler;
+import at.yawk.config.document.DocumentHandlerBuilder;
+import at.yawk.config.document.TypeAdapterRegistry;
+import at.yawk.config.file.TokenBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author yawkat
+ */
+public class GeneratedTypeAdapterTest {
+    @Test
+    public void adaptersAreGenerated() throws ClassNotFoundException {
+        Class.forName(FixtureBean.class.getName() + "_TypeAdapter");
+        Class.forName(FixtureBean.class.getPackage().getName() + ".FixtureBean_Nested_TypeAdapter");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void roundTrip() {
+        FixtureBean bean = new FixtureBean();
+        bean.setCount(3);
+        bean.setId(1L << 40);
+        bean.setRatio(0.25);
+        bean.setEnabled(true);
+        bean.setName("fixture");
+        bean.setTags(Arrays.asList("a", "b"));
+        bean.setGroups(Collections.singletonMap("g", Arrays.asList(1, 2)));
+        bean.setTagSets(new List[]{ Collections.singletonList("c") });
+        FixtureBean.Nested nested = new FixtureBean.Nested();
+        nested.setValue("inner");
+        bean.setNested(nested);
+
+        DocumentHandlerBuilder builder = new DocumentHandlerBuilder();
+        TypeAdapterRegistry registry = builder.getTypeAdapterRegistry();
+        assertTrue(registry.getTypeAdapter(FixtureBean.class) instanceof FixtureBean_TypeAdapter);
+        assertTrue(registry.getTypeAdapter(FixtureBean.Nested.class) instanceof FixtureBean_Nested_TypeAdapter);
+
+        DocumentHandler handler = builder.build();
+        TokenBuffer.Recorder recorder = TokenBuffer.recorder();
+        handler.write(recorder, bean);
+        FixtureBean read = handler.read(recorder.build().reader(), FixtureBean.class);
+
+        assertEquals(3, read.getCount());
+        assertEquals(1L << 40, read.getId());
+        assertEquals(0.25, read.getRatio(), 0);
+        assertTrue(read.isEnabled());
+        assertEquals("fixture", read.getName());
+        assertEquals(Arrays.asList("a", "b"), read.getTags());
+        assertEquals(Collections.singletonMap("g", Arrays.asList(1, 2)), read.getGroups());
+        assertEquals(1, read.getTagSets().length);
+        assertEquals(Collections.singletonList("c"), read.getTagSets()[0]);
+        assertEquals("inner", read.getNested().getValue());
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.processor;
+
+import java.util.*;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Generates the source of a {@code TypeAdapter} for a single bean class. Property discovery mirrors the runtime
+ * {@code BeanTypeAdapterFactory}: public {@code get}/{@code is} getters and public {@code set} setters, honoring
+ * {@code @Serialize}, {@code @DescribedAs} and {@code @SerializedBy}.
+ *
+ * @author yawkat
+ */
+class AdapterGenerator {
+    private static final String SERIALIZE = TypeAdapterProcessor.DOCUMENT_PACKAGE + ".Serialize";
+    private static final String DESCRIBED_AS = TypeAdapterProcessor.DOCUMENT_PACKAGE + ".DescribedAs";
+    private static final String SERIALIZED_BY = TypeAdapterProcessor.DOCUMENT_PACKAGE + ".SerializedBy";
+
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement bean;
+
+    private final String packageName;
+    private final String adapterSimpleName;
+
+    AdapterGenerator(ProcessingEnvironment env, TypeElement bean) {
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.bean = bean;
+
+        packageName = elements.getPackageOf(bean).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(bean).toString();
+        String flatName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        adapterSimpleName = flatName.replace('$', '_') + "_TypeAdapter";
+    }
+
+    String getAdapterName() {
+        return packageName.isEmpty() ? adapterSimpleName : packageName + "." + adapterSimpleName;
+    }
+
+    String generate() throws UnsupportedBeanException {
+        checkBean();
+        List<Property> properties = resolveProperties();
+
+        StringBuilder fields = new StringBuilder();
+        StringBuilder write = new StringBuilder();
+        StringBuilder read = new StringBuilder();
+        String beanName = bean.getQualifiedName().toString();
+
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            String adapterField = null;
+            String typeField = null;
+
+            if (property.serialized) {
+                adapterField = declareAdapterField(fields, property.getterType, i);
+                if (adapterField == null && !isDirect(property.getterType)) {
+                    typeField = "TYPE_" + i;
+                    fields.append("    private static final Type ").append(typeField).append(" = ")
+                            .append(typeExpression(property.getterType, property.getter)).append(";\n");
+                }
+                generateWrite(write, property, adapterField, typeField);
+            }
+
+            if (property.setter != null) {
+                String readAdapterField = declareAdapterField(fields, property.setterType, i);
+                String readTypeField = null;
+                if (readAdapterField == null && !isDirect(property.setterType)) {
+                    if (typeField != null && types.isSameType(property.getterType, property.setterType)) {
+                        readTypeField = typeField;
+                    } else {
+                        readTypeField = "READ_TYPE_" + i;
+                        fields.append("    private static final Type ").append(readTypeField).append(" = ")
+                                .append(typeExpression(property.setterType, property.setter)).append(";\n");
+                    }
+                }
+                generateRead(read, property, readAdapterField, readTypeField);
+            }
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import at.yawk.config.document.ReaderContext;\n")
+                .append("import at.yawk.config.document.TypeAdapter;\n")
+                .append("import at.yawk.config.document.WriterContext;\n")
+                .append("import at.yawk.config.file.TokenType;\n")
+                .append("import java.lang.reflect.Type;\n\n")
+                .append("/**\n")
+                .append(" * Generated by ").append(TypeAdapterProcessor.class.getName()).append(" for {@link ")
+                .append(beanName).append("}.\n")
+                .append(" */\n")
+                .append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n")
+                .append("public final class ").append(adapterSimpleName)
+                .append(" implements TypeAdapter<").append(beanName).append("> {\n")
+                .append(fields)
+                .append("\n")
+                .append("    @Override\n")
+                .append("    public void write(WriterContext context, ").append(beanName).append(" obj) {\n")
+                .append("        context.enterObject();\n")
+                .append(write)
+                .append("        context.exitObject();\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public ").append(beanName).append(" read(ReaderContext context) {\n")
+                .append("        ").append(beanName).append(" instance = new ").append(beanName).append("();\n")
+                .append("        context.enterObject();\n")
+                .append("        while (context.peek() != TokenType.EXIT_OBJECT) {\n")
+                .append("            switch (context.key()) {\n")
+                .append(read)
+                .append("            default:\n")
+                .append("                context.skipDeep();\n")
+                .append("                break;\n")
+                .append("            }\n")
+                .append("        }\n")
+                .append("        context.exitObject();\n")
+                .append("        return instance;\n")
+                .append("    }\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    private void checkBean() throws UnsupportedBeanException {
+        if (bean.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedBeanException("@GenerateTypeAdapter classes must not be abstract", bean, false);
+        }
+        if (bean.getNestingKind() != NestingKind.TOP_LEVEL && !bean.getModifiers().contains(Modifier.STATIC)) {
+            throw new UnsupportedBeanException("@GenerateTypeAdapter classes must be static", bean, false);
+        }
+        if (!bean.getTypeParameters().isEmpty()) {
+            throw new UnsupportedBeanException("@GenerateTypeAdapter classes must not be generic", bean, false);
+        }
+        if (bean.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new UnsupportedBeanException("@GenerateTypeAdapter classes must not be private", bean, false);
+        }
+        boolean hasConstructor = false;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(bean.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                hasConstructor = true;
+            }
+        }
+        if (!hasConstructor) {
+            throw new UnsupportedBeanException(
+                    "@GenerateTypeAdapter classes need a public no-arg constructor", bean, false);
+        }
+        if (findAnnotation(bean, SERIALIZED_BY) != null) {
+            throw new UnsupportedBeanException(
+                    "Not generating a type adapter for class with @SerializedBy", bean, true);
+        }
+    }
+
+    private List<Property> resolveProperties() throws UnsupportedBeanException {
+        DeclaredType beanType = (DeclaredType) bean.asType();
+        boolean serializeClass = true;
+        for (TypeElement type = bean; type != null; type = superclass(type)) {
+            AnnotationMirror serialize = findAnnotation(type, SERIALIZE);
+            if (serialize != null) {
+                serializeClass = (Boolean) getValue(serialize);
+                break;
+            }
+        }
+
+        Map<String, ExecutableElement> getters = new LinkedHashMap<>();
+        Map<String, ExecutableElement> setters = new LinkedHashMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(bean))) {
+            if (!method.getModifiers().contains(Modifier.PUBLIC)) { continue; }
+            String name = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty()) {
+                if (method.getModifiers().contains(Modifier.STATIC)) { continue; }
+                if (name.equals("getClass")) { continue; }
+                if (method.getReturnType().getKind() == TypeKind.VOID) { continue; }
+                String itemName = getItemName(name);
+                if (itemName != null) {
+                    getters.putIfAbsent(itemName, method);
+                }
+            } else if (method.getParameters().size() == 1) {
+                if (name.length() > 3 && name.startsWith("set")) {
+                    setters.putIfAbsent(name, method);
+                }
+            }
+        }
+
+        List<Property> properties = new ArrayList<>();
+        for (Map.Entry<String, ExecutableElement> entry : getters.entrySet()) {
+            Property property = new Property();
+            property.name = entry.getKey();
+            property.getter = entry.getValue();
+            property.getterType = ((ExecutableType) types.asMemberOf(beanType, property.getter)).getReturnType();
+            property.serialized = isSerialized(property.getter, serializeClass);
+            property.description = findDescription(property.getter, property.name);
+            property.setter = setters.remove(getSetterName(property.name));
+            if (property.setter != null) {
+                property.setterType = setterType(beanType, property.setter);
+            }
+            properties.add(property);
+        }
+        for (ExecutableElement setter : setters.values()) {
+            Property property = new Property();
+            property.name = decapitalize(setter.getSimpleName().toString().substring(3));
+            property.setter = setter;
+            property.setterType = setterType(beanType, setter);
+            properties.add(property);
+        }
+        return properties;
+    }
+
+    private TypeMirror setterType(DeclaredType beanType, ExecutableElement setter) {
+        return ((ExecutableType) types.asMemberOf(beanType, setter)).getParameterTypes().get(0);
+    }
+
+    private boolean isSerialized(ExecutableElement getter, boolean serializeClass) {
+        AnnotationMirror serialize = findAnnotation(getter, SERIALIZE);
+        if (serialize == null) {
+            // look for the annotation on overridden methods
+            Deque<TypeMirror> queue = new ArrayDeque<>(types.directSupertypes(bean.asType()));
+            while (serialize == null && !queue.isEmpty()) {
+                TypeElement type = (TypeElement) types.asElement(queue.poll());
+                for (ExecutableElement candidate : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                    if (candidate.getSimpleName().equals(getter.getSimpleName()) &&
+                        candidate.getParameters().isEmpty() &&
+                        (candidate.equals(getter) || elements.overrides(getter, candidate, bean))) {
+                        serialize = findAnnotation(candidate, SERIALIZE);
+                        break;
+                    }
+                }
+                queue.addAll(types.directSupertypes(type.asType()));
+            }
+        }
+        return serialize == null ? serializeClass : (Boolean) getValue(serialize);
+    }
+
+    // nullable
+    private String findDescription(ExecutableElement getter, String itemName) {
+        for (VariableElement field : ElementFilter.fieldsIn(getter.getEnclosingElement().getEnclosedElements())) {
+            if (field.getSimpleName().contentEquals(itemName)) {
+                AnnotationMirror description = findAnnotation(field, DESCRIBED_AS);
+                return description == null ? null : (String) getValue(description);
+            }
+        }
+        return null;
+    }
+
+    private void generateWrite(StringBuilder out, Property property, String adapterField, String typeField) {
+        String getterCall = "obj." + property.getter.getSimpleName() + "()";
+        TypeKind kind = property.getterType.getKind();
+        if (kind.isPrimitive()) {
+            appendKey(out, "        ", property);
+            if (adapterField == null && isDirect(property.getterType)) {
+                out.append("        context.item(").append(getterCall).append(");\n");
+            } else {
+                out.append("        context.writeObject(").append(typeField).append(", ")
+                        .append(getterCall).append(");\n");
+            }
+            return;
+        }
+
+        String local = "value_" + property.name;
+        out.append("        Object ").append(local).append(" = ").append(getterCall).append(";\n");
+        out.append("        if (").append(local).append(" != null) {\n");
+        appendKey(out, "            ", property);
+        if (adapterField != null) {
+            out.append("            ").append(adapterField).append(".write(context, ").append(local).append(");\n");
+        } else if (isDirect(property.getterType)) {
+            out.append("            context.item((String) ").append(local).append(");\n");
+        } else {
+            out.append("            context.writeObject(").append(typeField).append(", ").append(local).append(");\n");
+        }
+        out.append("        }\n");
+    }
+
+    private void appendKey(StringBuilder out, String indent, Property property) {
+        if (property.description != null) {
+            out.append(indent).append("context.comment(").append(literal(property.description)).append(");\n");
+        }
+        out.append(indent).append("context.key(").append(literal(property.name)).append(");\n");
+    }
+
+    private void generateRead(StringBuilder out, Property property, String adapterField, String typeField) {
+        String setterName = property.setter.getSimpleName().toString();
+        Set<String> keys = new LinkedHashSet<>();
+        for (String key : new String[]{ setterName.substring(3), property.name }) {
+            if (getSetterName(key).equals(setterName)) {
+                keys.add(key);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        for (String key : keys) {
+            out.append("            case ").append(literal(key)).append(":\n");
+        }
+
+        TypeMirror type = property.setterType;
+        String value;
+        if (adapterField != null) {
+            value = "(" + castType(type) + ") " + adapterField + ".read(context)";
+        } else if (isDirect(type)) {
+            value = type.getKind().isPrimitive() ?
+                    "context." + type.getKind().name().toLowerCase(Locale.ROOT) + "Value()" :
+                    "context.stringValue()";
+        } else {
+            value = "(" + castType(type) + ") context.readObject(" + typeField + ")";
+        }
+        String receiver = property.setter.getModifiers().contains(Modifier.STATIC) ?
+                bean.getQualifiedName().toString() : "instance";
+        out.append("                ").append(receiver).append(".").append(setterName)
+                .append("(").append(value).append(");\n")
+                .append("                break;\n");
+    }
+
+    /**
+     * Declare a static adapter field if the given type is annotated with {@code @SerializedBy}.
+     *
+     * @return the field name, or {@code null} if the type is not annotated.
+     */
+    // nullable
+    private String declareAdapterField(StringBuilder fields, TypeMirror type, int index) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        AnnotationMirror serializedBy = findAnnotation(types.asElement(type), SERIALIZED_BY);
+        if (serializedBy == null) {
+            return null;
+        }
+        String adapterClass = types.erasure((TypeMirror) getValue(serializedBy)).toString();
+        String name = "ADAPTER_" + index;
+        if (fields.indexOf(" " + name + " ") == -1) {
+            fields.append("    private static final TypeAdapter ").append(name).append(" = new ")
+                    .append(adapterClass).append("();\n");
+        }
+        return name;
+    }
+
+    /**
+     * Whether values of this type can be read and written through the primitive {@code ObjectReader} /
+     * {@code ObjectWriter} methods directly.
+     */
+    private boolean isDirect(TypeMirror type) {
+        switch (type.getKind()) {
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+        case BOOLEAN:
+            return true;
+        case DECLARED:
+            return ((TypeElement) types.asElement(type)).getQualifiedName().contentEquals("java.lang.String");
+        default:
+            return false;
+        }
+    }
+
+    private String castType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return types.erasure(type).toString();
+    }
+
+    /**
+     * Build a Java expression that evaluates to the {@code java.lang.reflect.Type} for the given type mirror.
+     */
+    private String typeExpression(TypeMirror type, Element origin) throws UnsupportedBeanException {
+        switch (type.getKind()) {
+        case DECLARED:
+            DeclaredType declared = (DeclaredType) type;
+            String raw = types.erasure(type).toString() + ".class";
+            if (declared.getTypeArguments().isEmpty()) {
+                return raw;
+            }
+            TypeMirror enclosing = declared.getEnclosingType();
+            if (enclosing.getKind() == TypeKind.DECLARED &&
+                !((DeclaredType) enclosing).getTypeArguments().isEmpty()) {
+                throw new UnsupportedBeanException("Unsupported inner class type " + type, origin, false);
+            }
+            StringBuilder builder = new StringBuilder("at.yawk.config.document.Types.parameterizedType(").append(raw);
+            for (TypeMirror argument : declared.getTypeArguments()) {
+                builder.append(", ").append(typeExpression(argument, origin));
+            }
+            return builder.append(")").toString();
+        case ARRAY:
+            TypeMirror component = ((ArrayType) type).getComponentType();
+            String componentExpression = typeExpression(component, origin);
+            if (componentExpression.endsWith(".class") && !componentExpression.contains("(")) {
+                return types.erasure(type).toString() + ".class";
+            }
+            return "at.yawk.config.document.Types.arrayType(" + componentExpression + ")";
+        default:
+            if (type.getKind().isPrimitive()) {
+                return type.toString() + ".class";
+            }
+            throw new UnsupportedBeanException("Unsupported property type " + type, origin, false);
+        }
+    }
+
+    // nullable
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(superclass) : null;
+    }
+
+    // nullable
+    private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static Object getValue(AnnotationMirror mirror) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalArgumentException("No value on " + mirror);
+    }
+
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+            case '"':
+                builder.append("\\\"");
+                break;
+            case '\\':
+                builder.append("\\\\");
+                break;
+            case '\n':
+                builder.append("\\n");
+                break;
+            case '\r':
+                builder.append("\\r");
+                break;
+            case '\t':
+                builder.append("\\t");
+                break;
+            default:
+                if (c < 0x20 || c > 0x7e) {
+                    builder.append(String.format("\\u%04x", (int) c));
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    // nullable
+    private static String getItemName(String getterMethodName) {
+        int prefixLength;
+        if (getterMethodName.startsWith("is")) {
+            prefixLength = 2;
+        } else if (getterMethodName.startsWith("get")) {
+            prefixLength = 3;
+        } else {
+            return null;
+        }
+        if (prefixLength == getterMethodName.length()) { return null; }
+        return decapitalize(getterMethodName.substring(prefixLength));
+    }
+
+    private static String decapitalize(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String getSetterName(String itemName) {
+        return "set" + Character.toUpperCase(itemName.charAt(0)) + itemName.substring(1);
+    }
+
+    private static class Property {
+        String name;
+
+        ExecutableElement getter;
+        TypeMirror getterType;
+        boolean serialized;
+        String description;
+
+        ExecutableElement setter;
+        TypeMirror setterType;
+    }
+
+    static class UnsupportedBeanException extends Exception {
+        private final Element element;
+        private final boolean warning;
+
+        UnsupportedBeanException(String message, Element element, boolean warning) {
+            super(message);
+            this.element = element;
+            this.warning = warning;
+        }
+
+        Element getElement() {
+            return element;
+        }
+
+        boolean isWarning() {
+            return warning;
+        }
+    }
+}
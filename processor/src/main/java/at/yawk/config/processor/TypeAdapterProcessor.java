@@ -0,0 +1,121 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package at.yawk.config.processor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that generates a {@code TypeAdapter} for every class annotated with
+ * {@code @GenerateTypeAdapter}, plus an index resource the runtime uses to find them.
+ *
+ * @author yawkat
+ */
+public class TypeAdapterProcessor extends AbstractProcessor {
+    static final String DOCUMENT_PACKAGE = "at.yawk.config.document";
+    static final String GENERATE_TYPE_ADAPTER = DOCUMENT_PACKAGE + ".GenerateTypeAdapter";
+    /**
+     * Must match {@code IndexedTypeAdapterFactory.INDEX_RESOURCE}.
+     */
+    static final String INDEX_RESOURCE = "META-INF/at.yawk.config/type-adapters.properties";
+
+    /**
+     * Bean binary name to adapter binary name, for all adapters generated in this compilation.
+     */
+    private final TreeMap<String, String> index = new TreeMap<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(GENERATE_TYPE_ADAPTER);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(GENERATE_TYPE_ADAPTER);
+        if (annotation != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    processingEnv.getMessager().printMessage(
+                            Diagnostic.Kind.ERROR, "@GenerateTypeAdapter is only supported on classes", element);
+                    continue;
+                }
+                generate((TypeElement) element);
+            }
+        }
+        if (roundEnv.processingOver() && !index.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        AdapterGenerator generator = new AdapterGenerator(processingEnv, type);
+        String source;
+        try {
+            source = generator.generate();
+        } catch (AdapterGenerator.UnsupportedBeanException e) {
+            processingEnv.getMessager().printMessage(
+                    e.isWarning() ? Diagnostic.Kind.WARNING : Diagnostic.Kind.ERROR,
+                    e.getMessage(),
+                    e.getElement() == null ? type : e.getElement());
+            return;
+        }
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(generator.getAdapterName(), type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR, "Failed to write type adapter: " + e, type);
+            return;
+        }
+        index.put(processingEnv.getElementUtils().getBinaryName(type).toString(), generator.getAdapterName());
+    }
+
+    private void writeIndex() {
+        Properties properties = new Properties();
+        try {
+            // keep the entries of previous incremental compilations
+            FileObject existing = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+            try (InputStream in = existing.openInputStream()) {
+                properties.load(in);
+            }
+        } catch (IOException ignored) {}
+        properties.putAll(index);
+
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.ISO_8859_1)) {
+                properties.store(writer, "Generated by " + TypeAdapterProcessor.class.getName());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write type adapter index: " + e);
+        }
+    }
+}